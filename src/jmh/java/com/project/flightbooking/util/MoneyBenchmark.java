@@ -0,0 +1,99 @@
+package com.project.flightbooking.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MoneyBenchmark
+ * --------------
+ * Money (long paise) against the BigDecimal code it replaced, on the booking and refund paths:
+ *
+ *  - total: farePerSeat * seats + a fee
+ *  - refund: totalFare * policy percentage, rounded half-up to the paisa
+ *    (BigDecimal multiply + setScale before, basis points with Money.fraction now)
+ *  - toMinor: the amount a gateway request needs (multiply(100).longValueExact() before, minor() now)
+ *
+ * Run with: mvn -Pbenchmarks test-compile exec:exec -Djmh.include=MoneyBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final int SIZE = 1024; // power of two, see next()
+    private static final BigDecimal[] PERCENTS = {
+            BigDecimal.valueOf(0.90), BigDecimal.valueOf(0.70), BigDecimal.valueOf(0.40), BigDecimal.valueOf(0.10)};
+    private static final long[] BASIS_POINTS = {9000, 7000, 4000, 1000};
+
+    private final BigDecimal[] decimalFares = new BigDecimal[SIZE];
+    private final Money[] moneyFares = new Money[SIZE];
+    private final int[] seats = new int[SIZE];
+    private final BigDecimal decimalFee = new BigDecimal("199.00");
+    private final Money moneyFee = Money.ofMinor(19_900);
+    private int i;
+
+    @Setup
+    public void setUp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int k = 0; k < SIZE; k++) {
+            long paise = random.nextLong(150_000, 2_500_000); // 1,500.00 .. 25,000.00
+            decimalFares[k] = BigDecimal.valueOf(paise, 2);
+            moneyFares[k] = Money.ofMinor(paise);
+            seats[k] = 1 + random.nextInt(9);
+        }
+    }
+
+    private int next() {
+        return i = (i + 1) & (SIZE - 1);
+    }
+
+    @Benchmark
+    public BigDecimal totalBigDecimal() {
+        int k = next();
+        return decimalFares[k].multiply(BigDecimal.valueOf(seats[k])).add(decimalFee);
+    }
+
+    @Benchmark
+    public Money totalMoney() {
+        int k = next();
+        return moneyFares[k].times(seats[k]).plus(moneyFee);
+    }
+
+    @Benchmark
+    public BigDecimal refundBigDecimal() {
+        int k = next();
+        return decimalFares[k].multiply(PERCENTS[k & 3]).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public Money refundMoney() {
+        int k = next();
+        return moneyFares[k].fraction(BASIS_POINTS[k & 3], 10_000);
+    }
+
+    @Benchmark
+    public long toMinorBigDecimal() {
+        return decimalFares[next()].multiply(BigDecimal.valueOf(100)).longValueExact();
+    }
+
+    @Benchmark
+    public long toMinorMoney() {
+        return moneyFares[next()].minor();
+    }
+}
@@ -2,8 +2,10 @@ package com.project.flightbooking;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling // drives background jobs such as the seat inventory write-behind flush
 public class FlightBookingSystemApplication {
     public static void main(String[] args) {
         SpringApplication.run(FlightBookingSystemApplication.class, args);
@@ -0,0 +1,38 @@
+package com.project.flightbooking.config;
+
+import com.project.flightbooking.dto.FlightImportResult;
+import com.project.flightbooking.service.FlightImportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Command-line schedule import: start the app with --flights.import.file=/data/winter.csv.gz
+ * (add --spring.main.web-application-type=none to exit when done instead of serving requests).
+ */
+@Component
+public class FlightImportRunner implements ApplicationRunner {
+
+    private final FlightImportService flightImportService;
+
+    @Value("${flights.import.file:}")
+    private String file;
+
+    public FlightImportRunner(FlightImportService flightImportService) {
+        this.flightImportService = flightImportService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (file == null || file.isBlank()) return;
+        FlightImportResult result = flightImportService.importFile(Path.of(file));
+        result.getErrors().forEach(e ->
+                System.out.println("  line " + e.getLine() + " (" + e.getFlightNumber() + "): " + e.getMessage()));
+        if (result.isErrorsTruncated()) {
+            System.out.println("  ... " + (result.getFailed() - result.getErrors().size()) + " more errors");
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.project.flightbooking.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * FlightServiceDateMigration
+ * --------------------------
+ * Moves databases created before flights.service_date to the (flight_number, service_date) key.
+ *
+ *  - Flights without a service date get DATE(departure_time), in batches, so
+ *    FlightJdbcRepository.findExistingKeys and uk_flight_number_service_date see them
+ *    (MySQL does not compare NULLs in a unique key).
+ *  - The old unique index on flight_number alone is dropped afterwards; ddl-auto=update only adds
+ *    uk_flight_number_service_date and would leave it in place, refusing a flight number on a second day.
+ *
+ * Both steps are no-ops once done, so several instances starting together are safe.
+ */
+@Component
+public class FlightServiceDateMigration {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private final EntityManagerFactory entityManagerFactory; // schema is ready once this exists
+    private final JdbcTemplate jdbcTemplate;
+
+    public FlightServiceDateMigration(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        int backfilled = 0;
+        int updated;
+        do {
+            updated = jdbcTemplate.update("update flights set service_date = date(departure_time)" +
+                    " where service_date is null limit " + BATCH_SIZE);
+            backfilled += updated;
+        } while (updated == BATCH_SIZE);
+        if (backfilled > 0) {
+            System.out.println("Flights: service_date backfilled for " + backfilled + " flights");
+        }
+
+        // unique indexes on exactly (flight_number), e.g. the one @Column(unique = true) used to create
+        List<String> old = jdbcTemplate.queryForList("select index_name from information_schema.statistics" +
+                " where table_schema = database() and table_name = 'flights' and non_unique = 0" +
+                " group by index_name having count(*) = 1 and max(column_name) = 'flight_number'", String.class);
+        for (String index : old) {
+            try {
+                jdbcTemplate.execute("alter table flights drop index `" + index + "`");
+                System.out.println("Flights: dropped unique index " + index + " on flight_number");
+            } catch (DataAccessException e) {
+                // another instance dropped it first
+                System.out.println("Flights: could not drop index " + index + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.project.flightbooking.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.metamodel.EntityType;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * IdSequenceAligner
+ * -----------------
+ * Keeps the id_sequences table (pooled @TableGenerator ids) ahead of the ids already in use.
+ *
+ * A pooled generator whose row holds v hands out ids v - allocationSize + 1 .. v and moves the row
+ * to v + allocationSize. Databases that predate the generators (IDENTITY ids, no row yet) or rows
+ * inserted outside Hibernate could therefore collide with existing ids, so on startup every
+ * sequence row is raised to at least max(id) + allocationSize of its table.
+ *
+ * Only ever raises a row, with a conditional update, so several instances starting together are safe.
+ * Tables without rows are left alone; Hibernate initialises their sequence on first use.
+ */
+@Component
+public class IdSequenceAligner {
+
+    private final EntityManagerFactory entityManagerFactory; // schema is ready once this exists
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceAligner(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void align() {
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            Class<?> type = entity.getJavaType();
+            TableGenerator generator = tableGenerator(type);
+            Table table = type.getAnnotation(Table.class);
+            if (generator == null || table == null) continue;
+
+            jdbcTemplate.execute("create table if not exists " + generator.table() + " (" +
+                    generator.pkColumnName() + " varchar(255) not null, " + generator.valueColumnName() + " bigint, " +
+                    "primary key (" + generator.pkColumnName() + "))");
+
+            Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table.name(), Long.class);
+            if (maxId == null) continue;
+            long floor = maxId + generator.allocationSize();
+
+            String name = generator.pkColumnValue();
+            int raised = raise(generator, name, floor);
+            if (raised == 0) {
+                List<Long> current = jdbcTemplate.queryForList("select " + generator.valueColumnName() + " from " +
+                        generator.table() + " where " + generator.pkColumnName() + " = ?", Long.class, name);
+                if (current.isEmpty()) {
+                    try {
+                        jdbcTemplate.update("insert into " + generator.table() + " (" + generator.pkColumnName() + ", " +
+                                generator.valueColumnName() + ") values (?, ?)", name, floor);
+                        raised = 1;
+                    } catch (DuplicateKeyException e) {
+                        // another instance created it; rerun the conditional update
+                        raised = raise(generator, name, floor);
+                    }
+                }
+            }
+            if (raised > 0) {
+                System.out.println("Id sequence " + name + " aligned to " + floor + " (max id " + maxId + ")");
+            }
+        }
+    }
+
+    // sets the row to floor if it is below it; 0 when the row is missing or already high enough
+    private int raise(TableGenerator generator, String name, long floor) {
+        return jdbcTemplate.update("update " + generator.table() + " set " + generator.valueColumnName() + " = ?" +
+                " where " + generator.pkColumnName() + " = ? and " + generator.valueColumnName() + " < ?", floor, name, floor);
+    }
+
+    private static TableGenerator tableGenerator(Class<?> type) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field f : c.getDeclaredFields()) {
+                TableGenerator g = f.getAnnotation(TableGenerator.class);
+                if (g != null) return g;
+            }
+        }
+        return null;
+    }
+}
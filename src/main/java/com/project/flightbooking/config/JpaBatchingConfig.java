@@ -0,0 +1,51 @@
+package com.project.flightbooking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JpaBatchingConfig
+ * -----------------
+ * Turns on Hibernate JDBC batching now that entity ids come from pooled table generators
+ * (IDENTITY ids force Hibernate to insert row by row to read each generated key).
+ *
+ *  - hibernate.jdbc.batch_size = jpa.batch-size statements per batch;
+ *  - order_inserts / order_updates group statements per table so batches are not cut short
+ *    when a flush interleaves bookings and passengers;
+ *  - versioned (Flight) updates are batched too.
+ *
+ * MySQL Connector/J only turns a batch into multi-row statements with rewriteBatchedStatements,
+ * which is added to the Hikari pool's driver properties.
+ */
+@Configuration
+public class JpaBatchingConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer(@Value("${jpa.batch-size:100}") int batchSize) {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+            properties.put(AvailableSettings.ORDER_INSERTS, true);
+            properties.put(AvailableSettings.ORDER_UPDATES, true);
+            properties.put(AvailableSettings.BATCH_VERSIONED_DATA, true);
+        };
+    }
+
+    // static: post-processors are created before the rest of the configuration
+    @Bean
+    public static BeanPostProcessor rewriteBatchedStatements() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource ds && !ds.isRunning()) {
+                    ds.addDataSourceProperty("rewriteBatchedStatements", "true");
+                }
+                return bean;
+            }
+        };
+    }
+}
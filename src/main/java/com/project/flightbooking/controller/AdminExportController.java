@@ -0,0 +1,62 @@
+package com.project.flightbooking.controller;
+
+import com.project.flightbooking.service.ExportService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Full data exports for partners. Rows are streamed straight from the database to the response,
+ * so exports of any size run in constant memory.
+ * e.g. GET /api/admin/export/flights?format=csv&gzip=true
+ */
+@RestController
+@RequestMapping("/api/admin/export")
+public class AdminExportController {
+
+    private final ExportService exportService;
+
+    public AdminExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/flights")
+    public ResponseEntity<StreamingResponseBody> exportFlights(@RequestParam(defaultValue = "ndjson") String format,
+                                                               @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportService.Format f = ExportService.Format.parse(format);
+        return streaming("flights", f, gzip, out -> {
+            long rows = exportService.exportFlights(out, f, gzip);
+            System.out.println("Exported " + rows + " flights as " + f);
+        });
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/bookings")
+    public ResponseEntity<StreamingResponseBody> exportBookings(@RequestParam(defaultValue = "ndjson") String format,
+                                                                @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportService.Format f = ExportService.Format.parse(format);
+        return streaming("bookings", f, gzip, out -> {
+            long rows = exportService.exportBookings(out, f, gzip);
+            System.out.println("Exported " + rows + " bookings as " + f);
+        });
+    }
+
+    private ResponseEntity<StreamingResponseBody> streaming(String name, ExportService.Format format, boolean gzip,
+                                                            StreamingResponseBody body) {
+        String extension = format == ExportService.Format.CSV ? ".csv" : ".ndjson";
+        MediaType type = gzip ? MediaType.parseMediaType("application/gzip")
+                : format == ExportService.Format.CSV ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType("application/x-ndjson");
+        return ResponseEntity.ok()
+                .contentType(type)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + extension + (gzip ? ".gz" : "") + "\"")
+                .body(body);
+    }
+}
@@ -1,21 +1,38 @@
 package com.project.flightbooking.controller;
 
+import com.project.flightbooking.dto.FlightImportResult;
 import com.project.flightbooking.dto.FlightRequest;
 import com.project.flightbooking.dto.FlightResponse;
 import com.project.flightbooking.model.Flight;
+import com.project.flightbooking.model.FlightDisruption;
+import com.project.flightbooking.service.ExportService;
+import com.project.flightbooking.service.FlightDisruptionService;
+import com.project.flightbooking.service.FlightImportService;
 import com.project.flightbooking.service.FlightService;
+import com.project.flightbooking.service.ShardedSeatCounterService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("/api/admin/flights")
 public class AdminFlightController {
 
     private final FlightService flightService;
+    private final ShardedSeatCounterService shardedSeatCounter;
+    private final FlightImportService flightImportService;
+    private final FlightDisruptionService disruptionService;
 
-    public AdminFlightController(FlightService flightService) {
+    public AdminFlightController(FlightService flightService, ShardedSeatCounterService shardedSeatCounter,
+                                 FlightImportService flightImportService, FlightDisruptionService disruptionService) {
         this.flightService = flightService;
+        this.shardedSeatCounter = shardedSeatCounter;
+        this.flightImportService = flightImportService;
+        this.disruptionService = disruptionService;
     }
 
     // method-level annotations
@@ -29,6 +46,25 @@ public class AdminFlightController {
         return ResponseEntity.ok(resp);
     }
 
+    /**
+     * Bulk schedule import: CSV (header row, flight export column names) or NDJSON (one FlightRequest
+     * per line), sent as the raw request body or read from ?path= under flights.import.dir.
+     * Chunks commit independently; the result lists every rejected line with the reason.
+     * e.g. POST /api/admin/flights/import?format=csv&gzip=true  (body: the file)
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/import")
+    public ResponseEntity<FlightImportResult> importFlights(@RequestParam(defaultValue = "csv") String format,
+                                                            @RequestParam(defaultValue = "false") boolean gzip,
+                                                            @RequestParam(required = false) String path,
+                                                            InputStream body) throws IOException {
+        ExportService.Format f = ExportService.Format.parse(format);
+        FlightImportResult result = path != null
+                ? flightImportService.importFromImportDir(path, f, gzip)
+                : flightImportService.importFlights(body, f, gzip);
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<FlightResponse> getFlight(@PathVariable Long id) {
         return flightService.findById(id)
@@ -36,6 +72,41 @@ public class AdminFlightController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // Spread a hot flight's remaining seats over several counter rows, e.g. ?shards=8
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/{id}/sharding")
+    public ResponseEntity<FlightResponse> enableSharding(@PathVariable Long id, @RequestParam int shards) {
+        shardedSeatCounter.enable(id, shards);
+        return getFlight(id);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping("/{id}/sharding")
+    public ResponseEntity<FlightResponse> disableSharding(@PathVariable Long id) {
+        shardedSeatCounter.disable(id);
+        return getFlight(id);
+    }
+
+    /**
+     * Cancel a flight: it goes off sale at once, and its bookings are refunded (paid) or released
+     * (unpaid holds) in the background. Poll GET /{id}/disruption for progress.
+     * e.g. POST /api/admin/flights/42/cancel?reason=Technical%20fault
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<FlightDisruption> cancelFlight(@PathVariable Long id,
+                                                         @RequestParam(required = false) String reason) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(disruptionService.cancelFlight(id, reason));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/{id}/disruption")
+    public ResponseEntity<FlightDisruption> getDisruption(@PathVariable Long id) {
+        return disruptionService.find(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     private FlightResponse toResponse(Flight f) {
         FlightResponse r = new FlightResponse();
         r.setId(f.getId());
@@ -46,8 +117,11 @@ public class AdminFlightController {
         r.setDepartureTime(f.getDepartureTime());
         r.setArrivalTime(f.getArrivalTime());
         r.setTotalSeats(f.getTotalSeats());
-        r.setRemainingSeats(f.getRemainingSeats());
-        r.setBaseFare(f.getBaseFare());
+        // sharded flights: the shards are authoritative
+        r.setRemainingSeats(ShardedSeatCounterService.isSharded(f)
+                ? shardedSeatCounter.remaining(f.getId())
+                : f.getRemainingSeats());
+        r.setBaseFare(f.getBaseFare().toBigDecimal());
         r.setStatus(f.getStatus());
         return r;
     }
@@ -0,0 +1,55 @@
+package com.project.flightbooking.controller;
+
+import com.project.flightbooking.service.PaymentGatewayGuard;
+import com.project.flightbooking.service.ReservationMetrics;
+import com.project.flightbooking.service.SearchResultCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/metrics")
+public class AdminMetricsController {
+
+    private final ReservationMetrics reservationMetrics;
+    private final SearchResultCache searchResultCache;
+    private final PaymentGatewayGuard paymentGatewayGuard;
+
+    public AdminMetricsController(ReservationMetrics reservationMetrics, SearchResultCache searchResultCache,
+                                  PaymentGatewayGuard paymentGatewayGuard) {
+        this.reservationMetrics = reservationMetrics;
+        this.searchResultCache = searchResultCache;
+        this.paymentGatewayGuard = paymentGatewayGuard;
+    }
+
+    /**
+     * Seat reservation counters for the active strategy (successes, rejections, aborts, p50/p99).
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/reservations")
+    public ResponseEntity<Map<String, Object>> reservations() {
+        return ResponseEntity.ok(reservationMetrics.snapshot());
+    }
+
+    /**
+     * Flight search result cache counters (entries, hits, misses, evictions, invalidations).
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/search-cache")
+    public ResponseEntity<Map<String, Object>> searchCache() {
+        return ResponseEntity.ok(searchResultCache.snapshot());
+    }
+
+    /**
+     * Payment gateway calls (failures, timeouts, retries, bulkhead rejections, p50/p99) and circuit breaker state.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/payment-gateway")
+    public ResponseEntity<Map<String, Object>> paymentGateway() {
+        return ResponseEntity.ok(paymentGatewayGuard.snapshot());
+    }
+}
@@ -0,0 +1,65 @@
+package com.project.flightbooking.controller;
+
+import com.project.flightbooking.dto.ScheduleGenerationResult;
+import com.project.flightbooking.dto.ScheduleTemplateRequest;
+import com.project.flightbooking.model.ScheduleTemplate;
+import com.project.flightbooking.service.ScheduleGenerator;
+import com.project.flightbooking.service.ScheduleTemplateService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Recurring schedules: templates and their expansion into dated flights.
+ * e.g. POST /api/admin/schedules {"flightNumber":"AI101","origin":"DEL","destination":"BLR",
+ *      "departureTime":"06:00","timeZone":"Asia/Kolkata","durationMinutes":165,"daysOfWeek":"1234567",
+ *      "validFrom":"2026-10-25","validTo":"2027-03-28",...}
+ *      POST /api/admin/schedules/generate?from=2026-10-25&to=2027-03-28
+ */
+@RestController
+@RequestMapping("/api/admin/schedules")
+public class AdminScheduleController {
+
+    private final ScheduleTemplateService templateService;
+    private final ScheduleGenerator scheduleGenerator;
+
+    public AdminScheduleController(ScheduleTemplateService templateService, ScheduleGenerator scheduleGenerator) {
+        this.templateService = templateService;
+        this.scheduleGenerator = scheduleGenerator;
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping
+    public ResponseEntity<ScheduleTemplate> create(@RequestBody ScheduleTemplateRequest request) {
+        return ResponseEntity.ok(templateService.create(request));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping
+    public ResponseEntity<List<ScheduleTemplate>> listActive() {
+        return ResponseEntity.ok(templateService.findActive());
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ScheduleTemplate> deactivate(@PathVariable Long id) {
+        return ResponseEntity.ok(templateService.deactivate(id));
+    }
+
+    /**
+     * Materialize dated flights for one template (?templateId=) or all active ones. Safe to repeat:
+     * flights that already exist for a (flightNumber, date) are left alone.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/generate")
+    public ResponseEntity<ScheduleGenerationResult> generate(
+            @RequestParam(required = false) Long templateId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(scheduleGenerator.generate(templateId, from, to));
+    }
+}
@@ -2,37 +2,110 @@ package com.project.flightbooking.controller;
 
 import com.project.flightbooking.dto.BookingRequest;
 import com.project.flightbooking.dto.BookingResponse;
+import com.project.flightbooking.dto.ItineraryRequest;
+import com.project.flightbooking.dto.ItineraryResponse;
+import com.project.flightbooking.dto.SeatSelectionRequest;
+import com.project.flightbooking.dto.WaitlistRequest;
+import com.project.flightbooking.dto.WaitlistResponse;
 import com.project.flightbooking.model.Booking;
+import com.project.flightbooking.model.WaitlistEntry;
 import com.project.flightbooking.service.BookingService;
+import com.project.flightbooking.service.IdempotencyService;
+import com.project.flightbooking.service.ReservationCoalescer;
+import com.project.flightbooking.service.WaitlistService;
+import com.project.flightbooking.util.Money;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/bookings")
 public class BookingController {
 
     private final BookingService bookingService;
-    public BookingController(BookingService bookingService) {
+    private final ReservationCoalescer reservationCoalescer;
+    private final WaitlistService waitlistService;
+    private final IdempotencyService idempotencyService;
+    public BookingController(BookingService bookingService, ReservationCoalescer reservationCoalescer,
+                             WaitlistService waitlistService, IdempotencyService idempotencyService) {
         this.bookingService = bookingService;
+        this.reservationCoalescer = reservationCoalescer;
+        this.waitlistService = waitlistService;
+        this.idempotencyService = idempotencyService;
     }
 
     /**
      * Reserve seats (creates a PENDING booking and decrements flight remaining seats).
+     * Concurrent requests for the same flight are group-committed by ReservationCoalescer.
+     * Retries carrying the same Idempotency-Key header get the first booking back instead of a new one.
      * Requires authenticated user.
      */
     @PostMapping
     public ResponseEntity<BookingResponse> createBooking(
             @AuthenticationPrincipal UserDetails userDetails,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @RequestBody BookingRequest req) {
 
         String username = userDetails.getUsername();
-        Booking booking = bookingService.reserveSeats(username, req);
-        BookingResponse resp = toResponse(booking);
+        return idempotencyService.execute(username, "POST /api/bookings", idempotencyKey, req, BookingResponse.class, () -> {
+            Booking booking = reservationCoalescer.reserve(username, req);
+            BookingResponse resp = toResponse(booking);
+            return ResponseEntity.ok(resp);
+        });
+    }
+
+    /**
+     * Reserve specific seats ("seats": ["12A","12B"]) or let the system pick "seatCount"
+     * seats next to each other. Creates a PENDING booking like POST /api/bookings.
+     */
+    @PostMapping("/seats")
+    public ResponseEntity<BookingResponse> createSeatBooking(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestBody SeatSelectionRequest req) {
+        Booking booking = bookingService.reserveWithSeats(userDetails.getUsername(), req);
+        return ResponseEntity.ok(toResponse(booking));
+    }
+
+    /**
+     * Reserve seats on several flights at once (round trip / connections).
+     * All legs are reserved in one transaction: either every leg gets a PENDING booking or none does.
+     */
+    @PostMapping("/itinerary")
+    public ResponseEntity<ItineraryResponse> createItinerary(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestBody ItineraryRequest req) {
+
+        List<Booking> bookings = bookingService.reserveItinerary(userDetails.getUsername(), req);
+        ItineraryResponse resp = new ItineraryResponse();
+        resp.setItineraryRef(bookings.get(0).getItineraryRef());
+        resp.setBookings(bookings.stream().map(this::toResponse).toList());
+        resp.setTotalFare(bookings.stream().map(Booking::getTotalFare).reduce(Money.zero(), Money::plus).toBigDecimal());
         return ResponseEntity.ok(resp);
     }
 
+    /**
+     * Join the waitlist of a sold-out flight. When seats are released the user automatically
+     * gets a PENDING booking (see bookingRef in the response) and pays for it as usual.
+     */
+    @PostMapping("/waitlist")
+    public ResponseEntity<WaitlistResponse> joinWaitlist(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestBody WaitlistRequest req) {
+        WaitlistEntry entry = waitlistService.join(userDetails.getUsername(), req);
+        return ResponseEntity.ok(toResponse(entry));
+    }
+
+    @DeleteMapping("/waitlist/{id}")
+    public ResponseEntity<WaitlistResponse> leaveWaitlist(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable Long id) {
+        WaitlistEntry entry = waitlistService.leave(userDetails.getUsername(), id);
+        return ResponseEntity.ok(toResponse(entry));
+    }
+
     /**
      * Confirm after payment success (mock). In real flow this is invoked by payment gateway webhook
      */
@@ -42,6 +115,18 @@ public class BookingController {
         return ResponseEntity.ok(toResponse(b));
     }
 
+    /**
+     * Cancel an unpaid (PENDING) booking and release its seats immediately.
+     * Only the user who made the booking can cancel it.
+     */
+    @PostMapping("/{bookingRef}/cancel")
+    public ResponseEntity<BookingResponse> cancelBooking(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable String bookingRef) {
+        Booking b = bookingService.cancelPendingBooking(userDetails.getUsername(), bookingRef);
+        return ResponseEntity.ok(toResponse(b));
+    }
+
     @GetMapping("/{bookingRef}")
     public ResponseEntity<BookingResponse> getBooking(@PathVariable String bookingRef) {
         return bookingService.findByRef(bookingRef)
@@ -52,11 +137,25 @@ public class BookingController {
     private BookingResponse toResponse(Booking b) {
         BookingResponse r = new BookingResponse();
         r.setBookingRef(b.getBookingRef());
+        r.setItineraryRef(b.getItineraryRef());
         r.setFlightId(b.getFlight().getId());
         r.setSeatCount(b.getSeatCount());
-        r.setTotalFare(b.getTotalFare());
+        r.setSeatNumbers(b.getSeatNumbers());
+        r.setTotalFare(b.getTotalFare().toBigDecimal());
         r.setStatus(b.getStatus().name());
         r.setCreatedAt(b.getCreatedAt());
         return r;
     }
+
+    private WaitlistResponse toResponse(WaitlistEntry w) {
+        WaitlistResponse r = new WaitlistResponse();
+        r.setId(w.getId());
+        r.setFlightId(w.getFlight().getId());
+        r.setSeatCount(w.getSeatCount());
+        r.setStatus(w.getStatus().name());
+        r.setPosition(waitlistService.position(w));
+        r.setBookingRef(w.getBookingRef());
+        r.setCreatedAt(w.getCreatedAt());
+        return r;
+    }
 }
\ No newline at end of file
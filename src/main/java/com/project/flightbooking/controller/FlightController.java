@@ -1,22 +1,231 @@
 package com.project.flightbooking.controller;
 
+import com.project.flightbooking.dto.AutocompleteSuggestion;
+import com.project.flightbooking.dto.ConnectionResponse;
+import com.project.flightbooking.dto.FareCalendarResponse;
 import com.project.flightbooking.dto.FlightResponse;
+import com.project.flightbooking.dto.FlightSearchPage;
+import com.project.flightbooking.dto.SeatMapResponse;
+import com.project.flightbooking.model.Flight;
+import com.project.flightbooking.service.AutocompleteService;
+import com.project.flightbooking.service.ConnectionSearchService;
+import com.project.flightbooking.service.FareCalendarService;
+import com.project.flightbooking.service.FlightSearchIndex;
+import com.project.flightbooking.service.FlightService;
+import com.project.flightbooking.service.PricingEngine;
+import com.project.flightbooking.service.SeatMapService;
+import com.project.flightbooking.util.Money;
+import com.project.flightbooking.util.SeatBitmap;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/flights")
 public class FlightController {
 
+    private static final int MAX_RESULTS = 500;
+
+    private final SeatMapService seatMapService;
+    private final FlightService flightService;
+    private final FlightSearchIndex searchIndex;
+    private final ConnectionSearchService connectionSearchService;
+    private final FareCalendarService fareCalendarService;
+    private final AutocompleteService autocompleteService;
+    private final PricingEngine pricingEngine;
+
+    public FlightController(SeatMapService seatMapService, FlightService flightService,
+                            FlightSearchIndex searchIndex, ConnectionSearchService connectionSearchService,
+                            FareCalendarService fareCalendarService, AutocompleteService autocompleteService,
+                            PricingEngine pricingEngine) {
+        this.seatMapService = seatMapService;
+        this.flightService = flightService;
+        this.searchIndex = searchIndex;
+        this.connectionSearchService = connectionSearchService;
+        this.fareCalendarService = fareCalendarService;
+        this.autocompleteService = autocompleteService;
+        this.pricingEngine = pricingEngine;
+    }
+
     @GetMapping
-    public ResponseEntity<List<FlightResponse>> getAllFlights() {
-        return ResponseEntity.ok(List.of());
+    public ResponseEntity<List<FlightResponse>> getAllFlights(@RequestParam(defaultValue = "0") int page,
+                                                              @RequestParam(defaultValue = "50") int size) {
+        PageRequest pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_RESULTS),
+                Sort.by("departureTime", "id"));
+        return ResponseEntity.ok(flightService.findAll(pageable).map(this::toResponse).getContent());
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<FlightResponse> getFlight(@PathVariable Long id) {
-        return ResponseEntity.ok(new FlightResponse());
+        FlightSearchIndex.IndexedFlight indexed = searchIndex.get(id);
+        if (indexed != null) {
+            return ResponseEntity.ok(toResponse(indexed));
+        }
+        return flightService.findById(id)
+                .map(f -> ResponseEntity.ok(toResponse(f)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Public flight search, answered from the in-memory FlightSearchIndex (no database access).
+     * Returns SCHEDULED flights on the route departing between from and to (default: the next 7 days)
+     * with at least "seats" seats left, in departure order.
+     * e.g. GET /api/flights/search?origin=DEL&destination=BLR&from=2025-10-10T00:00:00+05:30&seats=2
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<FlightResponse>> search(
+            @RequestParam String origin,
+            @RequestParam String destination,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime to,
+            @RequestParam(defaultValue = "1") int seats,
+            @RequestParam(defaultValue = "50") int limit) {
+        ZonedDateTime start = from != null ? from : ZonedDateTime.now();
+        ZonedDateTime end = to != null ? to : start.plusDays(7);
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        List<FlightResponse> result = searchIndex
+                .search(origin, destination, start, end, Math.max(seats, 0), Math.min(Math.max(limit, 1), MAX_RESULTS))
+                .stream().map(this::toResponse).toList();
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Cursor-paged listing of a route straight from the database, ordered by departure time.
+     * Pass the returned nextCursor as ?cursor= for the next page; every page costs the same.
+     * e.g. GET /api/flights/route?origin=DEL&destination=BLR&from=2025-10-10T00:00:00Z&size=50
+     */
+    @GetMapping("/route")
+    public ResponseEntity<FlightSearchPage> searchRoute(
+            @RequestParam String origin,
+            @RequestParam String destination,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        ZonedDateTime start = from != null ? from : ZonedDateTime.now();
+        ZonedDateTime end = to != null ? to : start.plusDays(30);
+        return ResponseEntity.ok(flightService.searchPage(origin, destination, start, end, cursor,
+                Math.min(Math.max(size, 1), MAX_RESULTS)));
+    }
+
+    /**
+     * Direct and connecting options from origin to destination, first leg departing between from and
+     * to (default: the next 24 hours). Returns the Pareto-optimal options on arrival time, total fare
+     * and number of legs, earliest arrival first.
+     * e.g. GET /api/flights/connections?origin=IXC&destination=TRV&maxLegs=3&minConnectionMinutes=60
+     */
+    @GetMapping("/connections")
+    public ResponseEntity<List<ConnectionResponse>> searchConnections(
+            @RequestParam String origin,
+            @RequestParam String destination,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime to,
+            @RequestParam(defaultValue = "3") int maxLegs,
+            @RequestParam(defaultValue = "45") long minConnectionMinutes,
+            @RequestParam(defaultValue = "24") long maxConnectionHours,
+            @RequestParam(defaultValue = "1") int seats,
+            @RequestParam(defaultValue = "20") int limit) {
+        ZonedDateTime start = from != null ? from : ZonedDateTime.now();
+        ZonedDateTime end = to != null ? to : start.plusDays(1);
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        List<ConnectionResponse> result = connectionSearchService
+                .search(origin, destination, start, end, maxLegs,
+                        Duration.ofMinutes(minConnectionMinutes), Duration.ofHours(maxConnectionHours), Math.max(seats, 0))
+                .stream().limit(Math.min(Math.max(limit, 1), MAX_RESULTS)).map(this::toResponse).toList();
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Cheapest fare per day on a route (flights with seats left), for the date strip in the UI.
+     * e.g. GET /api/flights/fare-calendar?origin=DEL&destination=BOM&from=2025-10-10&days=90
+     */
+    @GetMapping("/fare-calendar")
+    public ResponseEntity<FareCalendarResponse> fareCalendar(
+            @RequestParam String origin,
+            @RequestParam String destination,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(defaultValue = "90") int days) {
+        if (days < 1 || days > 366) {
+            throw new IllegalArgumentException("days must be between 1 and 366");
+        }
+        LocalDate start = from != null ? from : LocalDate.now();
+        long[] fares = fareCalendarService.lowestFares(origin, destination, start, days);
+        List<BigDecimal> lowest = new ArrayList<>(days);
+        for (long paise : fares) {
+            lowest.add(paise < 0 ? null : Money.ofMinor(paise).toBigDecimal());
+        }
+        FareCalendarResponse r = new FareCalendarResponse();
+        r.setOrigin(origin.toUpperCase());
+        r.setDestination(destination.toUpperCase());
+        r.setFrom(start);
+        r.setCurrency("INR");
+        r.setLowestFares(lowest);
+        return ResponseEntity.ok(r);
+    }
+
+    /**
+     * Type-ahead for the search boxes: airport codes and airline names starting with q, most
+     * popular first. Served from memory.
+     * e.g. GET /api/flights/autocomplete?q=bl&limit=8
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<AutocompleteSuggestion>> autocomplete(@RequestParam(defaultValue = "") String q,
+                                                                     @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(autocompleteService.complete(q, limit));
+    }
+
+    /**
+     * Current seat map of a flight: which seats are free, for seat selection.
+     */
+    @GetMapping("/{id}/seat-map")
+    public ResponseEntity<SeatMapResponse> getSeatMap(@PathVariable Long id) {
+        SeatBitmap map = seatMapService.mapFor(id);
+        SeatMapResponse r = new SeatMapResponse();
+        r.setFlightId(id);
+        r.setTotalSeats(map.capacity());
+        r.setSeatsPerRow(map.seatsPerRow());
+        r.setFreeSeats(map.freeSeats());
+        r.setBitmap(Base64.getEncoder().encodeToString(map.toBytes()));
+        r.setRows(map.rows());
+        return ResponseEntity.ok(r);
+    }
+
+    private ConnectionResponse toResponse(ConnectionSearchService.Option o) {
+        ConnectionResponse r = new ConnectionResponse();
+        r.setLegs(o.legs().stream().map(this::toResponse).toList());
+        r.setStops(o.legs().size() - 1);
+        r.setDepartureTime(o.first().departureTime);
+        r.setArrivalTime(o.last().arrivalTime);
+        r.setDurationMinutes(Duration.between(o.first().departureTime, o.last().arrivalTime).toMinutes());
+        r.setTotalFare(Money.ofMinor(o.farePaise()).toBigDecimal());
+        return r;
+    }
+
+    private FlightResponse toResponse(FlightSearchIndex.IndexedFlight f) {
+        return new FlightResponse(f.id, f.flightNumber, f.airline, f.origin, f.destination,
+                f.departureTime, f.arrivalTime, f.totalSeats, f.remainingSeats(), f.baseFare.toBigDecimal(), pricingEngine.quote(f).toBigDecimal(), f.status());
+    }
+
+    private FlightResponse toResponse(Flight f) {
+        // indexed flights carry live seat counts (in-memory / sharded inventory)
+        FlightSearchIndex.IndexedFlight indexed = searchIndex.get(f.getId());
+        return new FlightResponse(f.getId(), f.getFlightNumber(), f.getAirline(), f.getOrigin(), f.getDestination(),
+                f.getDepartureTime(), f.getArrivalTime(), f.getTotalSeats(),
+                indexed != null ? indexed.remainingSeats() : f.getRemainingSeats(), f.getBaseFare().toBigDecimal(),
+                (indexed != null ? pricingEngine.quote(indexed) : pricingEngine.quote(f)).toBigDecimal(), f.getStatus());
     }
 }
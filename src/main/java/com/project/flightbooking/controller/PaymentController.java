@@ -1,8 +1,12 @@
 package com.project.flightbooking.controller;
 
+import com.project.flightbooking.service.IdempotencyService;
 import com.project.flightbooking.service.PaymentService;
 import org.json.JSONObject;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -10,17 +14,40 @@ import org.springframework.web.bind.annotation.*;
 public class PaymentController {
 
     private final PaymentService paymentService;
-    public PaymentController(PaymentService paymentService) {
+    private final IdempotencyService idempotencyService;
+    public PaymentController(PaymentService paymentService, IdempotencyService idempotencyService) {
         this.paymentService = paymentService;
+        this.idempotencyService = idempotencyService;
     }
 
+    // The order is created asynchronously: 202 with status PENDING until it exists, then poll
+    // GET /status/{bookingRef}. With an Idempotency-Key header, retries return the first response.
     @PostMapping("/create/{bookingRef}")
-    public ResponseEntity<String> createPaymentOrder(@PathVariable String bookingRef) {
-        try {
-            JSONObject response = paymentService.createRazorpayOrder(bookingRef);
-            return ResponseEntity.ok(response.toString());
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Error creating order: " + e.getMessage());
+    public ResponseEntity<String> createPaymentOrder(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @PathVariable String bookingRef) {
+        String username = userDetails != null ? userDetails.getUsername() : "anonymous";
+        return idempotencyService.execute(username, "POST /api/payments/create", idempotencyKey, bookingRef, String.class, () -> {
+            try {
+                JSONObject response = paymentService.createRazorpayOrder(bookingRef);
+                return statusResponse(response);
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body("Error creating order: " + e.getMessage());
+            }
+        });
+    }
+
+    // Poll until status is CREATED (open the checkout) or FAILED; Retry-After hints the poll interval
+    @GetMapping("/status/{bookingRef}")
+    public ResponseEntity<String> getPaymentStatus(@PathVariable String bookingRef) {
+        return statusResponse(paymentService.getPaymentStatus(bookingRef));
+    }
+
+    private static ResponseEntity<String> statusResponse(JSONObject response) {
+        if ("PENDING".equals(response.getString("status"))) {
+            return ResponseEntity.accepted().header(HttpHeaders.RETRY_AFTER, "1").body(response.toString());
         }
+        return ResponseEntity.ok(response.toString());
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.project.flightbooking.controller;
 
+import com.project.flightbooking.dto.RefundStatusResponse;
 import com.project.flightbooking.model.RefundTransaction;
 import com.project.flightbooking.service.RefundService;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +18,8 @@ public class RefundController {
     /**
      * Initiate a refund for a bookingRef.
      * This endpoint is idempotent: calling multiple times returns the existing refund in progress.
+     * The refund is queued (status INITIATED) and sent to the gateway asynchronously; poll
+     * GET /status/{bookingRef} for its progress.
      */
     @PostMapping("/initiate/{bookingRef}")
     public ResponseEntity<?> initiateRefund(@PathVariable String bookingRef) {
@@ -27,4 +30,9 @@ public class RefundController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @GetMapping("/status/{bookingRef}")
+    public ResponseEntity<RefundStatusResponse> getRefundStatus(@PathVariable String bookingRef) {
+        return ResponseEntity.ok(refundService.getRefundStatus(bookingRef));
+    }
+}
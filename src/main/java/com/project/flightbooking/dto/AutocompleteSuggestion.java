@@ -0,0 +1,14 @@
+package com.project.flightbooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AutocompleteSuggestion {
+    private String text;   // airport code or airline name, as stored on flights
+    private String type;   // AIRPORT or AIRLINE
+    private Long flights;  // popularity: flights on routes touching the airport / flown by the airline
+}
@@ -2,8 +2,11 @@ package com.project.flightbooking.dto;
 
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 public class BookingRequest {
     private Long flightId;
     private Integer seatCount;
+    private List<PassengerRequest> passengers; // optional; if given, one entry per seat
 }
\ No newline at end of file
@@ -8,8 +8,10 @@ import java.time.LocalDateTime;
 @Data
 public class BookingResponse {
     private String bookingRef;
+    private String itineraryRef;
     private Long flightId;
     private Integer seatCount;
+    private String seatNumbers;
     private BigDecimal totalFare;
     private String status;
     private LocalDateTime createdAt;
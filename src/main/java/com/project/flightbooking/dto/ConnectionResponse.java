@@ -0,0 +1,20 @@
+package com.project.flightbooking.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * One option from the connection search: 1..n legs, each departing after the previous one landed.
+ */
+@Data
+public class ConnectionResponse {
+    private List<FlightResponse> legs;
+    private Integer stops;
+    private ZonedDateTime departureTime;
+    private ZonedDateTime arrivalTime;
+    private Long durationMinutes;
+    private BigDecimal totalFare; // sum of base fares, per seat
+}
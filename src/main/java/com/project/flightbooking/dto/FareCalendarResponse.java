@@ -0,0 +1,16 @@
+package com.project.flightbooking.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class FareCalendarResponse {
+    private String origin;
+    private String destination;
+    private LocalDate from;
+    private String currency;
+    private List<BigDecimal> lowestFares; // one per day starting at "from"; null = no flight with seats
+}
@@ -0,0 +1,14 @@
+package com.project.flightbooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightImportError {
+    private long line;           // 1-based line in the uploaded file
+    private String flightNumber; // null when the row could not be parsed
+    private String message;
+}
@@ -0,0 +1,16 @@
+package com.project.flightbooking.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class FlightImportResult {
+    private long rows;
+    private long imported;
+    private long failed;
+    private long elapsedMillis;
+    private List<FlightImportError> errors = new ArrayList<>(); // first flights.import.max-errors failures
+    private boolean errorsTruncated;
+}
@@ -18,5 +18,6 @@ public class FlightRequest {
     private String arrivalTime;
     private Integer totalSeats;
     private BigDecimal baseFare;
+    private Integer seatsPerRow; // optional, defaults to 6
 
 }
\ No newline at end of file
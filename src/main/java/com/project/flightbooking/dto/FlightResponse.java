@@ -21,5 +21,6 @@ public class FlightResponse {
     private Integer totalSeats;
     private Integer remainingSeats;
     private BigDecimal baseFare;
+    private BigDecimal fare;       // current price per seat (PricingEngine)
     private String status;
 }
\ No newline at end of file
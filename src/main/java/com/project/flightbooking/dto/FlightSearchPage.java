@@ -0,0 +1,15 @@
+package com.project.flightbooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightSearchPage {
+    private List<FlightSearchRow> flights;
+    private String nextCursor; // pass as ?cursor= to get the next page; null on the last page
+}
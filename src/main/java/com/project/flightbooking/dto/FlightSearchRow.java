@@ -0,0 +1,40 @@
+package com.project.flightbooking.dto;
+
+import com.project.flightbooking.util.Money;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import lombok.With;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+/**
+ * Read-only search result row, built directly by a JPQL constructor expression
+ * (FlightRepository.findRouteAfter) without hydrating Flight entities.
+ */
+@Value
+@AllArgsConstructor
+public class FlightSearchRow {
+    Long id;
+    String flightNumber;
+    String airline;
+    String origin;
+    String destination;
+    ZonedDateTime departureTime;
+    ZonedDateTime arrivalTime;
+    Integer totalSeats;
+    @With
+    Integer remainingSeats;
+    BigDecimal baseFare;
+    String status;
+    @With
+    BigDecimal fare; // current price, filled in by FlightService
+
+    // constructor expression used by the query; fare is priced afterwards
+    public FlightSearchRow(Long id, String flightNumber, String airline, String origin, String destination,
+                           ZonedDateTime departureTime, ZonedDateTime arrivalTime, Integer totalSeats,
+                           Integer remainingSeats, Money baseFare, String status) {
+        this(id, flightNumber, airline, origin, destination, departureTime, arrivalTime, totalSeats,
+                remainingSeats, baseFare.toBigDecimal(), status, null);
+    }
+}
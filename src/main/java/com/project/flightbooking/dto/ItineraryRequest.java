@@ -0,0 +1,14 @@
+package com.project.flightbooking.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Several flights booked together (round trip, connections).
+ * Either every leg is reserved or none is.
+ */
+@Data
+public class ItineraryRequest {
+    private List<BookingRequest> legs;
+}
@@ -0,0 +1,13 @@
+package com.project.flightbooking.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class ItineraryResponse {
+    private String itineraryRef;
+    private List<BookingResponse> bookings;
+    private BigDecimal totalFare;
+}
@@ -0,0 +1,17 @@
+package com.project.flightbooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PassengerRequest {
+    private String firstName;
+    private String lastName;
+    private LocalDate dateOfBirth; // ISO date e.g. 1990-04-21
+    private String documentNumber; // passport / ID, optional for domestic flights
+}
@@ -0,0 +1,21 @@
+package com.project.flightbooking.dto;
+
+import com.project.flightbooking.enums.RefundStatus;
+import com.project.flightbooking.util.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefundStatusResponse {
+    private String bookingRef;
+    private Long refundId;
+    private RefundStatus status;     // INITIATED = queued for the gateway
+    private Money amount;
+    private String providerRefundId; // set once the gateway accepted the refund
+    private LocalDateTime updatedAt;
+}
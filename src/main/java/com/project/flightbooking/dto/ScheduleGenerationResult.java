@@ -0,0 +1,16 @@
+package com.project.flightbooking.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class ScheduleGenerationResult {
+    private int templates;
+    private LocalDate from;
+    private LocalDate to;
+    private long generated;        // flights inserted by this run
+    private long alreadyExisting;  // (flightNumber, date) pairs that were already there
+    private long elapsedMillis;
+    private long flightsPerSecond;
+}
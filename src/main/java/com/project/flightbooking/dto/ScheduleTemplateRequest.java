@@ -0,0 +1,26 @@
+package com.project.flightbooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleTemplateRequest {
+    private String flightNumber;
+    private String airline;
+    private String origin;
+    private String destination;
+    private String departureTime;   // local time, e.g. "06:00"
+    private String timeZone;        // e.g. "Asia/Kolkata"
+    private Integer durationMinutes;
+    private String daysOfWeek;      // ISO day digits, Monday = 1, e.g. "1234567" (daily) or "135"
+    private String validFrom;       // ISO date, e.g. 2026-10-25
+    private String validTo;
+    private Integer totalSeats;
+    private BigDecimal baseFare;
+    private Integer seatsPerRow;    // optional, defaults to 6
+}
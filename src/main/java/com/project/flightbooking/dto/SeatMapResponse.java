@@ -0,0 +1,13 @@
+package com.project.flightbooking.dto;
+
+import lombok.Data;
+
+@Data
+public class SeatMapResponse {
+    private Long flightId;
+    private Integer totalSeats;
+    private Integer seatsPerRow;
+    private Integer freeSeats;
+    private String bitmap; // base64 of the packed map, bit i = seat i, 1 = taken
+    private String[] rows; // one string per row: '.' free, 'X' taken
+}
@@ -0,0 +1,17 @@
+package com.project.flightbooking.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Book specific seats ("seats": ["12A", "12B"]) or let the system pick
+ * "seatCount" seats, adjacent in one row when possible.
+ */
+@Data
+public class SeatSelectionRequest {
+    private Long flightId;
+    private List<String> seats;
+    private Integer seatCount;
+    private List<PassengerRequest> passengers; // optional; one per seat, in seat order
+}
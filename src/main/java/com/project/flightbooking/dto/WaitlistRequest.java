@@ -0,0 +1,9 @@
+package com.project.flightbooking.dto;
+
+import lombok.Data;
+
+@Data
+public class WaitlistRequest {
+    private Long flightId;
+    private Integer seatCount;
+}
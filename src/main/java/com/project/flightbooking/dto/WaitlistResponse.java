@@ -0,0 +1,16 @@
+package com.project.flightbooking.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class WaitlistResponse {
+    private Long id;
+    private Long flightId;
+    private Integer seatCount;
+    private String status;
+    private Integer position;   // 1 = next in line; null once no longer waiting
+    private String bookingRef;  // set once promoted
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,7 @@
+package com.project.flightbooking.enums;
+
+public enum DisruptionStatus {
+    RUNNING,
+    COMPLETED,
+    COMPLETED_WITH_FAILURES
+}
@@ -0,0 +1,8 @@
+package com.project.flightbooking.enums;
+
+public enum OutboxStatus {
+    PENDING,
+    IN_PROGRESS,
+    DONE,
+    FAILED
+}
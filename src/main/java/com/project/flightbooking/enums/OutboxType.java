@@ -0,0 +1,6 @@
+package com.project.flightbooking.enums;
+
+public enum OutboxType {
+    CREATE_ORDER,
+    REFUND
+}
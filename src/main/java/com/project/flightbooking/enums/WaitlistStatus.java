@@ -0,0 +1,7 @@
+package com.project.flightbooking.enums;
+
+public enum WaitlistStatus {
+    WAITING,
+    PROMOTED,
+    CANCELLED
+}
@@ -3,6 +3,7 @@ package com.project.flightbooking.exception;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
 import java.util.Map;
 
 @RestControllerAdvice
@@ -13,6 +14,17 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
     }
 
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<?> handleStatus(ResponseStatusException ex) {
+        return ResponseEntity.status(ex.getStatusCode()).body(Map.of("error", String.valueOf(ex.getReason())));
+    }
+
+    // 503: try again later; 502: the gateway refused the request
+    @ExceptionHandler(PaymentGatewayException.class)
+    public ResponseEntity<?> handleGateway(PaymentGatewayException ex) {
+        return ResponseEntity.status(ex.isRetryable() ? 503 : 502).body(Map.of("error", ex.getMessage()));
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<?> handleRuntime(RuntimeException ex) {
         return ResponseEntity.status(500).body(Map.of("error", ex.getMessage()));
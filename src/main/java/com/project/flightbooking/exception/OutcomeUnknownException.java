@@ -0,0 +1,19 @@
+package com.project.flightbooking.exception;
+
+/**
+ * The request was handed off but we stopped waiting before it finished (timeout, interrupt), so it
+ * may still commit. Unlike a validation or "not enough seats" error, nothing is known to have rolled
+ * back: running the same request again could apply it twice.
+ */
+public class OutcomeUnknownException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public OutcomeUnknownException(String message) {
+        super(message);
+    }
+
+    public OutcomeUnknownException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
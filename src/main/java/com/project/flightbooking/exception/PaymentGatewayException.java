@@ -0,0 +1,27 @@
+package com.project.flightbooking.exception;
+
+/**
+ * A payment gateway call failed or was not attempted (circuit open, too many concurrent calls).
+ * retryable: the same request may succeed later (timeout, 5xx, network); false when the gateway
+ * rejected the request itself or we refused to send it.
+ */
+public class PaymentGatewayException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean retryable;
+
+    public PaymentGatewayException(String message, boolean retryable) {
+        super(message);
+        this.retryable = retryable;
+    }
+
+    public PaymentGatewayException(String message, boolean retryable, Throwable cause) {
+        super(message, cause);
+        this.retryable = retryable;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
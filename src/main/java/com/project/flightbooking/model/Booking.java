@@ -2,6 +2,7 @@ package com.project.flightbooking.model;
 
 import com.project.flightbooking.enums.BookingStatus;
 import com.project.flightbooking.enums.PaymentStatus;
+import com.project.flightbooking.util.Money;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -9,13 +10,12 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Entity
 @Table(name = "bookings", indexes = {
-        @Index(name = "idx_booking_ref", columnList = "bookingRef")
+        @Index(name = "idx_booking_ref", columnList = "bookingRef"),
+        @Index(name = "idx_booking_itinerary", columnList = "itineraryRef")
 })
 @Data
 @NoArgsConstructor
@@ -23,11 +23,17 @@ import java.util.UUID;
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "bookings_ids")
+    @TableGenerator(name = "bookings_ids", table = "id_sequences", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "bookings", allocationSize = 100)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 40)
-    private String bookingRef; // e.g., BK-20251008-ABC123
+    private String bookingRef; // e.g., BK-0J5Z8Q3M1C2A (see BookingRefGenerator)
+
+    // Shared by all bookings reserved together in one itinerary; null for single bookings
+    @Column(length = 40)
+    private String itineraryRef;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -40,11 +46,15 @@ public class Booking {
     @Column(nullable = false)
     private Integer seatCount;
 
+    // Assigned seats, e.g. "12A,12B"; null when booked without seat selection
+    @Column(length = 500)
+    private String seatNumbers;
+
     @Column(nullable = false, precision = 12, scale = 2)
-    private BigDecimal farePerSeat;
+    private Money farePerSeat;
 
     @Column(nullable = false, precision = 12, scale = 2)
-    private BigDecimal totalFare;
+    private Money totalFare;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
@@ -61,14 +71,14 @@ public class Booking {
     private LocalDateTime updatedAt;
 
     // helper factory
-    public static Booking create(User user, Flight flight, int seatCount, BigDecimal farePerSeat) {
+    public static Booking create(String bookingRef, User user, Flight flight, int seatCount, Money farePerSeat) {
         Booking b = new Booking();
-        b.setBookingRef("BK-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
+        b.setBookingRef(bookingRef);
         b.setUser(user);
         b.setFlight(flight);
         b.setSeatCount(seatCount);
         b.setFarePerSeat(farePerSeat);
-        b.setTotalFare(farePerSeat.multiply(BigDecimal.valueOf(seatCount)));
+        b.setTotalFare(farePerSeat.times(seatCount));
         b.setStatus(BookingStatus.PENDING);
         b.setPaymentStatus(PaymentStatus.INITIATED);
         return b;
@@ -1,5 +1,6 @@
 package com.project.flightbooking.model;
 
+import com.project.flightbooking.util.Money;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -7,7 +8,7 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
-import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.time.LocalDateTime;
 
@@ -15,19 +16,29 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "flights", indexes = {
+@Table(name = "flights", uniqueConstraints = {
+        // one flight number operates at most once per day; the key bulk imports deduplicate on
+        @UniqueConstraint(name = "uk_flight_number_service_date", columnNames = {"flightNumber", "serviceDate"})
+}, indexes = {
         @Index(name = "idx_flight_flight_number", columnList = "flightNumber"),
-        @Index(name = "idx_flight_origin_dest", columnList = "origin,destination")
+        // keyset search: route equality, then seek on (departureTime, id)
+        @Index(name = "idx_flight_route_departure", columnList = "origin,destination,departureTime,id")
 })
 public class Flight {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "flights_ids")
+    @TableGenerator(name = "flights_ids", table = "id_sequences", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "flights", allocationSize = 500)
     private Long id;
 
-    @Column(nullable = false, length = 30, unique = true)
+    @Column(nullable = false, length = 30)
     private String flightNumber; // e.g., "AI101"
 
+    // local departure date; with flightNumber identifies one operation of a scheduled flight.
+    // Older rows are backfilled on startup (FlightServiceDateMigration)
+    private LocalDate serviceDate;
+
     @Column(nullable = false, length = 100)
     private String airline; // e.g., "AirX"
 
@@ -50,12 +61,29 @@ public class Flight {
     @Column(nullable = false)
     private Integer remainingSeats;
 
+    // Sharded inventory: number of flight_seat_shards rows holding this flight's remaining seats.
+    // Null/0 = not sharded, remainingSeats is authoritative.
+    private Integer seatShards;
+
+    // Seat map layout: seats per row (6 = A-F). Null means the default of 6.
+    private Integer seatsPerRow;
+
+    // Packed seat map (bit i = seat i taken). Owned by SeatMapService, which updates it under the
+    // row lock; never written from the entity, so saving a loaded Flight can't restore stale bytes
+    @Column(columnDefinition = "VARBINARY(1024)", updatable = false)
+    private byte[] seatMap;
+
     @Column(nullable = false, precision = 12, scale = 2)
-    private BigDecimal baseFare;
+    private Money baseFare;
 
     @Column(nullable = false, length = 20)
     private String status = "SCHEDULED"; // SCHEDULED, CANCELLED, DEPARTED
 
+    // Optimistic locking: used by the "optimistic" seat reservation strategy
+    @Version
+    @Column(nullable = false)
+    private Long version = 0L;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
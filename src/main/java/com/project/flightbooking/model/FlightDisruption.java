@@ -0,0 +1,67 @@
+package com.project.flightbooking.model;
+
+import com.project.flightbooking.enums.DisruptionStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of handling the bookings of a cancelled flight (see FlightDisruptionService).
+ * Bookings are processed in id order; every booking with id <= checkpointBookingId has been handled,
+ * so a run interrupted by a crash resumes right after it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "flight_disruptions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_disruption_flight", columnNames = {"flightId"})
+})
+public class FlightDisruption {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long flightId;
+
+    @Column(length = 255)
+    private String reason;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private DisruptionStatus status;
+
+    @Column(nullable = false)
+    private Long checkpointBookingId = 0L;
+
+    @Column(nullable = false)
+    private Integer bookingsProcessed = 0;
+
+    @Column(nullable = false)
+    private Integer holdsCancelled = 0;
+
+    @Column(nullable = false)
+    private Integer refundsInitiated = 0;
+
+    // paid bookings that already had a refund (e.g. a rerun), so none was initiated
+    @Column(nullable = false)
+    private Integer refundsExisting = 0;
+
+    @Column(nullable = false)
+    private Integer failures = 0;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,35 @@
+package com.project.flightbooking.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One slice of a hot flight's remaining seats.
+ * With sharded inventory a flight's capacity is spread over N of these rows so concurrent
+ * reservations update different rows instead of queueing on flights.remainingSeats.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "flight_seat_shards", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_shard_flight_no", columnNames = {"flight_id", "shardNo"})
+})
+public class FlightSeatShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "flight_id", nullable = false)
+    private Flight flight;
+
+    @Column(nullable = false)
+    private Integer shardNo; // 0..N-1
+
+    @Column(nullable = false)
+    private Integer remainingSeats;
+}
@@ -0,0 +1,25 @@
+package com.project.flightbooking.model;
+
+import com.project.flightbooking.util.Money;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Maps Money attributes to the existing DECIMAL(12,2) rupee columns, so the schema and stored
+ * values are unchanged. Amounts are stored in INR; Payment keeps its own currency column.
+ */
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money money) {
+        return money == null ? null : money.toBigDecimal();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal amount) {
+        return amount == null ? null : Money.of(amount);
+    }
+}
@@ -0,0 +1,80 @@
+package com.project.flightbooking.model;
+
+import com.project.flightbooking.enums.OutboxStatus;
+import com.project.flightbooking.enums.OutboxType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * OutboxEvent
+ * -----------
+ * A payment gateway call still to be made, written in the same transaction as the row it belongs
+ * to (see OutboxDispatcher):
+ *
+ *  - CREATE_ORDER: aggregateId is a Payment id; creates its order on the gateway.
+ *  - REFUND: aggregateId is a RefundTransaction id; asks the gateway for the refund.
+ *
+ * PENDING rows are due from nextAttemptAt. A dispatcher claims them (IN_PROGRESS, claimedAt) and
+ * ends them DONE or FAILED; a claim older than the lease is put back to PENDING.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "payment_outbox", indexes = {
+        @Index(name = "idx_outbox_status_due", columnList = "status,nextAttemptAt"),
+        @Index(name = "idx_outbox_aggregate", columnList = "type,aggregateId")
+})
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "payment_outbox_ids")
+    @TableGenerator(name = "payment_outbox_ids", table = "id_sequences", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "payment_outbox", allocationSize = 100)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OutboxType type;
+
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OutboxStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    private LocalDateTime claimedAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private LocalDateTime processedAt;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    public static OutboxEvent pending(OutboxType type, Long aggregateId) {
+        OutboxEvent e = new OutboxEvent();
+        e.setType(type);
+        e.setAggregateId(aggregateId);
+        e.setStatus(OutboxStatus.PENDING);
+        e.setNextAttemptAt(LocalDateTime.now());
+        return e;
+    }
+}
@@ -0,0 +1,48 @@
+package com.project.flightbooking.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Passenger manifest entry: one row per seat of a booking.
+ * Rows are batch-inserted together with their booking (see BatchInsertRepository).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "booking_passengers", indexes = {
+        @Index(name = "idx_passenger_booking", columnList = "booking_id")
+})
+public class Passenger {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "booking_passengers_ids")
+    @TableGenerator(name = "booking_passengers_ids", table = "id_sequences", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "booking_passengers", allocationSize = 200)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booking_id", nullable = false)
+    private Booking booking;
+
+    @Column(nullable = false, length = 100)
+    private String firstName;
+
+    @Column(nullable = false, length = 100)
+    private String lastName;
+
+    private LocalDate dateOfBirth;
+
+    @Column(length = 40)
+    private String documentNumber;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
@@ -1,6 +1,7 @@
 package com.project.flightbooking.model;
 
 import com.project.flightbooking.enums.PaymentStatus;
+import com.project.flightbooking.util.Money;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -8,7 +9,6 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -19,24 +19,26 @@ import java.time.LocalDateTime;
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "payments_ids")
+    @TableGenerator(name = "payments_ids", table = "id_sequences", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "payments", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
     private String provider = "RAZORPAY";
 
-    @Column(nullable = false, unique = true)
-    private String providerPaymentId; // e.g. pay_LXyI9sTtHjvL7G
+    @Column(unique = true)
+    private String providerPaymentId; // e.g. pay_LXyI9sTtHjvL7G, set once the customer pays
 
-    @Column(nullable = false)
-    private String providerOrderId; // e.g. order_LXxG7uTtHjA1Zr
+    @Column(unique = true)
+    private String providerOrderId; // e.g. order_LXxG7uTtHjA1Zr, set by OutboxDispatcher once the order exists
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booking_id", nullable = false)
     private Booking booking;
 
     @Column(nullable = false, precision = 12, scale = 2)
-    private BigDecimal amount;
+    private Money amount;
 
     @Column(nullable = false, length = 10)
     private String currency = "INR";
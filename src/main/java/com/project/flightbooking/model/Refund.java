@@ -3,6 +3,7 @@ package com.project.flightbooking.model;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import com.project.flightbooking.enums.RefundStatus;
+import com.project.flightbooking.util.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -22,8 +23,8 @@ public class Refund {
     @JoinColumn(name = "payment_id", nullable = false)
     private Payment payment;
 
-    @Column(nullable = false)
-    private Double refundAmount;
+    @Column(nullable = false, precision = 12, scale = 2)
+    private Money refundAmount;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
@@ -1,6 +1,7 @@
 package com.project.flightbooking.model;
 
 import com.project.flightbooking.enums.RefundStatus;
+import com.project.flightbooking.util.Money;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -8,7 +9,6 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -20,7 +20,7 @@ import java.time.LocalDateTime;
  *  - booking: the booking being refunded
  *  - providerPaymentId: original provider payment id (Razorpay payment id)
  *  - providerRefundId: provider's refund id once provider returns it
- *  - amount: amount requested for refund (in currency units, e.g. INR)
+ *  - amount: amount requested for refund (Money, stored in currency units, e.g. INR)
  *  - status: lifecycle (INITIATED, PROCESSING, SUCCESS, FAILED)
  *  - providerResponse: raw provider response (JSON string) for audit
  *
@@ -37,7 +37,9 @@ import java.time.LocalDateTime;
 public class RefundTransaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "refund_transactions_ids")
+    @TableGenerator(name = "refund_transactions_ids", table = "id_sequences", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "refund_transactions", allocationSize = 50)
     private Long id;
 
     // Link to booking
@@ -55,7 +57,7 @@ public class RefundTransaction {
 
     // Amount to refund (currency units, stored with 2 decimal scale)
     @Column(nullable = false, precision = 12, scale = 2)
-    private BigDecimal amount;
+    private Money amount;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
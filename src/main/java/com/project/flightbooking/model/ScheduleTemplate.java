@@ -0,0 +1,90 @@
+package com.project.flightbooking.model;
+
+import com.project.flightbooking.util.Money;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * A recurring flight, e.g. "AI101 DEL->BLR daily at 06:00 from 2026-10-25 to 2027-03-28".
+ * ScheduleGenerator expands active templates into dated Flight rows, one per operating day,
+ * keyed by (flightNumber, serviceDate).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "schedule_templates", indexes = {
+        @Index(name = "idx_schedule_template_flight_number", columnList = "flightNumber")
+})
+public class ScheduleTemplate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 30)
+    private String flightNumber;
+
+    @Column(nullable = false, length = 100)
+    private String airline;
+
+    @Column(nullable = false, length = 10)
+    private String origin;
+
+    @Column(nullable = false, length = 10)
+    private String destination;
+
+    // local departure time in timeZone, e.g. 06:00 Asia/Kolkata
+    @Column(nullable = false)
+    private LocalTime departureTime;
+
+    @Column(nullable = false, length = 40)
+    private String timeZone;
+
+    @Column(nullable = false)
+    private Integer durationMinutes;
+
+    // operating days: bit (dayOfWeek - 1), Monday = bit 0; 127 = daily
+    @Column(nullable = false)
+    private Integer daysOfWeek;
+
+    @Column(nullable = false)
+    private LocalDate validFrom;
+
+    @Column(nullable = false)
+    private LocalDate validTo;
+
+    @Column(nullable = false)
+    private Integer totalSeats;
+
+    private Integer seatsPerRow;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private Money baseFare;
+
+    @Column(nullable = false)
+    private boolean active = true;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    public boolean operatesOn(LocalDate day) {
+        return !day.isBefore(validFrom) && !day.isAfter(validTo) && operatesOn(day.getDayOfWeek());
+    }
+
+    public boolean operatesOn(DayOfWeek dow) {
+        return (daysOfWeek & (1 << (dow.getValue() - 1))) != 0;
+    }
+}
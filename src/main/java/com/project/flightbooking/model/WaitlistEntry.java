@@ -0,0 +1,66 @@
+package com.project.flightbooking.model;
+
+import com.project.flightbooking.enums.WaitlistStatus;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A customer waiting for seats on a sold-out flight.
+ * Waiters are served first come, first served (by id); once promoted, bookingRef points to
+ * the PENDING booking that was created for them.
+ * waiting is TRUE while the entry is WAITING and NULL otherwise, so the unique key allows one
+ * waiting entry per user and flight next to any number of finished ones.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "waitlist_entries", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_waitlist_user_flight_waiting", columnNames = {"user_id", "flight_id", "waiting"})
+}, indexes = {
+        @Index(name = "idx_waitlist_flight_status", columnList = "flight_id,status")
+})
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "flight_id", nullable = false)
+    private Flight flight;
+
+    @Column(nullable = false)
+    private Integer seatCount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private WaitlistStatus status;
+
+    @Setter(AccessLevel.NONE)
+    private Boolean waiting;
+
+    @Column(length = 40)
+    private String bookingRef;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    private LocalDateTime promotedAt;
+
+    public void setStatus(WaitlistStatus status) {
+        this.status = status;
+        this.waiting = status == WaitlistStatus.WAITING ? Boolean.TRUE : null;
+    }
+}
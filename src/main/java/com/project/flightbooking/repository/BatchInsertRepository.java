@@ -0,0 +1,33 @@
+package com.project.flightbooking.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+/**
+ * BatchInsertRepository
+ * ---------------------
+ * Persists many new entities of the surrounding transaction in one go.
+ * Ids come from pooled table generators (see IdSequenceAligner), so Hibernate assigns them without
+ * a round trip per row and writes the rows as JDBC batches of hibernate.jdbc.batch_size statements,
+ * grouped per table (order_inserts) - see JpaBatchingConfig.
+ *
+ * Entities are persisted, never merged, and the context is flushed before returning, so ids are set
+ * and constraint violations surface here as DataIntegrityViolationException rather than at commit.
+ */
+@Repository
+public class BatchInsertRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public void persistAll(Collection<?> entities) {
+        if (entities.isEmpty()) return;
+        for (Object e : entities) {
+            entityManager.persist(e);
+        }
+        entityManager.flush();
+    }
+}
@@ -1,10 +1,95 @@
 package com.project.flightbooking.repository;
 
+import com.project.flightbooking.enums.BookingStatus;
+import com.project.flightbooking.enums.PaymentStatus;
 import com.project.flightbooking.model.Booking;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     Optional<Booking> findByBookingRef(String bookingRef);
+
+    // Forward-only stream over every booking (with its user and flight) for exports; see FlightRepository.streamAll
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select b from Booking b join fetch b.user join fetch b.flight order by b.id")
+    Stream<Booking> streamAllWithUserAndFlight();
+
+    // Seat numbers of the bookings that still hold seats on a flight (same rule as sumHeldSeatsForFlight)
+    @Query("select b.seatNumbers from Booking b where b.flight.id = :flightId and b.seatNumbers is not null " +
+            "and (b.status in :held or (b.status = :cancelled and b.paymentStatus = :paid))")
+    List<String> findHeldSeatNumbers(@Param("flightId") Long flightId,
+                                     @Param("held") Collection<BookingStatus> held,
+                                     @Param("cancelled") BookingStatus cancelled,
+                                     @Param("paid") PaymentStatus paid);
+
+    // Keyset page over a flight's bookings: ids after afterId, ascending (flight disruption handling)
+    @Query("select b.id from Booking b where b.flight.id = :flightId and b.id > :afterId order by b.id")
+    List<Long> findIdsOnFlightAfter(@Param("flightId") Long flightId, @Param("afterId") Long afterId, Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Booking b join fetch b.flight where b.bookingRef = :ref")
+    Optional<Booking> findByBookingRefForUpdate(@Param("ref") String bookingRef);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Booking b join fetch b.flight where b.id = :id")
+    Optional<Booking> findByIdForUpdate(@Param("id") Long id);
+
+    // [bookingId, createdAt] of every unpaid hold; used to refill the hold expiry wheel on startup
+    @Query("select b.id, b.createdAt from Booking b where b.status = :status and b.paymentStatus = :paymentStatus")
+    List<Object[]> findOpenHolds(@Param("status") BookingStatus status,
+                                 @Param("paymentStatus") PaymentStatus paymentStatus);
+
+    // Locks the given holds that are still unpaid (in id order, to keep lock ordering stable)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Booking b join fetch b.flight where b.id in :ids " +
+            "and b.status = :status and b.paymentStatus = :paymentStatus order by b.id")
+    List<Booking> findHoldsForUpdate(@Param("ids") Collection<Long> ids,
+                                     @Param("status") BookingStatus status,
+                                     @Param("paymentStatus") PaymentStatus paymentStatus);
+
+    // Unpaid holds created before the cutoff, in id order after afterId; SKIP LOCKED, so the sweeps
+    // of several nodes and the expiry wheel never wait on each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select b from Booking b join fetch b.flight where b.status = :status and b.paymentStatus = :paymentStatus " +
+            "and b.createdAt < :createdBefore and b.id > :afterId order by b.id")
+    List<Booking> findExpiredHoldsForUpdate(@Param("status") BookingStatus status,
+                                            @Param("paymentStatus") PaymentStatus paymentStatus,
+                                            @Param("createdBefore") LocalDateTime createdBefore,
+                                            @Param("afterId") Long afterId,
+                                            Limit limit);
+
+    // Seats still held per flight: active bookings plus paid bookings cancelled but not yet refunded.
+    // Returns [flightId, seats]
+    @Query("select b.flight.id, coalesce(sum(b.seatCount), 0) from Booking b " +
+            "where b.status in :held or (b.status = :cancelled and b.paymentStatus = :paid) " +
+            "group by b.flight.id")
+    List<Object[]> sumHeldSeatsByFlight(@Param("held") Collection<BookingStatus> held,
+                                        @Param("cancelled") BookingStatus cancelled,
+                                        @Param("paid") PaymentStatus paid);
+
+    @Query("select coalesce(sum(b.seatCount), 0) from Booking b where b.flight.id = :flightId " +
+            "and (b.status in :held or (b.status = :cancelled and b.paymentStatus = :paid))")
+    long sumHeldSeatsForFlight(@Param("flightId") Long flightId,
+                               @Param("held") Collection<BookingStatus> held,
+                               @Param("cancelled") BookingStatus cancelled,
+                               @Param("paid") PaymentStatus paid);
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.project.flightbooking.repository;
+
+import com.project.flightbooking.enums.DisruptionStatus;
+import com.project.flightbooking.model.FlightDisruption;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface FlightDisruptionRepository extends JpaRepository<FlightDisruption, Long> {
+    Optional<FlightDisruption> findByFlightId(Long flightId);
+
+    List<FlightDisruption> findByStatus(DisruptionStatus status);
+}
@@ -0,0 +1,52 @@
+package com.project.flightbooking.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * FlightJdbcRepository
+ * --------------------
+ * Existence checks for bulk schedule imports and generation: one query per chunk tells which
+ * (flightNumber, serviceDate) keys are already taken, instead of a lookup per flight.
+ * New flights themselves are written through BatchInsertRepository.
+ */
+@Repository
+public class FlightJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FlightJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * "flightNumber|serviceDate" keys among the given flight numbers that already exist between from and to.
+     */
+    public Set<String> findExistingKeys(Collection<String> flightNumbers, LocalDate from, LocalDate to) {
+        Set<String> keys = new HashSet<>();
+        if (flightNumbers.isEmpty()) return keys;
+        String in = String.join(", ", Collections.nCopies(flightNumbers.size(), "?"));
+        Object[] args = new Object[flightNumbers.size() + 2];
+        int i = 0;
+        for (String n : flightNumbers) args[i++] = n;
+        args[i++] = Date.valueOf(from);
+        args[i] = Date.valueOf(to);
+        jdbcTemplate.query("select flight_number, service_date from flights where flight_number in (" + in + ")" +
+                        " and service_date between ? and ?",
+                rs -> {
+                    keys.add(key(rs.getString(1), rs.getDate(2).toLocalDate()));
+                }, args);
+        return keys;
+    }
+
+    public static String key(String flightNumber, LocalDate serviceDate) {
+        return flightNumber + "|" + serviceDate;
+    }
+}
@@ -1,17 +1,26 @@
 package com.project.flightbooking.repository;
 
+import com.project.flightbooking.dto.FlightSearchRow;
 import com.project.flightbooking.model.Flight;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface FlightRepository extends JpaRepository<Flight, Long> {
 
@@ -41,4 +50,68 @@ public interface FlightRepository extends JpaRepository<Flight, Long> {
             String origin, String destination, ZonedDateTime from, ZonedDateTime to, Pageable pageable);
 
     List<Flight> findByOriginAndDestination(String origin, String destination);
+
+    // Keyset page: flights on the route after (afterTime, afterId), up to departure "to", in (departureTime, id) order.
+    // Served by idx_flight_route_departure; the extra "departureTime >= afterTime" gives MySQL the range start,
+    // so deep pages cost the same as the first. No count query, no entities.
+    @Query("select new com.project.flightbooking.dto.FlightSearchRow(f.id, f.flightNumber, f.airline, f.origin, " +
+            "f.destination, f.departureTime, f.arrivalTime, f.totalSeats, f.remainingSeats, f.baseFare, f.status) " +
+            "from Flight f where f.origin = :origin and f.destination = :destination " +
+            "and f.departureTime >= :afterTime and f.departureTime <= :to " +
+            "and (f.departureTime > :afterTime or f.id > :afterId) " +
+            "order by f.departureTime, f.id")
+    List<FlightSearchRow> findRouteAfter(@Param("origin") String origin,
+                                         @Param("destination") String destination,
+                                         @Param("afterTime") ZonedDateTime afterTime,
+                                         @Param("afterId") Long afterId,
+                                         @Param("to") ZonedDateTime to,
+                                         Limit limit);
+
+    List<Flight> findByDepartureTimeAfter(ZonedDateTime after);
+
+    // [id, remainingSeats, status, seatShards] of flights departing after the cutoff; resyncs the search index
+    @Query("select f.id, f.remainingSeats, f.status, f.seatShards from Flight f where f.departureTime > :after")
+    List<Object[]> findSearchStates(@Param("after") ZonedDateTime after);
+
+    // Single-statement reservation: no read-modify-write, succeeds (returns 1) only if enough seats remain.
+    // version is bumped so optimistic readers see the change. Sharded flights are never matched:
+    // their seats live in flight_seat_shards (see ShardedSeatCounterService).
+    @Modifying
+    @Query("update Flight f set f.remainingSeats = f.remainingSeats - :seats, f.version = f.version + 1 " +
+            "where f.id = :id and f.remainingSeats >= :seats and (f.seatShards is null or f.seatShards = 0)")
+    int decrementRemainingSeatsIfAvailable(@Param("id") Long id, @Param("seats") int seats);
+
+    @Modifying
+    @Query("update Flight f set f.remainingSeats = f.remainingSeats + :seats, f.version = f.version + 1 where f.id = :id")
+    int incrementRemainingSeats(@Param("id") Long id, @Param("seats") int seats);
+
+    @Query("select f.remainingSeats from Flight f where f.id = :id")
+    Optional<Integer> findRemainingSeats(@Param("id") Long id);
+
+    // seatShards read with the flight row locked until the caller's transaction ends, so sharding
+    // cannot be switched on or off (both lock the row) while seats are being released
+    @Query(value = "select seat_shards from flights where id = :id for update", nativeQuery = true)
+    Integer findSeatShardsForUpdate(@Param("id") Long id);
+
+    // [flightId, seatShards] of flights using sharded inventory
+    @Query("select f.id, f.seatShards from Flight f where f.seatShards > 0")
+    List<Object[]> findShardedFlights();
+
+    // Forward-only stream over every flight for exports. Fetch size Integer.MIN_VALUE makes MySQL
+    // Connector/J stream rows one by one instead of buffering the whole result set.
+    // Must be consumed inside a (read-only) transaction and closed.
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select f from Flight f order by f.id")
+    Stream<Flight> streamAll();
+
+    // [origin, destination, airline, flights]: popularity counts for autocomplete
+    @Query("select f.origin, f.destination, f.airline, count(f) from Flight f group by f.origin, f.destination, f.airline")
+    List<Object[]> countByRouteAndAirline();
+
+    // [flightId, totalSeats] for every flight; used to rebuild the in-memory seat inventory
+    @Query("select f.id, f.totalSeats from Flight f")
+    List<Object[]> findAllSeatCapacities();
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.project.flightbooking.repository;
+
+import com.project.flightbooking.model.FlightSeatShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface FlightSeatShardRepository extends JpaRepository<FlightSeatShard, Long> {
+
+    // Same single-statement pattern as FlightRepository.decrementRemainingSeatsIfAvailable, on one shard row
+    @Modifying
+    @Query("update FlightSeatShard s set s.remainingSeats = s.remainingSeats - :seats " +
+            "where s.flight.id = :flightId and s.shardNo = :shardNo and s.remainingSeats >= :seats")
+    int decrementIfAvailable(@Param("flightId") Long flightId, @Param("shardNo") int shardNo, @Param("seats") int seats);
+
+    @Modifying
+    @Query("update FlightSeatShard s set s.remainingSeats = s.remainingSeats + :seats " +
+            "where s.flight.id = :flightId and s.shardNo = :shardNo")
+    int increment(@Param("flightId") Long flightId, @Param("shardNo") int shardNo, @Param("seats") int seats);
+
+    // [shardNo, remainingSeats] of every shard, without locking; only used to pick a shard to try
+    @Query("select s.shardNo, s.remainingSeats from FlightSeatShard s where s.flight.id = :flightId order by s.shardNo")
+    List<Object[]> findRemainingByShard(@Param("flightId") Long flightId);
+
+    // Locks the shards above afterShardNo in shardNo order and re-reads the held ones (already locked by
+    // this transaction, so no new lock); returns [shard_no, remaining_seats] in shardNo order
+    @Query(value = "select shard_no, remaining_seats from flight_seat_shards where flight_id = :flightId " +
+            "and (shard_no in (:held) or shard_no > :afterShardNo) order by shard_no for update", nativeQuery = true)
+    List<Object[]> lockShardsAfter(@Param("flightId") Long flightId, @Param("held") Collection<Integer> held,
+                                   @Param("afterShardNo") int afterShardNo);
+
+    // Locks every shard of a flight, always in shardNo order (rebalance, disable)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from FlightSeatShard s where s.flight.id = :flightId order by s.shardNo")
+    List<FlightSeatShard> findAllForUpdate(@Param("flightId") Long flightId);
+
+    @Query("select coalesce(sum(s.remainingSeats), 0) from FlightSeatShard s where s.flight.id = :flightId")
+    long sumRemainingSeats(@Param("flightId") Long flightId);
+
+    // [flightId, sum of remaining seats] of every sharded flight
+    @Query("select s.flight.id, sum(s.remainingSeats) from FlightSeatShard s group by s.flight.id")
+    List<Object[]> sumRemainingSeatsByFlight();
+
+    @Modifying
+    @Query("delete from FlightSeatShard s where s.flight.id = :flightId")
+    int deleteByFlightId(@Param("flightId") Long flightId);
+}
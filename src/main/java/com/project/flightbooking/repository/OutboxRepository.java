@@ -0,0 +1,34 @@
+package com.project.flightbooking.repository;
+
+import com.project.flightbooking.enums.OutboxStatus;
+import com.project.flightbooking.enums.OutboxType;
+import com.project.flightbooking.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Due rows, oldest first. Lock timeout -2 is Hibernate's SKIP LOCKED: rows another dispatcher
+    // is claiming right now are passed over instead of waited for.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select o from OutboxEvent o where o.status = :status and o.nextAttemptAt <= :now order by o.id")
+    List<OutboxEvent> findDueForUpdate(@Param("status") OutboxStatus status, @Param("now") LocalDateTime now, Limit limit);
+
+    List<OutboxEvent> findByStatusAndClaimedAtBefore(OutboxStatus status, LocalDateTime claimedBefore);
+
+    Optional<OutboxEvent> findFirstByTypeAndAggregateIdOrderByIdDesc(OutboxType type, Long aggregateId);
+
+    // an earlier row for the same payment/refund, e.g. an order creation that failed and was queued again
+    boolean existsByTypeAndAggregateIdAndIdLessThan(OutboxType type, Long aggregateId, Long id);
+}
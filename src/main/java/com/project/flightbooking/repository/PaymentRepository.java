@@ -1,12 +1,25 @@
 package com.project.flightbooking.repository;
 
+import com.project.flightbooking.enums.PaymentStatus;
 import com.project.flightbooking.model.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByProviderPaymentId(String paymentId);
     Optional<Payment> findByProviderOrderId(String orderId);
     Optional<Payment> findByBookingId(Long id);
+
+    @Query("select p from Payment p join fetch p.booking where p.id = :id")
+    Optional<Payment> findWithBookingById(@Param("id") Long id);
+
+    // [bookingId, order created at] of the given bookings' orders still awaiting payment (checkout may be open)
+    @Query("select p.booking.id, p.updatedAt from Payment p where p.booking.id in :bookingIds " +
+            "and p.providerOrderId is not null and p.status = :status")
+    List<Object[]> findOpenOrders(@Param("bookingIds") Collection<Long> bookingIds, @Param("status") PaymentStatus status);
 }
\ No newline at end of file
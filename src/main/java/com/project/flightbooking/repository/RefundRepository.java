@@ -2,6 +2,8 @@ package com.project.flightbooking.repository;
 
 import com.project.flightbooking.model.RefundTransaction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
@@ -10,4 +12,9 @@ public interface RefundRepository extends JpaRepository<RefundTransaction, Long>
 
     // Useful for idempotency: find refund for booking in these statuses
     Optional<RefundTransaction> findFirstByBookingIdAndStatusIn(Long bookingId, java.util.List<com.project.flightbooking.enums.RefundStatus> statuses);
+
+    Optional<RefundTransaction> findFirstByBookingIdOrderByIdDesc(Long bookingId);
+
+    @Query("select r from RefundTransaction r join fetch r.booking where r.id = :id")
+    Optional<RefundTransaction> findWithBookingById(@Param("id") Long id);
 }
\ No newline at end of file
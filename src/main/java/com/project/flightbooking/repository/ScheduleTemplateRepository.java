@@ -0,0 +1,11 @@
+package com.project.flightbooking.repository;
+
+import com.project.flightbooking.model.ScheduleTemplate;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ScheduleTemplateRepository extends JpaRepository<ScheduleTemplate, Long> {
+
+    List<ScheduleTemplate> findByActiveTrueOrderById();
+}
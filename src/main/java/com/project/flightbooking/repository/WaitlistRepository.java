@@ -0,0 +1,47 @@
+package com.project.flightbooking.repository;
+
+import com.project.flightbooking.enums.WaitlistStatus;
+import com.project.flightbooking.model.WaitlistEntry;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    // flights with at least one waiter in the given status; used to catch up on startup
+    @Query("select distinct w.flight.id from WaitlistEntry w where w.status = :status")
+    List<Long> findFlightIdsWithStatus(@Param("status") WaitlistStatus status);
+
+    boolean existsByUserIdAndFlightIdAndStatus(Long userId, Long flightId, WaitlistStatus status);
+
+    // waiters ahead of the given entry (lower id = joined earlier)
+    long countByFlightIdAndStatusAndIdLessThan(Long flightId, WaitlistStatus status, Long id);
+
+    // Head of a flight's queue, locked, in id order. Lock timeout -2 is Hibernate's SKIP LOCKED:
+    // waiters another transaction is promoting right now are passed over instead of waited for,
+    // so seat releases and promotion runs never block each other on these rows.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select w from WaitlistEntry w where w.flight.id = :flightId and w.status = :status order by w.id")
+    List<WaitlistEntry> findNextForUpdate(@Param("flightId") Long flightId, @Param("status") WaitlistStatus status, Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select w from WaitlistEntry w join fetch w.user join fetch w.flight where w.id = :id")
+    Optional<WaitlistEntry> findByIdForUpdate(@Param("id") Long id);
+
+    // also clears the waiting marker (see WaitlistEntry); only used to move waiters out of WAITING
+    @Modifying
+    @Query("update WaitlistEntry w set w.status = :to, w.waiting = null where w.flight.id = :flightId and w.status = :from")
+    int updateStatusForFlight(@Param("flightId") Long flightId,
+                              @Param("from") WaitlistStatus from,
+                              @Param("to") WaitlistStatus to);
+}
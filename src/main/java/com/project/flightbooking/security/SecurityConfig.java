@@ -5,6 +5,7 @@ import com.project.flightbooking.security.JwtTokenProvider;
 import com.project.flightbooking.service.CustomUserDetailsService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -37,6 +38,8 @@ public class SecurityConfig {
                 // our API uses stateless JWTs in headers → no CSRF risk -> Hence disabled
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                        // flight search and details are public (served from the in-memory search index)
+                        .requestMatchers(HttpMethod.GET, "/api/flights/**").permitAll()
                         // path-based matchers
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")   // <--- only ADMIN
                         .anyRequest().authenticated()
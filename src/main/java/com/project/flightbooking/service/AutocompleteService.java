@@ -0,0 +1,139 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.dto.AutocompleteSuggestion;
+import com.project.flightbooking.model.Flight;
+import com.project.flightbooking.repository.FlightRepository;
+import com.project.flightbooking.util.RadixTrie;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AutocompleteService
+ * -------------------
+ * Type-ahead over airport codes and airline names seen on flights, ranked by popularity.
+ *
+ *  - Popularity: an airport counts every flight departing from or arriving at it, an airline
+ *    every flight it operates. Counts are loaded with one GROUP BY at startup.
+ *  - Lookups go to an immutable RadixTrie whose nodes hold their best suggestions precomputed,
+ *    so complete() never touches the database and costs a few microseconds.
+ *  - Airline names are also indexed by each later word ("india" finds "Air India").
+ *  - Changes never block readers: a new trie is built on the side and the volatile reference
+ *    swapped. New flights only bump the counts; the trie is rebuilt shortly afterwards
+ *    (search.autocomplete.rebuild-delay-ms) and fully reloaded from the database every
+ *    search.autocomplete.reload-interval-ms to pick up flights created on other nodes.
+ */
+@Service
+public class AutocompleteService {
+
+    public static final String AIRPORT = "AIRPORT";
+    public static final String AIRLINE = "AIRLINE";
+
+    private static final Comparator<AutocompleteSuggestion> BY_POPULARITY =
+            Comparator.comparing(AutocompleteSuggestion::getFlights).reversed()
+                    .thenComparing(AutocompleteSuggestion::getText);
+
+    private final FlightRepository flightRepository;
+    private final Map<String, AtomicLong> airportCounts = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> airlineCounts = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private volatile RadixTrie<AutocompleteSuggestion> trie = RadixTrie.build(Map.of(), BY_POPULARITY, 1);
+
+    @Value("${search.autocomplete.top-k:20}")
+    private int topK;
+
+    public AutocompleteService(FlightRepository flightRepository) {
+        this.flightRepository = flightRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${search.autocomplete.reload-interval-ms:3600000}",
+            fixedDelayString = "${search.autocomplete.reload-interval-ms:3600000}")
+    public void reload() {
+        Map<String, AtomicLong> airports = new HashMap<>();
+        Map<String, AtomicLong> airlines = new HashMap<>();
+        for (Object[] row : flightRepository.countByRouteAndAirline()) {
+            long flights = (Long) row[3];
+            count(airports, (String) row[0], flights);
+            count(airports, (String) row[1], flights);
+            count(airlines, (String) row[2], flights);
+        }
+        synchronized (this) {
+            airportCounts.clear();
+            airportCounts.putAll(airports);
+            airlineCounts.clear();
+            airlineCounts.putAll(airlines);
+            rebuild();
+        }
+        System.out.println("Autocomplete: " + airports.size() + " airports, " + airlines.size() + " airlines");
+    }
+
+    /** Count a newly created flight; visible in suggestions after the next rebuild. */
+    public void flightAdded(Flight f) {
+        count(airportCounts, f.getOrigin(), 1);
+        count(airportCounts, f.getDestination(), 1);
+        count(airlineCounts, f.getAirline(), 1);
+        dirty.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${search.autocomplete.rebuild-delay-ms:2000}")
+    public void rebuildIfDirty() {
+        if (dirty.compareAndSet(true, false)) {
+            synchronized (this) {
+                rebuild();
+            }
+        }
+    }
+
+    /**
+     * Best suggestions whose code or name (or a word of the name) starts with the query,
+     * case-insensitive. A blank query returns the most popular entries overall.
+     */
+    public List<AutocompleteSuggestion> complete(String query, int limit) {
+        if (limit <= 0) return Collections.emptyList();
+        String prefix = query == null ? "" : normalize(query);
+        return trie.complete(prefix, limit);
+    }
+
+    // callers hold the monitor, so concurrent rebuilds never publish an older snapshot last
+    private void rebuild() {
+        Map<String, List<AutocompleteSuggestion>> keys = new HashMap<>();
+        airportCounts.forEach((code, n) ->
+                index(keys, normalize(code), new AutocompleteSuggestion(code, AIRPORT, n.get())));
+        airlineCounts.forEach((name, n) -> {
+            AutocompleteSuggestion s = new AutocompleteSuggestion(name, AIRLINE, n.get());
+            String key = normalize(name);
+            index(keys, key, s);
+            for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+                if (i + 1 < key.length() && key.charAt(i + 1) != ' ') index(keys, key.substring(i + 1), s);
+            }
+        });
+        trie = RadixTrie.build(keys, BY_POPULARITY, Math.max(topK, 1));
+    }
+
+    private static void index(Map<String, List<AutocompleteSuggestion>> keys, String key, AutocompleteSuggestion s) {
+        if (!key.isEmpty()) keys.computeIfAbsent(key, k -> new ArrayList<>(1)).add(s);
+    }
+
+    private static void count(Map<String, AtomicLong> counts, String value, long n) {
+        if (value == null || value.isBlank()) return;
+        counts.computeIfAbsent(value.trim(), v -> new AtomicLong()).addAndGet(n);
+    }
+
+    private static String normalize(String s) {
+        return s.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,18 @@
+package com.project.flightbooking.service;
+
+/**
+ * BookingRefGenerator
+ * -------------------
+ * Produces customer-facing references (bookings "BK-...", itineraries "IT-...").
+ * Exactly one implementation is active, selected with the property:
+ *
+ *   booking.ref-generator = time-ordered | uuid
+ *
+ * References must be unique across all nodes: a collision only shows up as a unique-constraint
+ * failure after the seats were already taken.
+ */
+public interface BookingRefGenerator {
+
+    /** Next reference with the given prefix, e.g. next("BK") -> "BK-0J5Z8Q3M1C2A". */
+    String next(String prefix);
+}
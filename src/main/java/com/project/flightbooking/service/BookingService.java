@@ -1,73 +1,290 @@
 package com.project.flightbooking.service;
 
 import com.project.flightbooking.dto.BookingRequest;
+import com.project.flightbooking.dto.ItineraryRequest;
+import com.project.flightbooking.dto.PassengerRequest;
+import com.project.flightbooking.dto.SeatSelectionRequest;
 import com.project.flightbooking.model.Booking;
 import com.project.flightbooking.enums.BookingStatus;
 import com.project.flightbooking.model.Flight;
+import com.project.flightbooking.model.Passenger;
 import com.project.flightbooking.enums.PaymentStatus;
 import com.project.flightbooking.model.User;
+import com.project.flightbooking.repository.BatchInsertRepository;
 import com.project.flightbooking.repository.BookingRepository;
 import com.project.flightbooking.repository.FlightRepository;
 import com.project.flightbooking.repository.UserRepository;
+import com.project.flightbooking.util.Money;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
 
 @Service
 public class BookingService {
 
     private final FlightRepository flightRepository;
     private final BookingRepository bookingRepository;
+    private final BatchInsertRepository batchInsertRepository;
     private final UserRepository userRepository;
+    private final SeatReservationExecutor reservationExecutor;
+    private final SeatReleaseService seatReleaseService;
+    private final HoldExpiryService holdExpiryService;
+    private final SeatMapService seatMapService;
+    private final BookingRefGenerator refGenerator;
+    private final PricingEngine pricingEngine;
+
+    @Value("${booking.itinerary.max-legs:6}")
+    private int maxItineraryLegs;
 
     public BookingService(FlightRepository flightRepository,
                           BookingRepository bookingRepository,
-                          UserRepository userRepository) {
+                          BatchInsertRepository batchInsertRepository,
+                          UserRepository userRepository,
+                          SeatReservationExecutor reservationExecutor,
+                          SeatReleaseService seatReleaseService,
+                          HoldExpiryService holdExpiryService,
+                          SeatMapService seatMapService,
+                          BookingRefGenerator refGenerator,
+                          PricingEngine pricingEngine) {
         this.flightRepository = flightRepository;
         this.bookingRepository = bookingRepository;
+        this.batchInsertRepository = batchInsertRepository;
         this.userRepository = userRepository;
+        this.reservationExecutor = reservationExecutor;
+        this.seatReleaseService = seatReleaseService;
+        this.holdExpiryService = holdExpiryService;
+        this.seatMapService = seatMapService;
+        this.refGenerator = refGenerator;
+        this.pricingEngine = pricingEngine;
     }
 
     /**
      * Reserve seats atomically and create a PENDING booking.
-     * Uses pessimistic lock on Flight row to prevent overbooking.
+     * How seats are taken (in-memory counter, row lock, optimistic version, conditional update)
+     * depends on the configured SeatReservationStrategy; the executor owns the transaction
+     * so that strategies which retry get a fresh one per attempt.
      */
-    @Transactional
     public Booking reserveSeats(String username, BookingRequest req) {
-        if (req.getSeatCount() == null || req.getSeatCount() <= 0) {
-            throw new IllegalArgumentException("seatCount must be > 0");
+        return reserveLegs(username, List.of(req), null).get(0);
+    }
+
+    /**
+     * Reserve specific seats (or the best n seats, adjacent when possible) on one flight.
+     * The seats are taken on the seat map and the seat count through the active strategy in
+     * one transaction, so a failed reservation never keeps its seats.
+     */
+    public Booking reserveWithSeats(String username, SeatSelectionRequest req) {
+        if (req.getFlightId() == null) {
+            throw new IllegalArgumentException("flightId is required");
         }
+        boolean explicit = req.getSeats() != null && !req.getSeats().isEmpty();
+        int seatCount = explicit ? req.getSeats().size() : (req.getSeatCount() != null ? req.getSeatCount() : 0);
+        if (seatCount <= 0) {
+            throw new IllegalArgumentException("Select at least one seat");
+        }
+
+        BookingRequest leg = new BookingRequest();
+        leg.setFlightId(req.getFlightId());
+        leg.setSeatCount(seatCount);
+        leg.setPassengers(req.getPassengers());
+        validate(leg);
+
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
+
+        // the seat map locks the flights row before the count is taken, the same order releases use
+        Booking booking = reservationExecutor.reserveBatch(req.getFlightId(), flight -> {
+            String seatNumbers = explicit
+                    ? seatMapService.holdSeats(flight.getId(), req.getSeats())
+                    : seatMapService.holdBest(flight.getId(), seatCount);
+            if (!reservationExecutor.tryTake(flight, seatCount)) {
+                throw new IllegalStateException("Not enough seats available on flight " + flight.getFlightNumber()
+                        + ". remaining=" + reservationExecutor.remaining(flight));
+            }
+            Booking b = Booking.create(refGenerator.next("BK"), user, flight, seatCount, pricingEngine.quote(flight));
+            b.setSeatNumbers(seatNumbers);
+            batchInsertRepository.persistAll(List.of(b));
+            batchInsertRepository.persistAll(passengers(List.of(b), Collections.singletonList(leg.getPassengers())));
+            return b;
+        });
+
+        // committed: start the unpaid-hold TTL
+        holdExpiryService.track(booking.getId());
+        return booking;
+    }
+
+    /**
+     * Reserve seats on several flights in one transaction (round trip, connections).
+     * Either every leg gets a PENDING booking or nothing is reserved, so a half-failed
+     * itinerary never holds seats it cannot use.
+     */
+    public List<Booking> reserveItinerary(String username, ItineraryRequest req) {
+        if (req.getLegs() == null || req.getLegs().isEmpty()) {
+            throw new IllegalArgumentException("Itinerary must contain at least one leg");
+        }
+        if (req.getLegs().size() > maxItineraryLegs) {
+            throw new IllegalArgumentException("Itinerary can contain at most " + maxItineraryLegs + " legs");
+        }
+        String itineraryRef = refGenerator.next("IT");
+        return reserveLegs(username, req.getLegs(), itineraryRef);
+    }
+
+    private List<Booking> reserveLegs(String username, List<BookingRequest> legs, String itineraryRef) {
+        // validate every leg before touching any inventory
+        TreeMap<Long, Integer> seatsByFlight = new TreeMap<>();
+        for (BookingRequest leg : legs) {
+            validate(leg);
+            if (seatsByFlight.put(leg.getFlightId(), leg.getSeatCount()) != null) {
+                throw new IllegalArgumentException("Flight appears more than once in itinerary: " + leg.getFlightId());
+            }
+        }
+
         // load user
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
 
-        // lock flight row
-        Flight flight = flightRepository.findByIdForUpdate(req.getFlightId())
-                .orElseThrow(() -> new IllegalArgumentException("Flight not found: " + req.getFlightId()));
+        // flights are locked in ascending id order; booking + passenger rows are batch-inserted
+        // in the same transaction as the seat reservation
+        List<Booking> bookings = reservationExecutor.reserveAll(seatsByFlight, flights -> {
+            List<Booking> created = new ArrayList<>(legs.size());
+            List<List<PassengerRequest>> manifests = new ArrayList<>(legs.size());
+            for (int i = 0; i < legs.size(); i++) {
+                BookingRequest leg = legs.get(i);
+                Flight flight = flights.get(leg.getFlightId());
+                // the fare quoted in search: last committed seat count and days to departure
+                Money farePerSeat = pricingEngine.quote(flight);
+                Booking b = Booking.create(refGenerator.next("BK"), user, flight, leg.getSeatCount(), farePerSeat);
+                b.setItineraryRef(itineraryRef);
+                created.add(b);
+                manifests.add(leg.getPassengers());
+            }
+            batchInsertRepository.persistAll(created);
+            batchInsertRepository.persistAll(passengers(created, manifests));
+            return created;
+        });
+
+        // committed: start the unpaid-hold TTL
+        bookings.forEach(b -> holdExpiryService.track(b.getId()));
+        return bookings;
+    }
 
-        if (!"SCHEDULED".equalsIgnoreCase(flight.getStatus())) {
-            throw new IllegalStateException("Flight is not available for booking: " + flight.getStatus());
+    /**
+     * Group commit for one flight (used by ReservationCoalescer): seats for all requests are taken
+     * under one flight load/lock and all booking rows are inserted in one transaction.
+     * Returns one entry per request, in order; null where not enough seats were left.
+     */
+    public List<Booking> reserveBatch(Long flightId, List<User> users, List<BookingRequest> reqs) {
+        List<Booking> outcome = reservationExecutor.reserveBatch(flightId, flight -> {
+            List<Booking> aligned = new ArrayList<>(reqs.size());
+            List<Booking> created = new ArrayList<>(reqs.size());
+            List<List<PassengerRequest>> manifests = new ArrayList<>(reqs.size());
+            for (int i = 0; i < reqs.size(); i++) {
+                BookingRequest req = reqs.get(i);
+                if (!reservationExecutor.tryTake(flight, req.getSeatCount())) {
+                    aligned.add(null);
+                    continue;
+                }
+                Booking b = Booking.create(refGenerator.next("BK"), users.get(i), flight, req.getSeatCount(), pricingEngine.quote(flight));
+                aligned.add(b);
+                created.add(b);
+                manifests.add(req.getPassengers());
+            }
+            if (!created.isEmpty()) {
+                batchInsertRepository.persistAll(created);
+                batchInsertRepository.persistAll(passengers(created, manifests));
+            }
+            return aligned;
+        });
+
+        outcome.stream().filter(Objects::nonNull).forEach(b -> holdExpiryService.track(b.getId()));
+        return outcome;
+    }
+
+    // manifests.get(i) belongs to bookings.get(i); null manifests are skipped
+    private static List<Passenger> passengers(List<Booking> bookings, List<List<PassengerRequest>> manifests) {
+        List<Passenger> passengers = new ArrayList<>();
+        for (int i = 0; i < bookings.size(); i++) {
+            List<PassengerRequest> manifest = manifests.get(i);
+            if (manifest == null) continue;
+            for (PassengerRequest p : manifest) {
+                Passenger passenger = new Passenger();
+                passenger.setBooking(bookings.get(i));
+                passenger.setFirstName(p.getFirstName());
+                passenger.setLastName(p.getLastName());
+                passenger.setDateOfBirth(p.getDateOfBirth());
+                passenger.setDocumentNumber(p.getDocumentNumber());
+                passengers.add(passenger);
+            }
+        }
+        return passengers;
+    }
+
+    /**
+     * Request-level checks that don't need the database.
+     */
+    public void validate(BookingRequest leg) {
+        if (leg.getFlightId() == null) {
+            throw new IllegalArgumentException("flightId is required");
+        }
+        if (leg.getSeatCount() == null || leg.getSeatCount() <= 0) {
+            throw new IllegalArgumentException("seatCount must be > 0");
+        }
+        if (leg.getPassengers() != null && !leg.getPassengers().isEmpty()
+                && leg.getPassengers().size() != leg.getSeatCount()) {
+            throw new IllegalArgumentException("Passenger manifest must have one entry per seat for flight " + leg.getFlightId());
         }
+        if (leg.getPassengers() != null) {
+            // same limits as the booking_passengers columns, so a bad entry can't fail the insert
+            for (PassengerRequest p : leg.getPassengers()) {
+                if (p == null) {
+                    throw new IllegalArgumentException("Passenger entries must not be empty");
+                }
+                requireName(p.getFirstName(), "firstName");
+                requireName(p.getLastName(), "lastName");
+                if (p.getDocumentNumber() != null && p.getDocumentNumber().length() > 40) {
+                    throw new IllegalArgumentException("Passenger documentNumber must be at most 40 characters");
+                }
+            }
+        }
+    }
 
-        int seatsRequested = req.getSeatCount();
-        if (flight.getRemainingSeats() == null) flight.setRemainingSeats(flight.getTotalSeats());
-        if (flight.getRemainingSeats() < seatsRequested) {
-            throw new IllegalStateException("Not enough seats available. remaining=" + flight.getRemainingSeats());
+    private static void requireName(String value, String field) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Passenger " + field + " is required");
         }
+        if (value.length() > 100) {
+            throw new IllegalArgumentException("Passenger " + field + " must be at most 100 characters");
+        }
+    }
 
-        // compute farePerSeat via simple baseFare (hook for pricing engine later)
-        BigDecimal farePerSeat = flight.getBaseFare();
-        Booking booking = Booking.create(user, flight, seatsRequested, farePerSeat);
+    /**
+     * User-initiated cancellation of an unpaid booking. Seats are released immediately
+     * instead of waiting for the hold to expire.
+     */
+    @Transactional
+    public Booking cancelPendingBooking(String username, String bookingRef) {
+        Booking b = bookingRepository.findByBookingRefForUpdate(bookingRef)
+                .orElseThrow(() -> new IllegalArgumentException("Booking not found: " + bookingRef));
 
-        // decrement remaining seats and persist
-        flight.setRemainingSeats(flight.getRemainingSeats() - seatsRequested);
-        // save both flight and booking within same transaction
-        flightRepository.save(flight);
-        bookingRepository.save(booking);
+        if (!b.getUser().getUsername().equals(username)) {
+            throw new IllegalArgumentException("Booking not found: " + bookingRef);
+        }
+        if (b.getStatus() != BookingStatus.PENDING || b.getPaymentStatus() != PaymentStatus.INITIATED) {
+            throw new IllegalStateException("Only unpaid PENDING bookings can be cancelled. Current status: " + b.getStatus());
+        }
 
-        return booking;
+        b.setStatus(BookingStatus.CANCELLED);
+        bookingRepository.save(b);
+        seatReleaseService.release(b);
+        holdExpiryService.untrack(b.getId());
+        return b;
     }
 
     /**
@@ -85,6 +302,7 @@ public class BookingService {
         b.setStatus(BookingStatus.CONFIRMED);
 
         bookingRepository.save(b);
+        holdExpiryService.untrack(b.getId());
         return b;
     }
 
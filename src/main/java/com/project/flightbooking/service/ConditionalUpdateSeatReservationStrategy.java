@@ -0,0 +1,50 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.model.Flight;
+import com.project.flightbooking.repository.FlightRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Takes seats with a single statement:
+ *   UPDATE flights SET remainingSeats = remainingSeats - :n WHERE id = :id AND remainingSeats >= :n
+ * No read-modify-write, so the row lock is held only for the update itself and nothing aborts.
+ * The loaded Flight entity is never modified here, so dirty checking can't overwrite the counter.
+ * Default strategy: the flights row is the only counter, so any number of instances can share it.
+ */
+@Service
+@ConditionalOnProperty(name = "booking.reservation-strategy", havingValue = "conditional-update", matchIfMissing = true)
+public class ConditionalUpdateSeatReservationStrategy implements SeatReservationStrategy {
+
+    private final FlightRepository flightRepository;
+
+    public ConditionalUpdateSeatReservationStrategy(FlightRepository flightRepository) {
+        this.flightRepository = flightRepository;
+    }
+
+    @Override
+    public String name() {
+        return "conditional-update";
+    }
+
+    @Override
+    public Flight load(Long flightId) {
+        return flightRepository.findById(flightId)
+                .orElseThrow(() -> new IllegalArgumentException("Flight not found: " + flightId));
+    }
+
+    @Override
+    public boolean tryTake(Flight flight, int seats) {
+        return flightRepository.decrementRemainingSeatsIfAvailable(flight.getId(), seats) == 1;
+    }
+
+    @Override
+    public void release(Long flightId, int seats) {
+        flightRepository.incrementRemainingSeats(flightId, seats);
+    }
+
+    @Override
+    public int remaining(Flight flight) {
+        return flightRepository.findRemainingSeats(flight.getId()).orElse(0);
+    }
+}
@@ -0,0 +1,197 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.service.FlightSearchIndex.IndexedFlight;
+import com.project.flightbooking.service.FlightSearchIndex.Timetable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ConnectionSearchService
+ * -----------------------
+ * Multi-leg (connecting) flight search over the per-airport timetables of FlightSearchIndex,
+ * so it is kept current by the same events (flight created, seats, status) and never hits MySQL.
+ *
+ * Round-based search (as in RAPTOR): round k extends the labels of round k-1 by one flight.
+ *  - A label is (airport, arrival time, total fare, legs) plus a back pointer to rebuild the path.
+ *  - From a label at airport A, only departures of A inside the connection window
+ *    [arrival + minConnection, arrival + maxConnection] are scanned (binary search + scan).
+ *  - Each airport keeps a bag of non-dominated labels: a new label is dropped if some label there
+ *    arrives at the same time, costs no more and used no more legs. Arrival alone cannot decide
+ *    it: with a maximum connection time an earlier arrival reaches a different set of departures,
+ *    not a superset. Against the results found so far (already at the destination) arriving no
+ *    later is enough, which cuts off paths that can no longer produce a better option.
+ *  - The result is the Pareto set on (arrival time, total fare, legs), sorted by arrival.
+ *
+ * Fares are summed in paise (long) on the hot path.
+ */
+@Service
+public class ConnectionSearchService {
+
+    public static final class Option {
+        private final List<IndexedFlight> legs;
+        private final long farePaise;
+
+        Option(List<IndexedFlight> legs, long farePaise) {
+            this.legs = legs;
+            this.farePaise = farePaise;
+        }
+
+        public List<IndexedFlight> legs() {
+            return legs;
+        }
+
+        public long farePaise() {
+            return farePaise;
+        }
+
+        public IndexedFlight first() {
+            return legs.get(0);
+        }
+
+        public IndexedFlight last() {
+            return legs.get(legs.size() - 1);
+        }
+    }
+
+    private static final class Label {
+        final String airport;
+        final long arrival;
+        final long fare;
+        final int legs;
+        final IndexedFlight flight;
+        final Label prev;
+
+        Label(String airport, long arrival, long fare, int legs, IndexedFlight flight, Label prev) {
+            this.airport = airport;
+            this.arrival = arrival;
+            this.fare = fare;
+            this.legs = legs;
+            this.flight = flight;
+            this.prev = prev;
+        }
+
+        boolean dominates(Label o) {
+            return arrival <= o.arrival && fare <= o.fare && legs <= o.legs;
+        }
+
+        // at an intermediate airport: same connection window, so every continuation of o is open to this
+        boolean dominatesAtConnection(Label o) {
+            return arrival == o.arrival && fare <= o.fare && legs <= o.legs;
+        }
+
+        boolean visited(String airport) {
+            for (Label l = this; l != null; l = l.prev) {
+                if (l.airport.equals(airport)) return true;
+            }
+            return false;
+        }
+    }
+
+    private final FlightSearchIndex searchIndex;
+    private final PricingEngine pricingEngine;
+
+    @Value("${search.connections.max-legs:3}")
+    private int maxLegsLimit;
+
+    @Value("${search.connections.max-labels:20000}")
+    private int maxLabels;
+
+    public ConnectionSearchService(FlightSearchIndex searchIndex, PricingEngine pricingEngine) {
+        this.searchIndex = searchIndex;
+        this.pricingEngine = pricingEngine;
+    }
+
+    /**
+     * Pareto-optimal ways from origin to destination, first leg departing in [from, to].
+     *
+     * @param maxLegs          1 = direct only, 2 = up to one stop, ...
+     * @param minConnection    minimum time on the ground between legs
+     * @param maxConnection    maximum time on the ground between legs
+     * @param seats            every leg must have this many seats left
+     */
+    public List<Option> search(String origin, String destination, ZonedDateTime from, ZonedDateTime to,
+                               int maxLegs, Duration minConnection, Duration maxConnection, int seats) {
+        if (maxLegs < 1 || maxLegs > maxLegsLimit) {
+            throw new IllegalArgumentException("maxLegs must be between 1 and " + maxLegsLimit);
+        }
+        if (minConnection.isNegative() || maxConnection.compareTo(minConnection) < 0) {
+            throw new IllegalArgumentException("Invalid connection window");
+        }
+        String target = FlightSearchIndex.airportKey(destination);
+        String source = FlightSearchIndex.airportKey(origin);
+        if (source.equals(target)) {
+            throw new IllegalArgumentException("origin and destination must differ");
+        }
+        long minConn = minConnection.toMillis();
+        long maxConn = maxConnection.toMillis();
+        long now = System.currentTimeMillis();
+
+        Map<String, List<Label>> bags = new HashMap<>();
+        List<Label> results = new ArrayList<>();
+        List<Label> frontier = new ArrayList<>();
+        frontier.add(new Label(source, 0, 0, 0, null, null));
+        int labels = 0;
+
+        for (int round = 1; round <= maxLegs && !frontier.isEmpty(); round++) {
+            List<Label> next = new ArrayList<>();
+            for (Label at : frontier) {
+                long windowStart = at.flight == null ? from.toInstant().toEpochMilli() : at.arrival + minConn;
+                long windowEnd = at.flight == null ? to.toInstant().toEpochMilli() : at.arrival + maxConn;
+                Timetable departures = searchIndex.departuresFrom(at.airport);
+                for (int i = departures.lowerBound(windowStart); i < departures.size() && departures.departureAt(i) <= windowEnd; i++) {
+                    IndexedFlight f = departures.flightAt(i);
+                    if (!f.isBookable(seats)) continue;
+                    String arrivesAt = FlightSearchIndex.airportKey(f.destination);
+                    if (at.visited(arrivesAt)) continue; // no loops
+                    Label l = new Label(arrivesAt, f.arrivalMillis, at.fare + pricingEngine.quotePaise(f, now), round, f, at);
+                    if (dominated(results, l)) continue;
+                    if (arrivesAt.equals(target)) {
+                        results.removeIf(l::dominates);
+                        results.add(l);
+                    } else if (round < maxLegs && addToBag(bags.computeIfAbsent(arrivesAt, k -> new ArrayList<>()), l)) {
+                        next.add(l);
+                        if (++labels > maxLabels) {
+                            throw new IllegalArgumentException("Search too broad; narrow the departure window or reduce maxLegs");
+                        }
+                    }
+                }
+            }
+            frontier = next;
+        }
+
+        results.sort(Comparator.<Label>comparingLong(l -> l.arrival).thenComparingLong(l -> l.fare).thenComparingInt(l -> l.legs));
+        List<Option> options = new ArrayList<>(results.size());
+        for (Label l : results) {
+            IndexedFlight[] legs = new IndexedFlight[l.legs];
+            int k = l.legs;
+            for (Label p = l; p.flight != null; p = p.prev) legs[--k] = p.flight;
+            options.add(new Option(List.of(legs), l.fare));
+        }
+        return options;
+    }
+
+    private static boolean dominated(List<Label> labels, Label l) {
+        for (Label o : labels) {
+            if (o.dominates(l)) return true;
+        }
+        return false;
+    }
+
+    // keep only non-dominated labels per airport; false if l is dominated
+    private static boolean addToBag(List<Label> bag, Label l) {
+        for (Label o : bag) {
+            if (o.dominatesAtConnection(l)) return false;
+        }
+        bag.removeIf(l::dominatesAtConnection);
+        bag.add(l);
+        return true;
+    }
+}
@@ -0,0 +1,208 @@
+package com.project.flightbooking.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.flightbooking.model.Booking;
+import com.project.flightbooking.model.Flight;
+import com.project.flightbooking.repository.BookingRepository;
+import com.project.flightbooking.repository.FlightRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ExportService
+ * -------------
+ * Streams every flight / booking to an OutputStream as NDJSON or CSV (optionally gzipped)
+ * with flat memory use regardless of row count:
+ *
+ *  - rows come from a forward-only JPA Stream (MySQL streaming result set, see
+ *    FlightRepository.streamAll) inside a read-only transaction,
+ *  - each row is written as it is read (Jackson streaming generator / hand-written CSV),
+ *  - the persistence context is cleared every export.clear-every rows so loaded entities
+ *    can be garbage collected.
+ */
+@Service
+public class ExportService {
+
+    public enum Format {
+        NDJSON, CSV;
+
+        public static Format parse(String s) {
+            try {
+                return Format.valueOf(s.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("format must be ndjson or csv");
+            }
+        }
+    }
+
+    private static final String[] FLIGHT_COLUMNS = {"id", "flightNumber", "airline", "origin", "destination",
+            "departureTime", "arrivalTime", "totalSeats", "remainingSeats", "baseFare", "status"};
+
+    private static final String[] BOOKING_COLUMNS = {"id", "bookingRef", "itineraryRef", "userId", "username",
+            "flightId", "flightNumber", "seatCount", "seatNumbers", "farePerSeat", "totalFare", "status",
+            "paymentStatus", "createdAt"};
+
+    private final FlightRepository flightRepository;
+    private final BookingRepository bookingRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${export.clear-every:1000}")
+    private int clearEvery;
+
+    public ExportService(FlightRepository flightRepository,
+                         BookingRepository bookingRepository,
+                         ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager) {
+        this.flightRepository = flightRepository;
+        this.bookingRepository = bookingRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public long exportFlights(OutputStream out, Format format, boolean gzip) {
+        return export(out, format, gzip, FLIGHT_COLUMNS, flightRepository::streamAll, this::flightRow);
+    }
+
+    public long exportBookings(OutputStream out, Format format, boolean gzip) {
+        return export(out, format, gzip, BOOKING_COLUMNS, bookingRepository::streamAllWithUserAndFlight, this::bookingRow);
+    }
+
+    private Object[] flightRow(Flight f) {
+        return new Object[]{f.getId(), f.getFlightNumber(), f.getAirline(), f.getOrigin(), f.getDestination(),
+                f.getDepartureTime(), f.getArrivalTime(), f.getTotalSeats(), f.getRemainingSeats(), f.getBaseFare().toBigDecimal(),
+                f.getStatus()};
+    }
+
+    private Object[] bookingRow(Booking b) {
+        return new Object[]{b.getId(), b.getBookingRef(), b.getItineraryRef(), b.getUser().getId(),
+                b.getUser().getUsername(), b.getFlight().getId(), b.getFlight().getFlightNumber(), b.getSeatCount(),
+                b.getSeatNumbers(), b.getFarePerSeat().toBigDecimal(), b.getTotalFare().toBigDecimal(), b.getStatus(), b.getPaymentStatus(),
+                b.getCreatedAt()};
+    }
+
+    private <T> long export(OutputStream raw, Format format, boolean gzip, String[] columns,
+                            Supplier<Stream<T>> source, Function<T, Object[]> toRow) {
+        Long rows = readOnlyTransaction.execute(status -> {
+            try (OutputStream out = gzip ? new GZIPOutputStream(raw, 64 * 1024) : raw;
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+                 Stream<T> stream = source.get()) {
+                RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer, columns) : new JsonRowWriter(writer, columns);
+                long count = 0;
+                Iterator<T> it = stream.iterator();
+                while (it.hasNext()) {
+                    rowWriter.write(toRow.apply(it.next()));
+                    if (++count % clearEvery == 0) {
+                        entityManager.clear(); // detach what we've written so far
+                    }
+                }
+                rowWriter.finish();
+                return count;
+            } catch (IOException e) {
+                // client went away: abort; the result stream and the read-only transaction are closed
+                throw new UncheckedIOException(e);
+            }
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    private interface RowWriter {
+        void write(Object[] values) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    // one JSON object per line
+    private final class JsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private final String[] columns;
+        private final JsonGenerator json;
+
+        JsonRowWriter(Writer writer, String[] columns) throws IOException {
+            this.writer = writer;
+            this.columns = columns;
+            this.json = objectMapper.getFactory().createGenerator(writer);
+            this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void write(Object[] values) throws IOException {
+            json.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                json.writeFieldName(columns[i]);
+                Object v = values[i];
+                if (v == null) json.writeNull();
+                else if (v instanceof Number || v instanceof Boolean) json.writeObject(v);
+                else json.writeString(v.toString());
+            }
+            json.writeEndObject();
+            json.flush();
+            writer.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            json.close();
+        }
+    }
+
+    // RFC 4180: header line, fields quoted only when needed
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer, String[] columns) throws IOException {
+            this.writer = writer;
+            write(columns);
+        }
+
+        @Override
+        public void write(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) writer.write(',');
+                if (values[i] != null) writeField(values[i].toString());
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeField(String s) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < s.length() && !quote; i++) {
+                char c = s.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(s);
+                return;
+            }
+            writer.write('"');
+            writer.write(s.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void finish() {
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.exception.PaymentGatewayException;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process gateway for local runs, tests and load tests (payment.gateway=fake): orders and refunds
+ * live in memory. Latency and failure rate are configurable (payment.gateway.fake.latency-ms,
+ * payment.gateway.fake.failure-rate) and can be changed at runtime, so timeouts, the bulkhead and
+ * the circuit breaker can be exercised without Razorpay. Calls go through PaymentGatewayGuard
+ * exactly like the real gateway.
+ */
+@Service
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "fake")
+public class FakePaymentGateway implements PaymentGateway {
+
+    private final PaymentGatewayGuard guard;
+    private final Map<String, JSONObject> orders = new ConcurrentHashMap<>();
+    private final Map<String, JSONObject> refunds = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private volatile long latencyMillis;
+    private volatile double failureRate;
+
+    public FakePaymentGateway(PaymentGatewayGuard guard,
+                              @Value("${payment.gateway.fake.latency-ms:20}") long latencyMillis,
+                              @Value("${payment.gateway.fake.failure-rate:0.0}") double failureRate) {
+        this.guard = guard;
+        this.latencyMillis = latencyMillis;
+        this.failureRate = failureRate;
+    }
+
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public String publicKey() {
+        return "rzp_test_fake";
+    }
+
+    @Override
+    public Result createOrder(long amountMinor, String currency, String receipt) {
+        return guard.call("createOrder", false, () -> {
+            simulate();
+            JSONObject order = new JSONObject()
+                    .put("id", "order_fake_" + ids.incrementAndGet())
+                    .put("amount", amountMinor)
+                    .put("currency", currency)
+                    .put("receipt", receipt)
+                    .put("status", "created");
+            orders.put(order.getString("id"), order);
+            return result(order);
+        });
+    }
+
+    @Override
+    public Result refund(String providerPaymentId, long amountMinor, String bookingRef, Long refundId) {
+        return guard.call("refund", false, () -> {
+            simulate();
+            if (amountMinor <= 0) {
+                throw new PaymentGatewayException("Fake gateway rejected the request: amount must be > 0", false);
+            }
+            JSONObject refund = new JSONObject()
+                    .put("id", "rfnd_fake_" + ids.incrementAndGet())
+                    .put("payment_id", providerPaymentId)
+                    .put("amount", amountMinor)
+                    .put("notes", new JSONObject().put("bookingRef", bookingRef).put("refundId", String.valueOf(refundId)))
+                    .put("status", "pending");
+            refunds.put(refund.getString("id"), refund);
+            return result(refund);
+        });
+    }
+
+    @Override
+    public Result findOrder(String receipt) {
+        return guard.call("findOrder", true, () -> {
+            simulate();
+            for (JSONObject order : orders.values()) {
+                if (receipt.equals(order.getString("receipt"))) return result(order);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Result fetchOrder(String orderId) {
+        return guard.call("fetchOrder", true, () -> {
+            simulate();
+            return result(found(orders.get(orderId), orderId));
+        });
+    }
+
+    @Override
+    public Result fetchRefund(String refundId) {
+        return guard.call("fetchRefund", true, () -> {
+            simulate();
+            return result(found(refunds.get(refundId), refundId));
+        });
+    }
+
+    @Override
+    public Result findRefund(String providerPaymentId, Long refundId, long amountMinor) {
+        return guard.call("findRefund", true, () -> {
+            simulate();
+            for (JSONObject refund : refunds.values()) {
+                if (providerPaymentId.equals(refund.getString("payment_id"))
+                        && String.valueOf(refundId).equals(refund.getJSONObject("notes").getString("refundId"))
+                        && refund.getLong("amount") == amountMinor && !"failed".equals(refund.getString("status"))) {
+                    return result(refund);
+                }
+            }
+            return null;
+        });
+    }
+
+    private void simulate() throws InterruptedException {
+        if (latencyMillis > 0) Thread.sleep(latencyMillis);
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new PaymentGatewayException("Fake gateway: simulated server error", true);
+        }
+    }
+
+    private static JSONObject found(JSONObject entity, String id) {
+        if (entity == null) throw new PaymentGatewayException("Fake gateway rejected the request: unknown id " + id, false);
+        return entity;
+    }
+
+    private static Result result(JSONObject entity) {
+        return new Result(entity.getString("id"), entity.getString("status"), entity.toString());
+    }
+}
@@ -0,0 +1,161 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.service.FlightSearchIndex.IndexedFlight;
+import com.project.flightbooking.service.FlightSearchIndex.Timetable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * FareCalendarService
+ * -------------------
+ * Cheapest fare per day for each route ("low-fare calendar"), over flights that still
+ * have seats and are SCHEDULED. Fares are PricingEngine quotes.
+ *
+ *  - One AtomicLongArray per route: slot d = min fare in paise on (firstDay + d), -1 = nothing.
+ *    Days are the local departure date of the flights. A route's calendar is built from its
+ *    FlightSearchIndex timetable the first time it is asked for.
+ *  - Kept current incrementally: a new flight can only lower its day's minimum. A seat change
+ *    can move the flight's price either way (load-factor steps), so unless the new price is at or
+ *    below the minimum the day is rescanned; that looks at that day's flights only.
+ *  - Calendars are dropped every search.fare-calendar.rebuild-interval-ms and rebuilt lazily, which
+ *    moves firstDay forward and absorbs changes made on other nodes and days-to-departure steps.
+ */
+@Service
+public class FareCalendarService {
+
+    private static final long NONE = -1;
+    private static final long DAY_SLACK_MILLIS = 14 * 3_600_000L; // widest UTC offset
+
+    private static final class RouteCalendar {
+        final LocalDate firstDay;
+        final AtomicLongArray minFare;
+
+        RouteCalendar(LocalDate firstDay, int days) {
+            this.firstDay = firstDay;
+            this.minFare = new AtomicLongArray(days);
+            for (int i = 0; i < days; i++) minFare.set(i, NONE);
+        }
+
+        int slot(LocalDate day) {
+            long d = day.toEpochDay() - firstDay.toEpochDay();
+            return d < 0 || d >= minFare.length() ? -1 : (int) d;
+        }
+    }
+
+    private final FlightSearchIndex searchIndex;
+    private final PricingEngine pricingEngine;
+    private final Map<String, RouteCalendar> calendars = new ConcurrentHashMap<>();
+
+    @Value("${search.fare-calendar.horizon-days:365}")
+    private int horizonDays;
+
+    public FareCalendarService(FlightSearchIndex searchIndex, PricingEngine pricingEngine) {
+        this.searchIndex = searchIndex;
+        this.pricingEngine = pricingEngine;
+    }
+
+    /**
+     * Cheapest fare (paise) for each of the days days starting at from; -1 where no flight has seats.
+     */
+    public long[] lowestFares(String origin, String destination, LocalDate from, int days) {
+        RouteCalendar cal = calendarFor(origin, destination);
+        long[] out = new long[days];
+        for (int i = 0; i < days; i++) {
+            int slot = cal.slot(from.plusDays(i));
+            out[i] = slot < 0 ? NONE : cal.minFare.get(slot);
+        }
+        return out;
+    }
+
+    /** A flight was added to the search index. */
+    public void flightAdded(Long flightId) {
+        IndexedFlight f = searchIndex.get(flightId);
+        if (f == null || !f.isBookable(1)) return;
+        RouteCalendar cal = calendars.get(FlightSearchIndex.routeKey(f.origin, f.destination));
+        if (cal == null) return; // built with this flight when first requested
+        int slot = cal.slot(f.departureTime.toLocalDate());
+        if (slot >= 0) lower(cal, slot, pricingEngine.quotePaise(f, System.currentTimeMillis()));
+    }
+
+    /**
+     * Seats or status of an indexed flight changed. Applied after the surrounding transaction
+     * commits (after FlightSearchIndex has applied the change, which registered first).
+     */
+    public void flightChanged(Long flightId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyChange(flightId);
+                }
+            });
+        } else {
+            applyChange(flightId);
+        }
+    }
+
+    private void applyChange(Long flightId) {
+        IndexedFlight f = searchIndex.get(flightId);
+        if (f == null) return;
+        RouteCalendar cal = calendars.get(FlightSearchIndex.routeKey(f.origin, f.destination));
+        if (cal == null) return;
+        int slot = cal.slot(f.departureTime.toLocalDate());
+        if (slot < 0) return;
+        long current = cal.minFare.get(slot);
+        long fare = pricingEngine.quotePaise(f, System.currentTimeMillis());
+        if (f.isBookable(1) && fare <= current) {
+            lower(cal, slot, fare); // cheaper (or back on sale): can only lower the minimum
+        } else if (current == NONE || fare >= current) {
+            // sold out / cancelled / stepped up and it may have been the cheapest: rescan the day
+            cal.minFare.set(slot, scanDay(f.origin, f.destination, f.departureTime.toLocalDate()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.fare-calendar.rebuild-interval-ms:3600000}")
+    public void dropCalendars() {
+        calendars.clear();
+    }
+
+    private RouteCalendar calendarFor(String origin, String destination) {
+        return calendars.computeIfAbsent(FlightSearchIndex.routeKey(origin, destination), k -> {
+            RouteCalendar cal = new RouteCalendar(LocalDate.now(), horizonDays);
+            Timetable t = searchIndex.route(origin, destination);
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < t.size(); i++) {
+                IndexedFlight f = t.flightAt(i);
+                int slot = cal.slot(f.departureTime.toLocalDate());
+                if (slot >= 0 && f.isBookable(1)) lower(cal, slot, pricingEngine.quotePaise(f, now));
+            }
+            return cal;
+        });
+    }
+
+    private long scanDay(String origin, String destination, LocalDate day) {
+        Timetable t = searchIndex.route(origin, destination);
+        long start = day.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli() - DAY_SLACK_MILLIS;
+        long end = start + 86_400_000L + 2 * DAY_SLACK_MILLIS;
+        long min = NONE;
+        long now = System.currentTimeMillis();
+        for (int i = t.lowerBound(start); i < t.size() && t.departureAt(i) < end; i++) {
+            IndexedFlight f = t.flightAt(i);
+            if (f.isBookable(1) && f.departureTime.toLocalDate().equals(day)) {
+                long fare = pricingEngine.quotePaise(f, now);
+                if (min == NONE || fare < min) min = fare;
+            }
+        }
+        return min;
+    }
+
+    private static void lower(RouteCalendar cal, int slot, long fare) {
+        cal.minFare.accumulateAndGet(slot, fare, (cur, x) -> cur == NONE || x < cur ? x : cur);
+    }
+}
@@ -0,0 +1,265 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.enums.BookingStatus;
+import com.project.flightbooking.enums.DisruptionStatus;
+import com.project.flightbooking.enums.PaymentStatus;
+import com.project.flightbooking.model.Booking;
+import com.project.flightbooking.model.FlightDisruption;
+import com.project.flightbooking.repository.BookingRepository;
+import com.project.flightbooking.repository.FlightDisruptionRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FlightDisruptionService
+ * -----------------------
+ * Cancels a flight and handles every booking on it:
+ *
+ *  - unpaid holds are cancelled and their seats released;
+ *  - paid bookings (CONFIRMED, or CANCELLED but not yet refunded) get a full refund; those that
+ *    already have one (e.g. when a disruption is rerun) are counted separately;
+ *  - waitlisted customers are taken off the flight's waitlist.
+ *
+ * Bookings are read in keyset pages of flights.disruption.page-size ids, and each page is fanned
+ * out over a fixed pool of flights.disruption.threads workers. Every booking is handled in its own
+ * transaction and idempotently (locked hold, RefundService's duplicate check), so retrying one is
+ * harmless. After each page the last booking id is checkpointed in flight_disruptions; a run cut
+ * short by a restart resumes from there on startup.
+ *
+ * Refunds are only queued here (payment_outbox); OutboxDispatcher makes the gateway calls at its
+ * own rate, so a large flight cannot flood the payment gateway.
+ */
+@Service
+public class FlightDisruptionService {
+
+    private enum Outcome { HOLD_CANCELLED, REFUND_INITIATED, REFUND_EXISTING, SKIPPED }
+
+    private final FlightService flightService;
+    private final FlightDisruptionRepository disruptionRepository;
+    private final BookingRepository bookingRepository;
+    private final RefundService refundService;
+    private final SeatReleaseService seatReleaseService;
+    private final HoldExpiryService holdExpiryService;
+    private final WaitlistService waitlistService;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService coordinators;
+    private final ExecutorService workers;
+    // flights whose disruption is being processed on this node
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    @Value("${flights.disruption.page-size:200}")
+    private int pageSize;
+
+    public FlightDisruptionService(FlightService flightService,
+                                   FlightDisruptionRepository disruptionRepository,
+                                   BookingRepository bookingRepository,
+                                   RefundService refundService,
+                                   SeatReleaseService seatReleaseService,
+                                   HoldExpiryService holdExpiryService,
+                                   WaitlistService waitlistService,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${flights.disruption.threads:16}") int threads) {
+        this.flightService = flightService;
+        this.disruptionRepository = disruptionRepository;
+        this.bookingRepository = bookingRepository;
+        this.refundService = refundService;
+        this.seatReleaseService = seatReleaseService;
+        this.holdExpiryService = holdExpiryService;
+        this.waitlistService = waitlistService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.coordinators = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "flight-disruption");
+            t.setDaemon(true);
+            return t;
+        });
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "flight-disruption-worker");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Cancel the flight and start handling its bookings in the background.
+     * Cancelling an already cancelled flight rescans its bookings (e.g. to retry failed refunds),
+     * unless a run is still in progress.
+     */
+    public FlightDisruption cancelFlight(Long flightId, String reason) {
+        flightService.cancelFlight(flightId);
+        int waiters = waitlistService.closeFlight(flightId);
+
+        FlightDisruption d = transactionTemplate.execute(status -> {
+            FlightDisruption existing = disruptionRepository.findByFlightId(flightId).orElse(null);
+            if (existing != null && (existing.getStatus() == DisruptionStatus.RUNNING || running.contains(flightId))) {
+                return existing; // in progress here, or interrupted and resumed below
+            }
+            FlightDisruption fresh = existing != null ? existing : new FlightDisruption();
+            fresh.setFlightId(flightId);
+            fresh.setReason(reason);
+            fresh.setStatus(DisruptionStatus.RUNNING);
+            fresh.setCheckpointBookingId(0L);
+            fresh.setBookingsProcessed(0);
+            fresh.setHoldsCancelled(0);
+            fresh.setRefundsInitiated(0);
+            fresh.setRefundsExisting(0);
+            fresh.setFailures(0);
+            fresh.setCompletedAt(null);
+            return disruptionRepository.save(fresh);
+        });
+
+        System.out.println("Flight " + flightId + " cancelled; " + waiters + " waitlisted customers removed");
+        start(d);
+        return d;
+    }
+
+    public Optional<FlightDisruption> find(Long flightId) {
+        return disruptionRepository.findByFlightId(flightId);
+    }
+
+    // runs left unfinished by a restart
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        for (FlightDisruption d : disruptionRepository.findByStatus(DisruptionStatus.RUNNING)) {
+            System.out.println("Resuming disruption of flight " + d.getFlightId() + " after booking " + d.getCheckpointBookingId());
+            start(d);
+        }
+    }
+
+    private void start(FlightDisruption d) {
+        if (d.getStatus() != DisruptionStatus.RUNNING || !running.add(d.getFlightId())) return;
+        coordinators.execute(() -> {
+            try {
+                run(d.getId(), d.getFlightId());
+            } catch (RuntimeException e) {
+                // stays RUNNING: resumed from the last checkpoint on the next start
+                System.out.println("Disruption of flight " + d.getFlightId() + " stopped: " + e.getMessage());
+            } finally {
+                running.remove(d.getFlightId());
+            }
+        });
+    }
+
+    private void run(Long disruptionId, Long flightId) {
+        long startedAt = System.currentTimeMillis();
+        FlightDisruption d = disruptionRepository.findById(disruptionId)
+                .orElseThrow(() -> new IllegalStateException("Disruption not found: " + disruptionId));
+        long cursor = d.getCheckpointBookingId();
+        AtomicInteger processed = new AtomicInteger(d.getBookingsProcessed());
+        AtomicInteger holdsCancelled = new AtomicInteger(d.getHoldsCancelled());
+        AtomicInteger refunds = new AtomicInteger(d.getRefundsInitiated());
+        AtomicInteger refundsExisting = new AtomicInteger(d.getRefundsExisting() != null ? d.getRefundsExisting() : 0);
+        AtomicInteger failures = new AtomicInteger(d.getFailures());
+
+        List<Long> ids;
+        while (!(ids = bookingRepository.findIdsOnFlightAfter(flightId, cursor, Limit.of(pageSize))).isEmpty()) {
+            List<CompletableFuture<Void>> page = new ArrayList<>(ids.size());
+            for (Long bookingId : ids) {
+                page.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        switch (handle(bookingId)) {
+                            case HOLD_CANCELLED -> holdsCancelled.incrementAndGet();
+                            case REFUND_INITIATED -> refunds.incrementAndGet();
+                            case REFUND_EXISTING -> refundsExisting.incrementAndGet();
+                            case SKIPPED -> { }
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                        System.out.println("Disruption of flight " + flightId + ": booking " + bookingId + " failed: " + e.getMessage());
+                    }
+                    processed.incrementAndGet();
+                }, workers));
+            }
+            CompletableFuture.allOf(page.toArray(new CompletableFuture<?>[0])).join();
+            cursor = ids.get(ids.size() - 1);
+            checkpoint(disruptionId, cursor, processed.get(), holdsCancelled.get(), refunds.get(), refundsExisting.get(),
+                    failures.get(), null);
+        }
+
+        DisruptionStatus done = failures.get() == 0 ? DisruptionStatus.COMPLETED : DisruptionStatus.COMPLETED_WITH_FAILURES;
+        checkpoint(disruptionId, cursor, processed.get(), holdsCancelled.get(), refunds.get(), refundsExisting.get(),
+                failures.get(), done);
+        System.out.println("Disruption of flight " + flightId + " " + done + ": " + processed.get() + " bookings, " +
+                holdsCancelled.get() + " holds cancelled, " + refunds.get() + " refunds initiated, " + refundsExisting.get() +
+                " already refunded, " + failures.get() + " failures in " +
+                (System.currentTimeMillis() - startedAt) + " ms");
+    }
+
+    private Outcome handle(Long bookingId) {
+        Booking b = bookingRepository.findById(bookingId).orElse(null);
+        if (b == null) return Outcome.SKIPPED;
+
+        if (b.getStatus() == BookingStatus.PENDING && b.getPaymentStatus() == PaymentStatus.INITIATED) {
+            if (cancelHold(bookingId)) return Outcome.HOLD_CANCELLED;
+            // paid (or expired) while we looked: decide again on the current state
+            b = bookingRepository.findById(bookingId).orElse(null);
+            if (b == null) return Outcome.SKIPPED;
+        }
+
+        boolean paid = b.getPaymentStatus() == PaymentStatus.SUCCESS
+                && (b.getStatus() == BookingStatus.CONFIRMED || b.getStatus() == BookingStatus.CANCELLED);
+        if (!paid) return Outcome.SKIPPED; // refunded already, or cancelled before payment
+
+        return refundService.initiateFullRefund(b.getBookingRef()).created() ? Outcome.REFUND_INITIATED : Outcome.REFUND_EXISTING;
+    }
+
+    // same as a user cancelling their unpaid hold; false if it is no longer an unpaid hold
+    private boolean cancelHold(Long bookingId) {
+        Boolean cancelled = transactionTemplate.execute(status -> {
+            List<Booking> holds = bookingRepository.findHoldsForUpdate(List.of(bookingId),
+                    BookingStatus.PENDING, PaymentStatus.INITIATED);
+            if (holds.isEmpty()) return false;
+            Booking hold = holds.get(0);
+            hold.setStatus(BookingStatus.CANCELLED);
+            bookingRepository.save(hold);
+            seatReleaseService.release(hold);
+            return true;
+        });
+        if (Boolean.TRUE.equals(cancelled)) {
+            holdExpiryService.untrack(bookingId);
+            return true;
+        }
+        return false;
+    }
+
+    private void checkpoint(Long disruptionId, long cursor, int processed, int holdsCancelled, int refunds,
+                            int refundsExisting, int failures, DisruptionStatus finalStatus) {
+        transactionTemplate.executeWithoutResult(status -> {
+            FlightDisruption d = disruptionRepository.findById(disruptionId)
+                    .orElseThrow(() -> new IllegalStateException("Disruption not found: " + disruptionId));
+            d.setCheckpointBookingId(cursor);
+            d.setBookingsProcessed(processed);
+            d.setHoldsCancelled(holdsCancelled);
+            d.setRefundsInitiated(refunds);
+            d.setRefundsExisting(refundsExisting);
+            d.setFailures(failures);
+            if (finalStatus != null) {
+                d.setStatus(finalStatus);
+                d.setCompletedAt(LocalDateTime.now());
+            }
+            disruptionRepository.save(d);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinators.shutdownNow();
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,378 @@
+package com.project.flightbooking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.flightbooking.dto.FlightImportError;
+import com.project.flightbooking.dto.FlightImportResult;
+import com.project.flightbooking.dto.FlightRequest;
+import com.project.flightbooking.model.Flight;
+import com.project.flightbooking.repository.BatchInsertRepository;
+import com.project.flightbooking.repository.FlightJdbcRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * FlightImportService
+ * -------------------
+ * Bulk schedule import from CSV or NDJSON, in constant memory:
+ *
+ *  - the file is read line by line and cut into chunks of flights.import.chunk-size rows;
+ *  - chunks are parsed and validated in parallel (FlightService.toFlight, the same rules as
+ *    POST /api/admin/flights) while the next ones are read; at most flights.import.max-in-flight
+ *    chunks are buffered;
+ *  - chunks are written in file order, each in its own transaction, as JDBC batches
+ *    (BatchInsertRepository). Rows that repeat a (flightNumber, serviceDate) of the file or of the
+ *    database are rejected up front; if a chunk insert still fails it is retried row by row so
+ *    the error lands on the right line;
+ *  - committed flights are published to the search index, fare calendar, autocomplete and
+ *    search cache through FlightService.flightsCreated.
+ *
+ * CSV needs a header row; columns are matched by name (the flight export's names), so an export
+ * can be imported as is. NDJSON lines are FlightRequest objects. Quoted CSV fields may not span lines.
+ */
+@Service
+public class FlightImportService {
+
+    private static final String[] REQUIRED_CSV_COLUMNS = {"flightNumber", "airline", "origin", "destination",
+            "departureTime", "arrivalTime", "totalSeats"};
+
+    private static final class Chunk {
+        final long[] lines;
+        final String[] raw;
+        int size;
+        final List<Flight> flights = new ArrayList<>();
+        final List<Long> flightLines = new ArrayList<>();
+        final List<FlightImportError> errors = new ArrayList<>();
+
+        Chunk(int capacity) {
+            this.lines = new long[capacity];
+            this.raw = new String[capacity];
+        }
+    }
+
+    private final FlightService flightService;
+    private final FlightJdbcRepository flightJdbcRepository;
+    private final BatchInsertRepository batchInsertRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService validators;
+
+    @Value("${flights.import.chunk-size:2000}")
+    private int chunkSize;
+
+    @Value("${flights.import.max-in-flight:8}")
+    private int maxInFlight;
+
+    @Value("${flights.import.max-errors:1000}")
+    private int maxErrors;
+
+    @Value("${flights.import.dir:}")
+    private String importDir;
+
+    public FlightImportService(FlightService flightService,
+                               FlightJdbcRepository flightJdbcRepository,
+                               BatchInsertRepository batchInsertRepository,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${flights.import.threads:4}") int threads) {
+        this.flightService = flightService;
+        this.flightJdbcRepository = flightJdbcRepository;
+        this.batchInsertRepository = batchInsertRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validators = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "flight-import");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Import a file from the server-side import directory (flights.import.dir); disabled when unset.
+     */
+    public FlightImportResult importFromImportDir(String relativePath, ExportService.Format format, boolean gzip) throws IOException {
+        if (importDir == null || importDir.isBlank()) {
+            throw new IllegalArgumentException("Server-side import is disabled (flights.import.dir is not set)");
+        }
+        Path dir = Path.of(importDir).toAbsolutePath().normalize();
+        Path file = dir.resolve(relativePath).normalize();
+        if (!file.startsWith(dir) || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("No such import file: " + relativePath);
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            return importFlights(in, format, gzip || file.toString().endsWith(".gz"));
+        }
+    }
+
+    /**
+     * Import a local file (CLI); format from the extension (.csv, .ndjson/.jsonl, optionally .gz).
+     */
+    public FlightImportResult importFile(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean gzip = name.endsWith(".gz");
+        if (gzip) name = name.substring(0, name.length() - 3);
+        ExportService.Format format = name.endsWith(".csv") ? ExportService.Format.CSV : ExportService.Format.NDJSON;
+        try (InputStream in = Files.newInputStream(file)) {
+            return importFlights(in, format, gzip);
+        }
+    }
+
+    public FlightImportResult importFlights(InputStream in, ExportService.Format format, boolean gzip) throws IOException {
+        long start = System.nanoTime();
+        FlightImportResult result = new FlightImportResult();
+        InputStream source = gzip ? new GZIPInputStream(in, 1 << 16) : in;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(source, StandardCharsets.UTF_8), 1 << 16);
+
+        long lineNo = 0;
+        Map<String, Integer> columns = null;
+        if (format == ExportService.Format.CSV) {
+            String header = reader.readLine();
+            lineNo++;
+            if (header == null) return result;
+            columns = csvColumns(header);
+        }
+
+        Deque<CompletableFuture<Chunk>> pending = new ArrayDeque<>();
+        Set<String> seen = new HashSet<>();
+        Chunk chunk = new Chunk(chunkSize);
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+                chunk.lines[chunk.size] = lineNo;
+                chunk.raw[chunk.size++] = line;
+                if (chunk.size == chunkSize) {
+                    pending.add(submit(chunk, format, columns));
+                    chunk = new Chunk(chunkSize);
+                    while (pending.size() >= maxInFlight) {
+                        write(pending.poll().join(), seen, result);
+                    }
+                }
+            }
+            if (chunk.size > 0) {
+                pending.add(submit(chunk, format, columns));
+            }
+            while (!pending.isEmpty()) {
+                write(pending.poll().join(), seen, result);
+            }
+        } finally {
+            pending.forEach(f -> f.cancel(false));
+        }
+
+        result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        System.out.println("Flight import: " + result.getImported() + " of " + result.getRows() + " rows imported, "
+                + result.getFailed() + " failed, in " + result.getElapsedMillis() + " ms");
+        return result;
+    }
+
+    private CompletableFuture<Chunk> submit(Chunk chunk, ExportService.Format format, Map<String, Integer> columns) {
+        return CompletableFuture.supplyAsync(() -> validate(chunk, format, columns), validators);
+    }
+
+    // runs on the validator pool: parse + FlightService.toFlight for every row of the chunk
+    private Chunk validate(Chunk chunk, ExportService.Format format, Map<String, Integer> columns) {
+        for (int i = 0; i < chunk.size; i++) {
+            FlightRequest req = null;
+            try {
+                req = format == ExportService.Format.CSV
+                        ? fromCsv(parseCsvLine(chunk.raw[i]), columns)
+                        : objectMapper.readValue(chunk.raw[i], FlightRequest.class);
+                chunk.flights.add(flightService.toFlight(req));
+                chunk.flightLines.add(chunk.lines[i]);
+            } catch (JsonProcessingException e) {
+                chunk.errors.add(new FlightImportError(chunk.lines[i], null, "Malformed JSON: " + e.getOriginalMessage()));
+            } catch (IllegalArgumentException e) {
+                chunk.errors.add(new FlightImportError(chunk.lines[i], req != null ? req.getFlightNumber() : null, e.getMessage()));
+            }
+            chunk.raw[i] = null;
+        }
+        return chunk;
+    }
+
+    // runs on the importing thread, in file order
+    private void write(Chunk chunk, Set<String> seen, FlightImportResult result) {
+        result.setRows(result.getRows() + chunk.size);
+        chunk.errors.forEach(e -> reject(result, e));
+
+        List<Flight> candidates = new ArrayList<>(chunk.flights.size());
+        List<Long> candidateLines = new ArrayList<>(chunk.flights.size());
+        Set<String> numbers = new LinkedHashSet<>();
+        LocalDate min = null, max = null;
+        for (int i = 0; i < chunk.flights.size(); i++) {
+            Flight f = chunk.flights.get(i);
+            if (!seen.add(FlightJdbcRepository.key(f.getFlightNumber(), f.getServiceDate()))) {
+                reject(result, new FlightImportError(chunk.flightLines.get(i), f.getFlightNumber(),
+                        "Duplicate of an earlier row for " + f.getServiceDate()));
+                continue;
+            }
+            candidates.add(f);
+            candidateLines.add(chunk.flightLines.get(i));
+            numbers.add(f.getFlightNumber());
+            if (min == null || f.getServiceDate().isBefore(min)) min = f.getServiceDate();
+            if (max == null || f.getServiceDate().isAfter(max)) max = f.getServiceDate();
+        }
+        if (candidates.isEmpty()) return;
+
+        Set<String> existing = flightJdbcRepository.findExistingKeys(numbers, min, max);
+        List<Flight> toInsert = new ArrayList<>(candidates.size());
+        List<Long> toInsertLines = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            Flight f = candidates.get(i);
+            if (existing.contains(FlightJdbcRepository.key(f.getFlightNumber(), f.getServiceDate()))) {
+                reject(result, new FlightImportError(candidateLines.get(i), f.getFlightNumber(),
+                        "Flight already exists for " + f.getServiceDate()));
+            } else {
+                toInsert.add(f);
+                toInsertLines.add(candidateLines.get(i));
+            }
+        }
+        if (toInsert.isEmpty()) return;
+
+        List<Flight> inserted;
+        try {
+            transactionTemplate.executeWithoutResult(s -> batchInsertRepository.persistAll(toInsert));
+            inserted = toInsert;
+        } catch (DataAccessException e) {
+            // e.g. a concurrent insert of the same flight: retry row by row to find the culprit(s)
+            inserted = new ArrayList<>(toInsert.size());
+            for (int i = 0; i < toInsert.size(); i++) {
+                Flight f = toInsert.get(i);
+                f.setId(null);
+                try {
+                    transactionTemplate.executeWithoutResult(s -> batchInsertRepository.persistAll(List.of(f)));
+                    inserted.add(f);
+                } catch (DataAccessException rowError) {
+                    reject(result, new FlightImportError(toInsertLines.get(i), f.getFlightNumber(),
+                            rowError.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+        result.setImported(result.getImported() + inserted.size());
+        if (!inserted.isEmpty()) {
+            flightService.flightsCreated(inserted);
+        }
+    }
+
+    private void reject(FlightImportResult result, FlightImportError error) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxErrors) {
+            result.getErrors().add(error);
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private static Map<String, Integer> csvColumns(String header) {
+        List<String> names = parseCsvLine(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = new ArrayList<>();
+        for (String required : REQUIRED_CSV_COLUMNS) {
+            if (!columns.containsKey(required.toLowerCase(Locale.ROOT))) missing.add(required);
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV header is missing column(s): " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    private static FlightRequest fromCsv(List<String> fields, Map<String, Integer> columns) {
+        FlightRequest r = new FlightRequest();
+        r.setFlightNumber(field(fields, columns, "flightnumber"));
+        r.setAirline(field(fields, columns, "airline"));
+        r.setOrigin(field(fields, columns, "origin"));
+        r.setDestination(field(fields, columns, "destination"));
+        r.setDepartureTime(field(fields, columns, "departuretime"));
+        r.setArrivalTime(field(fields, columns, "arrivaltime"));
+        String totalSeats = field(fields, columns, "totalseats");
+        String baseFare = field(fields, columns, "basefare");
+        String seatsPerRow = field(fields, columns, "seatsperrow");
+        try {
+            r.setTotalSeats(totalSeats == null ? null : Integer.valueOf(totalSeats));
+            r.setSeatsPerRow(seatsPerRow == null ? null : Integer.valueOf(seatsPerRow));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("totalSeats/seatsPerRow must be whole numbers");
+        }
+        try {
+            r.setBaseFare(baseFare == null ? null : new BigDecimal(baseFare));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("baseFare is not a number: " + baseFare);
+        }
+        return r;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer i = columns.get(name);
+        if (i == null || i >= fields.size()) return null;
+        String v = fields.get(i).trim();
+        return v.isEmpty() ? null : v;
+    }
+
+    // one CSV record: comma separated, fields optionally quoted with "" as an escaped quote
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>(12);
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        cur.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    cur.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(cur.toString());
+                cur.setLength(0);
+            } else if (c != '\r') {
+                cur.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("Unterminated quoted field");
+        fields.add(cur.toString());
+        return fields;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        validators.shutdown();
+    }
+}
@@ -0,0 +1,338 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.model.Flight;
+import com.project.flightbooking.repository.FlightRepository;
+import com.project.flightbooking.repository.FlightSeatShardRepository;
+import com.project.flightbooking.util.Money;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * FlightSearchIndex
+ * -----------------
+ * In-memory index of upcoming flights so searches never touch MySQL.
+ *
+ *  - route (origin, destination) -> flights sorted by departure time, held as two parallel arrays
+ *    (long[] departure epoch millis + IndexedFlight[]). A range query is a binary search for the
+ *    first departure >= from followed by a sequential scan, with no locks.
+ *  - Route arrays are copy-on-write: adding a flight builds a new array and swaps it in, so
+ *    readers always see a consistent snapshot. Flights are added far less often than searched.
+ *  - Seats and status are mutable fields of the shared IndexedFlight (volatile), updated in place:
+ *    SeatReservationExecutor reports every committed take/release, and a periodic resync corrects
+ *    drift (e.g. bookings made on other nodes): from SeatInventoryService's counters with the
+ *    in-memory strategy (the flights table lags them), from the flights table otherwise.
+ *  - The same structure is kept per origin airport (all departures from it, any destination):
+ *    the timetable ConnectionSearchService walks for multi-leg searches.
+ *  - Flights that departed more than search.index.retain-hours ago are dropped on resync.
+ */
+@Service
+public class FlightSearchIndex {
+
+    /** Compact, read-mostly view of one flight. */
+    public static final class IndexedFlight {
+        private static final AtomicIntegerFieldUpdater<IndexedFlight> SEATS =
+                AtomicIntegerFieldUpdater.newUpdater(IndexedFlight.class, "remainingSeats");
+
+        public final long id;
+        public final String flightNumber;
+        public final String airline;
+        public final String origin;
+        public final String destination;
+        public final ZonedDateTime departureTime;
+        public final ZonedDateTime arrivalTime;
+        public final int totalSeats;
+        public final Money baseFare;
+        final long departureMillis;
+        final long arrivalMillis;
+        final long farePaise;
+        private volatile int remainingSeats;
+        private volatile String status;
+        volatile PricingEngine.FareLadder fareLadder; // compiled lazily by PricingEngine
+
+        IndexedFlight(Flight f) {
+            this.id = f.getId();
+            this.flightNumber = f.getFlightNumber();
+            this.airline = f.getAirline();
+            this.origin = f.getOrigin();
+            this.destination = f.getDestination();
+            this.departureTime = f.getDepartureTime();
+            this.arrivalTime = f.getArrivalTime();
+            this.totalSeats = f.getTotalSeats();
+            this.baseFare = f.getBaseFare();
+            this.departureMillis = f.getDepartureTime().toInstant().toEpochMilli();
+            this.arrivalMillis = f.getArrivalTime().toInstant().toEpochMilli();
+            this.farePaise = f.getBaseFare().minor();
+            this.remainingSeats = f.getRemainingSeats();
+            this.status = f.getStatus();
+        }
+
+        public int remainingSeats() {
+            return remainingSeats;
+        }
+
+        public String status() {
+            return status;
+        }
+
+        public boolean isBookable(int seats) {
+            return remainingSeats >= seats && "SCHEDULED".equalsIgnoreCase(status);
+        }
+    }
+
+    /**
+     * Immutable, departure-sorted snapshot of a route's (or an airport's) flights;
+     * replaced as a whole on add/evict.
+     */
+    public static final class Timetable {
+        final long[] departures;
+        final IndexedFlight[] flights;
+
+        Timetable(long[] departures, IndexedFlight[] flights) {
+            this.departures = departures;
+            this.flights = flights;
+        }
+
+        public int size() {
+            return departures.length;
+        }
+
+        public long departureAt(int i) {
+            return departures[i];
+        }
+
+        public IndexedFlight flightAt(int i) {
+            return flights[i];
+        }
+
+        /** First position with departure >= millis. */
+        public int lowerBound(long millis) {
+            int lo = 0, hi = departures.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (departures[mid] < millis) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    private static final Timetable EMPTY = new Timetable(new long[0], new IndexedFlight[0]);
+
+    private final FlightRepository flightRepository;
+    private final FlightSeatShardRepository shardRepository;
+    private final SeatInventoryService seatInventory; // null unless the in-memory strategy is active
+    private final Map<String, Timetable> routes = new ConcurrentHashMap<>();
+    private final Map<String, Timetable> byAirport = new ConcurrentHashMap<>();
+    private final Map<Long, IndexedFlight> byId = new ConcurrentHashMap<>();
+
+    @Value("${search.index.retain-hours:24}")
+    private long retainHours;
+
+    public FlightSearchIndex(FlightRepository flightRepository,
+                             FlightSeatShardRepository shardRepository,
+                             ObjectProvider<SeatInventoryService> seatInventory) {
+        this.flightRepository = flightRepository;
+        this.shardRepository = shardRepository;
+        this.seatInventory = seatInventory.getIfAvailable();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Flight> flights = flightRepository.findByDepartureTimeAfter(ZonedDateTime.now().minusHours(retainHours));
+        addAll(flights);
+        applyInventoryCounts();
+        applyShardTotals();
+        System.out.println("Flight search index: " + byId.size() + " flights on " + routes.size() + " routes");
+    }
+
+    public void add(Flight flight) {
+        addAll(List.of(flight));
+    }
+
+    /** Index new flights; flights already indexed are ignored. */
+    public void addAll(Collection<Flight> flights) {
+        Map<String, List<IndexedFlight>> byRoute = new HashMap<>();
+        Map<String, List<IndexedFlight>> byOrigin = new HashMap<>();
+        for (Flight f : flights) {
+            IndexedFlight entry = new IndexedFlight(f);
+            if (byId.putIfAbsent(entry.id, entry) == null) {
+                byRoute.computeIfAbsent(routeKey(f.getOrigin(), f.getDestination()), k -> new ArrayList<>()).add(entry);
+                byOrigin.computeIfAbsent(airportKey(f.getOrigin()), k -> new ArrayList<>()).add(entry);
+            }
+        }
+        byRoute.forEach((key, added) -> routes.compute(key, (k, old) -> merge(old == null ? EMPTY : old, added)));
+        byOrigin.forEach((key, added) -> byAirport.compute(key, (k, old) -> merge(old == null ? EMPTY : old, added)));
+    }
+
+    /**
+     * Flights on the route departing in [from, to], in departure order. Only SCHEDULED flights
+     * with at least minSeats seats left are returned, at most limit of them.
+     */
+    public List<IndexedFlight> search(String origin, String destination, ZonedDateTime from, ZonedDateTime to,
+                                      int minSeats, int limit) {
+        Timetable route = routes.get(routeKey(origin, destination));
+        if (route == null) return List.of();
+        long toMillis = to.toInstant().toEpochMilli();
+        List<IndexedFlight> out = new ArrayList<>(Math.min(limit, 64));
+        for (int i = route.lowerBound(from.toInstant().toEpochMilli());
+             i < route.departures.length && route.departures[i] <= toMillis && out.size() < limit; i++) {
+            IndexedFlight f = route.flights[i];
+            if (f.isBookable(minSeats)) {
+                out.add(f);
+            }
+        }
+        return out;
+    }
+
+    public IndexedFlight get(Long flightId) {
+        return byId.get(flightId);
+    }
+
+    /** Indexed flights of the route, in departure order. */
+    public Timetable route(String origin, String destination) {
+        Timetable t = routes.get(routeKey(origin, destination));
+        return t != null ? t : EMPTY;
+    }
+
+    /** Every indexed departure from the airport, in departure order. */
+    public Timetable departuresFrom(String airport) {
+        Timetable t = byAirport.get(airportKey(airport));
+        return t != null ? t : EMPTY;
+    }
+
+    /**
+     * Seats changed by delta (negative = taken). Applied when the surrounding transaction
+     * commits, so a rolled-back reservation never shows up in search.
+     */
+    public void seatsChanged(Long flightId, int delta) {
+        IndexedFlight f = byId.get(flightId);
+        if (f == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    IndexedFlight.SEATS.addAndGet(f, delta);
+                }
+            });
+        } else {
+            IndexedFlight.SEATS.addAndGet(f, delta);
+        }
+    }
+
+    /**
+     * Status changed (e.g. cancelled). Applied when the surrounding transaction commits, like seatsChanged.
+     */
+    public void statusChanged(Long flightId, String status) {
+        IndexedFlight f = byId.get(flightId);
+        if (f == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    f.status = status;
+                }
+            });
+        } else {
+            f.status = status;
+        }
+    }
+
+    /**
+     * Re-read seats and status of indexed flights and drop departed ones.
+     * With the in-memory strategy the table lags the counters, so only status is taken from it
+     * and seats come from the counters.
+     */
+    @Scheduled(fixedDelayString = "${search.index.resync-interval-ms:60000}")
+    public void resync() {
+        boolean seatsFromDb = seatInventory == null;
+        ZonedDateTime cutoff = ZonedDateTime.now().minusHours(retainHours);
+        for (Object[] row : flightRepository.findSearchStates(cutoff)) {
+            IndexedFlight f = byId.get((Long) row[0]);
+            if (f == null) continue;
+            boolean sharded = row[3] != null && ((Integer) row[3]) > 0; // handled by applyShardTotals
+            if (seatsFromDb && !sharded) f.remainingSeats = (Integer) row[1];
+            f.status = (String) row[2];
+        }
+        applyInventoryCounts();
+        applyShardTotals();
+        evictBefore(cutoff.toInstant().toEpochMilli());
+    }
+
+    // in-memory strategy: the counters, not flights.remainingSeats, are the live seat count
+    private void applyInventoryCounts() {
+        if (seatInventory == null) return;
+        for (IndexedFlight f : byId.values()) {
+            f.remainingSeats = seatInventory.remaining(f.id);
+        }
+    }
+
+    // sharded flights: the shards, not flights.remainingSeats, hold the seat count
+    private void applyShardTotals() {
+        for (Object[] row : shardRepository.sumRemainingSeatsByFlight()) {
+            IndexedFlight f = byId.get((Long) row[0]);
+            if (f != null) f.remainingSeats = ((Number) row[1]).intValue();
+        }
+    }
+
+    private void evictBefore(long cutoffMillis) {
+        evictBefore(routes, cutoffMillis);
+        evictBefore(byAirport, cutoffMillis);
+    }
+
+    private void evictBefore(Map<String, Timetable> timetables, long cutoffMillis) {
+        for (String key : timetables.keySet()) {
+            timetables.computeIfPresent(key, (k, t) -> {
+                int keep = t.lowerBound(cutoffMillis);
+                if (keep == 0) return t;
+                for (int i = 0; i < keep; i++) byId.remove(t.flights[i].id);
+                if (keep == t.departures.length) return null;
+                return new Timetable(Arrays.copyOfRange(t.departures, keep, t.departures.length),
+                        Arrays.copyOfRange(t.flights, keep, t.flights.length));
+            });
+        }
+    }
+
+    // merge newly added flights into a timetable snapshot (both sorted by departure)
+    private static Timetable merge(Timetable old, List<IndexedFlight> added) {
+        added.sort((a, b) -> Long.compare(a.departureMillis, b.departureMillis));
+        int n = old.departures.length + added.size();
+        long[] deps = new long[n];
+        IndexedFlight[] flights = new IndexedFlight[n];
+        int i = 0, j = 0, k = 0;
+        while (i < old.departures.length || j < added.size()) {
+            if (j == added.size() || (i < old.departures.length && old.departures[i] <= added.get(j).departureMillis)) {
+                deps[k] = old.departures[i];
+                flights[k++] = old.flights[i++];
+            } else {
+                IndexedFlight f = added.get(j++);
+                deps[k] = f.departureMillis;
+                flights[k++] = f;
+            }
+        }
+        return new Timetable(deps, flights);
+    }
+
+    static String routeKey(String origin, String destination) {
+        return airportKey(origin) + '-' + airportKey(destination);
+    }
+
+    static String airportKey(String airport) {
+        return airport.trim().toUpperCase();
+    }
+}
@@ -1,52 +1,210 @@
 package com.project.flightbooking.service;
 
 import com.project.flightbooking.dto.FlightRequest;
+import com.project.flightbooking.dto.FlightSearchPage;
+import com.project.flightbooking.dto.FlightSearchRow;
 import com.project.flightbooking.model.Flight;
 import com.project.flightbooking.repository.FlightRepository;
+import com.project.flightbooking.util.Money;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
 
 @Service
 public class FlightService {
 
     private final FlightRepository flightRepository;
+    private final SeatReservationExecutor reservationExecutor;
+    private final FlightSearchIndex searchIndex;
+    private final SearchResultCache searchCache;
+    private final FareCalendarService fareCalendar;
+    private final AutocompleteService autocomplete;
+    private final PricingEngine pricingEngine;
 
-    public FlightService(FlightRepository flightRepository) {
+    public FlightService(FlightRepository flightRepository,
+                         SeatReservationExecutor reservationExecutor,
+                         FlightSearchIndex searchIndex,
+                         SearchResultCache searchCache,
+                         FareCalendarService fareCalendar,
+                         AutocompleteService autocomplete,
+                         PricingEngine pricingEngine) {
         this.flightRepository = flightRepository;
+        this.reservationExecutor = reservationExecutor;
+        this.searchIndex = searchIndex;
+        this.searchCache = searchCache;
+        this.fareCalendar = fareCalendar;
+        this.autocomplete = autocomplete;
+        this.pricingEngine = pricingEngine;
     }
 
     public Flight createFlight(FlightRequest req) {
+        Flight saved = flightRepository.save(toFlight(req));
+        flightsCreated(List.of(saved));
+        return saved;
+    }
+
+    /**
+     * Validate a request and build the (unsaved) flight. Shared by createFlight and the bulk import,
+     * so both accept exactly the same rows.
+     */
+    public Flight toFlight(FlightRequest req) {
         Flight f = new Flight();
-        f.setFlightNumber(req.getFlightNumber());
-        f.setAirline(req.getAirline());
-        f.setOrigin(req.getOrigin());
-        f.setDestination(req.getDestination());
+        f.setFlightNumber(required(req.getFlightNumber(), "flightNumber", 30));
+        f.setAirline(required(req.getAirline(), "airline", 100));
+        f.setOrigin(required(req.getOrigin(), "origin", 10));
+        f.setDestination(required(req.getDestination(), "destination", 10));
+        if (f.getOrigin().equalsIgnoreCase(f.getDestination())) {
+            throw new IllegalArgumentException("origin and destination must differ");
+        }
 
         try {
-            f.setDepartureTime(ZonedDateTime.parse(req.getDepartureTime()));
-            f.setArrivalTime(ZonedDateTime.parse(req.getArrivalTime()));
+            f.setDepartureTime(ZonedDateTime.parse(required(req.getDepartureTime(), "departureTime", 100)));
+            f.setArrivalTime(ZonedDateTime.parse(required(req.getArrivalTime(), "arrivalTime", 100)));
         } catch (DateTimeParseException e) {
             throw new IllegalArgumentException("Invalid ISO date time format for departure/arrival");
         }
+        if (!f.getArrivalTime().isAfter(f.getDepartureTime())) {
+            throw new IllegalArgumentException("arrivalTime must be after departureTime");
+        }
+        f.setServiceDate(f.getDepartureTime().toLocalDate());
 
+        if (req.getTotalSeats() == null || req.getTotalSeats() <= 0) {
+            throw new IllegalArgumentException("totalSeats must be > 0");
+        }
+        if (req.getSeatsPerRow() != null && (req.getSeatsPerRow() < 1 || req.getSeatsPerRow() > 26)) {
+            throw new IllegalArgumentException("seatsPerRow must be 1..26");
+        }
+        if (req.getBaseFare() != null && req.getBaseFare().signum() < 0) {
+            throw new IllegalArgumentException("baseFare must not be negative");
+        }
         f.setTotalSeats(req.getTotalSeats());
         f.setRemainingSeats(req.getTotalSeats()); // initialize remaining seats equal to total
-        f.setBaseFare(req.getBaseFare() == null ? BigDecimal.ZERO : req.getBaseFare());
+        f.setBaseFare(req.getBaseFare() == null ? Money.zero() : Money.of(req.getBaseFare()));
+        f.setSeatsPerRow(req.getSeatsPerRow());
         f.setStatus("SCHEDULED");
-        return flightRepository.save(f);
+        return f;
+    }
+
+    /**
+     * Make committed new flights visible: seat inventory, search index, fare calendar,
+     * autocomplete and cached searches of their route/day.
+     */
+    public void flightsCreated(List<Flight> flights) {
+        flights.forEach(reservationExecutor::onFlightCreated);
+        searchIndex.addAll(flights);
+        for (Flight f : flights) {
+            fareCalendar.flightAdded(f.getId());
+            autocomplete.flightAdded(f);
+            searchCache.invalidate(f.getOrigin(), f.getDestination(), f.getDepartureTime());
+        }
+    }
+
+    /**
+     * Take a flight off sale (airline cancellation): status CANCELLED, and once that commits it
+     * disappears from search, fare calendars and cached results. Bookings on it are handled by
+     * FlightDisruptionService. Locks the flight row, so in-progress reservations finish first.
+     */
+    @Transactional
+    public Flight cancelFlight(Long id) {
+        Flight f = flightRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new IllegalArgumentException("Flight not found: " + id));
+        if (!"CANCELLED".equals(f.getStatus())) {
+            f.setStatus("CANCELLED");
+            flightRepository.save(f);
+            searchIndex.statusChanged(id, "CANCELLED"); // registered before the calendar, which reads it
+            fareCalendar.flightChanged(id);
+            searchCache.invalidateFlight(id);
+        }
+        return f;
+    }
+
+    private static String required(String value, String field, int maxLength) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        String v = value.trim();
+        if (v.length() > maxLength) {
+            throw new IllegalArgumentException(field + " must be at most " + maxLength + " characters");
+        }
+        return v;
     }
 
     public Optional<Flight> findById(Long id) {
         return flightRepository.findById(id);
     }
 
+    public Page<Flight> findAll(Pageable pageable) {
+        return flightRepository.findAll(pageable);
+    }
+
     public Page<Flight> search(String origin, String destination, ZonedDateTime from, ZonedDateTime to, Pageable pageable) {
         return flightRepository.findByOriginAndDestinationAndDepartureTimeBetween(origin, destination, from, to, pageable);
     }
-}
\ No newline at end of file
+
+    /**
+     * Keyset (seek) page of flights on a route departing in [from, to], ordered by (departureTime, id).
+     * cursor is the nextCursor of the previous page (null for the first page). Rows are projected
+     * straight into FlightSearchRow; seat counts are overlaid from the search index where it is fresher
+     * and every row is priced by the PricingEngine.
+     * The database rows are cached per route + position + window + size (see SearchResultCache for
+     * invalidation); seats and fares are overlaid on every call, so they are never served stale.
+     */
+    public FlightSearchPage searchPage(String origin, String destination, ZonedDateTime from, ZonedDateTime to,
+                                       String cursor, int size) {
+        ZonedDateTime afterTime = from;
+        long afterId = 0; // ids start at 1, so the first page includes departures at exactly "from"
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            afterTime = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1])).atZone(ZoneOffset.UTC);
+            afterId = Long.parseLong(parts[2]);
+        }
+
+        ZonedDateTime seekTime = afterTime;
+        long seekId = afterId;
+        String queryKey = seekTime.toInstant() + "|" + seekId + "|" + to.toInstant() + "|" + size;
+        List<FlightSearchRow> rows = searchCache.get(origin, destination, seekTime, to, queryKey, () ->
+                flightRepository.findRouteAfter(origin, destination, seekTime, seekId, to, Limit.of(size + 1)));
+        boolean more = rows.size() > size;
+        List<FlightSearchRow> page = new ArrayList<>(Math.min(rows.size(), size));
+        for (int i = 0; i < rows.size() && i < size; i++) {
+            FlightSearchRow row = rows.get(i);
+            FlightSearchIndex.IndexedFlight live = searchIndex.get(row.getId());
+            if (live != null) row = row.withRemainingSeats(live.remainingSeats());
+            page.add(row.withFare((live != null ? pricingEngine.quote(live) : pricingEngine.quote(row)).toBigDecimal()));
+        }
+        String next = more ? encodeCursor(page.get(page.size() - 1)) : null;
+        return new FlightSearchPage(page, next);
+    }
+
+    // opaque continuation token: base64url("epochSecond:nano:id") of the last row
+    private static String encodeCursor(FlightSearchRow last) {
+        Instant t = last.getDepartureTime().toInstant();
+        String raw = t.getEpochSecond() + ":" + t.getNano() + ":" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3) throw new IllegalArgumentException();
+            Long.parseLong(parts[0]);
+            Long.parseLong(parts[1]);
+            Long.parseLong(parts[2]);
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.enums.BookingStatus;
+import com.project.flightbooking.enums.PaymentStatus;
+import com.project.flightbooking.model.Booking;
+import com.project.flightbooking.repository.BookingRepository;
+import com.project.flightbooking.repository.PaymentRepository;
+import com.project.flightbooking.util.HashedTimingWheel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HoldExpiryService
+ * -----------------
+ * Unpaid bookings (PENDING + payment INITIATED) hold seats only for booking.hold.ttl-seconds.
+ *
+ *  - Every new hold gets a timer in a hashed timing wheel (no per-booking DB polling).
+ *  - A scheduler tick advances the wheel and cancels the expired holds in batches:
+ *    one transaction per batch locks the bookings, marks them CANCELLED and returns
+ *    their seats (aggregated per flight).
+ *  - Holds that get paid or cancelled are untracked; if an untrack is missed the batch
+ *    query simply skips bookings that are no longer PENDING/INITIATED.
+ *  - A hold whose gateway order exists (checkout may be open) gets booking.hold.checkout-grace-seconds
+ *    from the order's creation before it expires. A payment captured after that is refunded
+ *    (PaymentService.markPaymentSuccess), never confirmed.
+ *  - On startup the wheel is refilled from the open holds in the bookings table.
+ *  - The wheel only knows the holds made (or reloaded) on this node. A sweep every
+ *    booking.hold.sweep-interval-ms expires holds older than the TTL from the table, so holds of a
+ *    node that died or was redeployed are released without waiting for a restart.
+ */
+@Service
+public class HoldExpiryService {
+
+    private final BookingRepository bookingRepository;
+    private final PaymentRepository paymentRepository;
+    private final SeatReleaseService seatReleaseService;
+    private final TransactionTemplate transactionTemplate;
+    private final HashedTimingWheel<Long> wheel;
+    private final Map<Long, HashedTimingWheel.Timeout<Long>> holds = new ConcurrentHashMap<>();
+
+    @Value("${booking.hold.ttl-seconds:900}")
+    private long holdTtlSeconds;
+
+    @Value("${booking.hold.checkout-grace-seconds:600}")
+    private long checkoutGraceSeconds;
+
+    @Value("${booking.hold.expiry-batch-size:500}")
+    private int batchSize;
+
+    public HoldExpiryService(BookingRepository bookingRepository,
+                             PaymentRepository paymentRepository,
+                             SeatReleaseService seatReleaseService,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${booking.hold.tick-ms:1000}") long tickMillis,
+                             @Value("${booking.hold.wheel-size:512}") int wheelSize) {
+        this.bookingRepository = bookingRepository;
+        this.paymentRepository = paymentRepository;
+        this.seatReleaseService = seatReleaseService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.wheel = new HashedTimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOpenHolds() {
+        List<Object[]> open = bookingRepository.findOpenHolds(BookingStatus.PENDING, PaymentStatus.INITIATED);
+        for (Object[] row : open) {
+            LocalDateTime createdAt = (LocalDateTime) row[1];
+            long createdMillis = createdAt != null
+                    ? createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    : System.currentTimeMillis();
+            schedule((Long) row[0], createdMillis + holdTtlSeconds * 1000);
+        }
+        System.out.println("Hold expiry: tracking " + open.size() + " open holds");
+    }
+
+    /** Start the TTL clock for a newly created hold. */
+    public void track(Long bookingId) {
+        schedule(bookingId, System.currentTimeMillis() + holdTtlSeconds * 1000);
+    }
+
+    /** The hold was paid or cancelled; drop its timer. */
+    public void untrack(Long bookingId) {
+        HashedTimingWheel.Timeout<Long> t = holds.remove(bookingId);
+        if (t != null) t.cancel();
+    }
+
+    public int outstanding() {
+        return holds.size();
+    }
+
+    @Scheduled(fixedDelayString = "${booking.hold.tick-ms:1000}")
+    public void expireHolds() {
+        List<Long> expired = wheel.advance(System.currentTimeMillis());
+        if (expired.isEmpty()) return;
+
+        int cancelled = 0;
+        for (int from = 0; from < expired.size(); from += batchSize) {
+            List<Long> batch = expired.subList(from, Math.min(expired.size(), from + batchSize));
+            batch.forEach(holds::remove);
+            try {
+                Integer n = transactionTemplate.execute(status -> cancelBatch(batch));
+                cancelled += n != null ? n : 0;
+            } catch (RuntimeException e) {
+                // put the batch back on the wheel; it'll be retried on a later tick
+                long retryAt = System.currentTimeMillis() + 5_000;
+                batch.forEach(id -> schedule(id, retryAt));
+                System.out.println("Hold expiry batch failed, will retry: " + e.getMessage());
+            }
+        }
+        if (cancelled > 0) {
+            System.out.println("Hold expiry: cancelled " + cancelled + " unpaid bookings");
+        }
+    }
+
+    /**
+     * Safety net behind the wheel: expire every hold older than the TTL, whichever node made it.
+     * Pages through them by id, one transaction per batch; rows another node is expiring are skipped.
+     */
+    @Scheduled(fixedDelayString = "${booking.hold.sweep-interval-ms:60000}",
+            initialDelayString = "${booking.hold.sweep-interval-ms:60000}")
+    public void sweepExpiredHolds() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(holdTtlSeconds);
+        long afterId = 0;
+        int cancelled = 0;
+        try {
+            while (true) {
+                long from = afterId;
+                long[] result = transactionTemplate.execute(status -> {
+                    List<Booking> holds = bookingRepository.findExpiredHoldsForUpdate(BookingStatus.PENDING,
+                            PaymentStatus.INITIATED, cutoff, from, Limit.of(batchSize));
+                    if (holds.isEmpty()) return null;
+                    holds.forEach(b -> untrack(b.getId()));
+                    return new long[]{holds.get(holds.size() - 1).getId(), cancel(holds)};
+                });
+                if (result == null) break;
+                afterId = result[0];
+                cancelled += (int) result[1];
+            }
+        } catch (RuntimeException e) {
+            // the rest is picked up by the next sweep
+            System.out.println("Hold expiry sweep failed, will retry: " + e.getMessage());
+        }
+        if (cancelled > 0) {
+            System.out.println("Hold expiry sweep: cancelled " + cancelled + " unpaid bookings");
+        }
+    }
+
+    // runs inside a transaction: lock the still-open holds, cancel them, return their seats per flight.
+    private int cancelBatch(List<Long> bookingIds) {
+        List<Booking> holds = bookingRepository.findHoldsForUpdate(bookingIds, BookingStatus.PENDING, PaymentStatus.INITIATED);
+        return cancel(holds);
+    }
+
+    // holds are locked by the caller. Holds with a recent gateway order are put back on the wheel
+    // until their checkout grace ends.
+    private int cancel(List<Booking> holds) {
+        if (holds.isEmpty()) return 0;
+        List<Long> bookingIds = holds.stream().map(Booking::getId).toList();
+        Map<Long, LocalDateTime> orderedAt = new HashMap<>();
+        for (Object[] row : paymentRepository.findOpenOrders(bookingIds, PaymentStatus.INITIATED)) {
+            orderedAt.put((Long) row[0], (LocalDateTime) row[1]);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> expired = new ArrayList<>(holds.size());
+        for (Booking b : holds) {
+            LocalDateTime ordered = orderedAt.get(b.getId());
+            LocalDateTime graceEnd = ordered != null ? ordered.plusSeconds(checkoutGraceSeconds) : null;
+            if (graceEnd != null && graceEnd.isAfter(now)) {
+                schedule(b.getId(), graceEnd.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+                continue;
+            }
+            b.setStatus(BookingStatus.CANCELLED);
+            expired.add(b);
+        }
+        seatReleaseService.releaseAll(expired);
+        return expired.size();
+    }
+
+    private void schedule(Long bookingId, long deadlineMillis) {
+        HashedTimingWheel.Timeout<Long> previous = holds.put(bookingId, wheel.schedule(bookingId, deadlineMillis));
+        if (previous != null) previous.cancel();
+    }
+}
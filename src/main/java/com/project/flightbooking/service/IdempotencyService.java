@@ -0,0 +1,293 @@
+package com.project.flightbooking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.flightbooking.model.IdempotencyRecord;
+import com.project.flightbooking.repository.IdempotencyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * IdempotencyService
+ * ------------------
+ * Makes POST endpoints safe to retry with an Idempotency-Key header.
+ *
+ *  - A bounded LRU (idempotency.cache-size) maps (user, endpoint, key) to the future of the
+ *    first request. Duplicates that arrive while it runs wait on that future instead of
+ *    executing (no second seat reservation, no second gateway call). Entries are evicted by size
+ *    even while their request runs; a duplicate of an evicted one falls back to the table below.
+ *  - The idempotency_keys table makes this hold across restarts and nodes: the first request
+ *    inserts an IN_PROGRESS row (unique per user/endpoint/key) and stores the response when done.
+ *    Completed keys replay the stored response; keys IN_PROGRESS on another node get 409.
+ *    A key left IN_PROGRESS past idempotency.in-progress-timeout-seconds (node crashed, or the
+ *    response could not be stored) keeps getting 409 and is never re-run automatically: the
+ *    action commits on its own, so it may well have happened. The client checks and uses a new key.
+ *  - Only successful (2xx) responses are stored. Errors known to have rolled back (validation,
+ *    business-rule and status errors) free the key, so a retry runs again. Any other error
+ *    (timed out waiting, a database or commit failure) leaves the outcome unknown: the key stays
+ *    IN_PROGRESS and the request and its retries get 409, as for abandoned keys.
+ *  - Reusing a key for a different request body is rejected.
+ *
+ * Requests without the header are executed as before.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    // status + JSON body of a successful response
+    private record StoredResponse(int status, String body) {
+    }
+
+    private static final class Entry {
+        final String requestHash;
+        final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+
+        Entry(String requestHash) {
+            this.requestHash = requestHash;
+        }
+    }
+
+    private final IdempotencyRepository idempotencyRepository;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> recent;
+
+    // duplicates wait as long as the first request may wait for its reservation batch
+    @Value("${idempotency.wait-timeout-ms:${booking.coalescing.wait-timeout-ms:10000}}")
+    private long waitTimeoutMs;
+
+    @Value("${idempotency.in-progress-timeout-seconds:120}")
+    private long inProgressTimeoutSeconds;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    public IdempotencyService(IdempotencyRepository idempotencyRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${idempotency.cache-size:10000}") int cacheSize) {
+        this.idempotencyRepository = idempotencyRepository;
+        this.objectMapper = objectMapper;
+        // access-ordered LinkedHashMap = LRU; guarded by synchronized(recent). Evicts by size even
+        // while the eldest request is still running: its duplicates then find the IN_PROGRESS row
+        this.recent = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Run action at most once per (username, scope, key).
+     *
+     * @param request     the request payload; a retry must send the same one
+     * @param type        response body type, used to rebuild a replayed response
+     */
+    public <T> ResponseEntity<T> execute(String username, String scope, String key, Object request,
+                                         Class<T> type, Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > 100) {
+            throw new IllegalArgumentException(HEADER + " must be at most 100 characters");
+        }
+        String cacheKey = username + '|' + scope + '|' + key;
+        String requestHash = hash(request);
+
+        Entry entry;
+        boolean owner = false;
+        synchronized (recent) {
+            entry = recent.get(cacheKey);
+            if (entry == null) {
+                entry = new Entry(requestHash);
+                recent.put(cacheKey, entry);
+                owner = true;
+            }
+        }
+        if (!entry.requestHash.equals(requestHash)) {
+            throw new IllegalArgumentException(HEADER + " was already used for a different request");
+        }
+        if (!owner) {
+            return replay(await(entry), type);
+        }
+
+        try {
+            Optional<StoredResponse> stored = claim(username, scope, key, requestHash);
+            if (stored.isPresent()) {
+                entry.result.complete(stored.get());
+                return replay(stored.get(), type);
+            }
+        } catch (RuntimeException e) {
+            forget(cacheKey, entry, e);
+            throw e;
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            if (!rolledBack(e)) {
+                // the action may still commit (e.g. its reservation batch is running): keep the key
+                ResponseStatusException conflict = new ResponseStatusException(HttpStatus.CONFLICT, "A request with this " + HEADER +
+                        " did not complete and its outcome is unknown; check its result before retrying with a new key", e);
+                forget(cacheKey, entry, conflict);
+                throw conflict;
+            }
+            idempotencyRepository.findByUsernameAndScopeAndIdempotencyKey(username, scope, key)
+                    .ifPresent(idempotencyRepository::delete);
+            forget(cacheKey, entry, e);
+            throw e;
+        }
+
+        try {
+            StoredResponse result = new StoredResponse(response.getStatusCode().value(), toJson(response.getBody()));
+            if (response.getStatusCode().is2xxSuccessful()) {
+                complete(username, scope, key, result);
+            } else {
+                // not stored: waiting duplicates get this response, later retries run again
+                idempotencyRepository.findByUsernameAndScopeAndIdempotencyKey(username, scope, key)
+                        .ifPresent(idempotencyRepository::delete);
+                synchronized (recent) {
+                    recent.remove(cacheKey, entry);
+                }
+            }
+            entry.result.complete(result);
+        } finally {
+            if (!entry.result.isDone()) {
+                // the action ran but its response could not be stored: release the waiters now;
+                // the key stays IN_PROGRESS, so it is not run again
+                forget(cacheKey, entry, new ResponseStatusException(HttpStatus.CONFLICT,
+                        "A request with this " + HEADER + " was processed but its response could not be stored"));
+            }
+        }
+        return response;
+    }
+
+    // Errors raised by request checks or inside the action's transaction, which then rolled back.
+    // OutcomeUnknownException and data access / commit failures are not among them.
+    private static boolean rolledBack(RuntimeException e) {
+        return e instanceof IllegalArgumentException
+                || e instanceof IllegalStateException
+                || e instanceof ResponseStatusException;
+    }
+
+    // Insert the IN_PROGRESS row, or return the stored response if this key already completed
+    private Optional<StoredResponse> claim(String username, String scope, String key, String requestHash) {
+        Optional<IdempotencyRecord> existing = idempotencyRepository.findByUsernameAndScopeAndIdempotencyKey(username, scope, key);
+        if (existing.isPresent()) {
+            IdempotencyRecord r = existing.get();
+            if (!r.getRequestHash().equals(requestHash)) {
+                throw new IllegalArgumentException(HEADER + " was already used for a different request");
+            }
+            if (IdempotencyRecord.COMPLETED.equals(r.getStatus())) {
+                return Optional.of(new StoredResponse(r.getResponseStatus(), r.getResponseBody()));
+            }
+            if (r.getCreatedAt().isAfter(LocalDateTime.now().minusSeconds(inProgressTimeoutSeconds))) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "A request with this " + HEADER + " is still being processed");
+            }
+            // abandoned mid-request: the action may have committed before the response was stored,
+            // so running it again could reserve twice
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A request with this " + HEADER +
+                    " did not complete and its outcome is unknown; check its result before retrying with a new key");
+        }
+        IdempotencyRecord r = new IdempotencyRecord();
+        r.setUsername(username);
+        r.setScope(scope);
+        r.setIdempotencyKey(key);
+        r.setRequestHash(requestHash);
+        r.setStatus(IdempotencyRecord.IN_PROGRESS);
+        r.setCreatedAt(LocalDateTime.now());
+        try {
+            idempotencyRepository.saveAndFlush(r);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A request with this " + HEADER + " is still being processed");
+        }
+        return Optional.empty();
+    }
+
+    private void complete(String username, String scope, String key, StoredResponse result) {
+        idempotencyRepository.findByUsernameAndScopeAndIdempotencyKey(username, scope, key).ifPresent(r -> {
+            r.setStatus(IdempotencyRecord.COMPLETED);
+            r.setResponseStatus(result.status());
+            r.setResponseBody(result.body());
+            r.setCompletedAt(LocalDateTime.now());
+            idempotencyRepository.save(r);
+        });
+    }
+
+    private void forget(String cacheKey, Entry entry, RuntimeException cause) {
+        synchronized (recent) {
+            recent.remove(cacheKey, entry);
+        }
+        entry.result.completeExceptionally(cause);
+    }
+
+    private StoredResponse await(Entry entry) {
+        try {
+            return entry.result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // the first request failed; its caller got the same error
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A request with this " + HEADER + " is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the original request");
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, Class<T> type) {
+        try {
+            T body = stored.body() != null ? objectMapper.readValue(stored.body(), type) : null;
+            return ResponseEntity.status(stored.status()).header(REPLAYED_HEADER, "true").body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response could not be read", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response could not be stored", e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha.digest(toJson(request).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        int removed = idempotencyRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(ttlHours));
+        if (removed > 0) {
+            System.out.println("Idempotency: purged " + removed + " expired keys");
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.model.Flight;
+import com.project.flightbooking.repository.FlightRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Fastest strategy: seats come from SeatInventoryService's lock-free counters and the
+ * flights row is written behind. See SeatInventoryService for recovery details.
+ * Single instance only: must be selected explicitly together with deployment.single-node=true.
+ */
+@Service
+@ConditionalOnProperty(name = "booking.reservation-strategy", havingValue = "in-memory")
+public class InMemorySeatReservationStrategy implements SeatReservationStrategy {
+
+    private final FlightRepository flightRepository;
+    private final SeatInventoryService seatInventoryService;
+
+    public InMemorySeatReservationStrategy(FlightRepository flightRepository,
+                                           SeatInventoryService seatInventoryService) {
+        this.flightRepository = flightRepository;
+        this.seatInventoryService = seatInventoryService;
+    }
+
+    @Override
+    public String name() {
+        return "in-memory";
+    }
+
+    @Override
+    public Flight load(Long flightId) {
+        // plain read, no row lock
+        return flightRepository.findById(flightId)
+                .orElseThrow(() -> new IllegalArgumentException("Flight not found: " + flightId));
+    }
+
+    @Override
+    public boolean tryTake(Flight flight, int seats) {
+        // seats go back automatically if the transaction rolls back
+        return seatInventoryService.tryReserveInTransaction(flight.getId(), seats);
+    }
+
+    @Override
+    public void release(Long flightId, int seats) {
+        seatInventoryService.releaseAfterCommit(flightId, seats);
+    }
+
+    @Override
+    public int remaining(Flight flight) {
+        return seatInventoryService.remaining(flight.getId());
+    }
+
+    @Override
+    public boolean supportsSharding() {
+        return false; // the counters, not a database row, hold the seats
+    }
+
+    @Override
+    public void onFlightCreated(Flight flight) {
+        seatInventoryService.register(flight);
+    }
+}
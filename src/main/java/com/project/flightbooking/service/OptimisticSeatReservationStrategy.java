@@ -0,0 +1,63 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.model.Flight;
+import com.project.flightbooking.repository.FlightRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reads the flight without a lock and relies on Flight.version: the flush fails if another
+ * transaction changed the row in between. SeatReservationExecutor then retries the whole
+ * reservation in a fresh transaction (bounded, with jittered backoff).
+ * Cheap when contention is low; aborts climb on hot flights.
+ */
+@Service
+@ConditionalOnProperty(name = "booking.reservation-strategy", havingValue = "optimistic")
+public class OptimisticSeatReservationStrategy implements SeatReservationStrategy {
+
+    private final FlightRepository flightRepository;
+
+    public OptimisticSeatReservationStrategy(FlightRepository flightRepository) {
+        this.flightRepository = flightRepository;
+    }
+
+    @Override
+    public String name() {
+        return "optimistic";
+    }
+
+    @Override
+    public Flight load(Long flightId) {
+        return flightRepository.findById(flightId)
+                .orElseThrow(() -> new IllegalArgumentException("Flight not found: " + flightId));
+    }
+
+    @Override
+    public boolean tryTake(Flight flight, int seats) {
+        if (flight.getRemainingSeats() == null) flight.setRemainingSeats(flight.getTotalSeats());
+        if (flight.getRemainingSeats() < seats) {
+            return false;
+        }
+        flight.setRemainingSeats(flight.getRemainingSeats() - seats);
+        // flush now so a version conflict surfaces here instead of at commit
+        flightRepository.saveAndFlush(flight);
+        return true;
+    }
+
+    @Override
+    public void release(Long flightId, int seats) {
+        // bumps version too, so concurrent optimistic readers notice the change
+        flightRepository.incrementRemainingSeats(flightId, seats);
+    }
+
+    @Override
+    public int remaining(Flight flight) {
+        return flight.getRemainingSeats();
+    }
+
+    @Override
+    public boolean isRetryable(RuntimeException e) {
+        return e instanceof OptimisticLockingFailureException;
+    }
+}
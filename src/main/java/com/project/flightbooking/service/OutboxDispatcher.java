@@ -0,0 +1,306 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.enums.OutboxStatus;
+import com.project.flightbooking.enums.OutboxType;
+import com.project.flightbooking.enums.RefundStatus;
+import com.project.flightbooking.exception.PaymentGatewayException;
+import com.project.flightbooking.model.OutboxEvent;
+import com.project.flightbooking.model.Payment;
+import com.project.flightbooking.model.RefundTransaction;
+import com.project.flightbooking.repository.OutboxRepository;
+import com.project.flightbooking.repository.PaymentRepository;
+import com.project.flightbooking.repository.RefundRepository;
+import com.project.flightbooking.util.RateLimiter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * OutboxDispatcher
+ * ----------------
+ * Makes the payment gateway calls queued in payment_outbox, so no HTTP call ever runs inside a
+ * database transaction:
+ *
+ *  1. Claim: one short transaction locks up to payment.outbox.batch-size due rows (SKIP LOCKED, so
+ *     several nodes can dispatch side by side) and marks them IN_PROGRESS.
+ *  2. Call: the batch runs on payment.outbox.threads workers, no transaction open, at most
+ *     payment.outbox.calls-per-second calls across the node. The calls go through PaymentGateway
+ *     and so through PaymentGatewayGuard (deadline, bulkhead, circuit breaker).
+ *  3. Write back: one short transaction per row stores the result (PaymentService.orderCreated,
+ *     RefundService.refundAccepted) and marks the row DONE.
+ *
+ * A retryable failure puts the row back to PENDING with exponential backoff and jitter, up to
+ * payment.outbox.max-attempts; a rejected request (or the last attempt) fails the row and its
+ * Payment/RefundTransaction. A row left IN_PROGRESS for payment.outbox.lease-ms (node died
+ * mid-call) is put back to PENDING. An order creation or refund retried after an attempt whose
+ * outcome is unknown first asks the gateway whether the order (by receipt) or refund (by
+ * bookingRef note) already exists, so a booking never gets two orders or two refunds.
+ *
+ * Rows are picked up right after the transaction that wrote them commits (OutboxEnqueuedEvent),
+ * and by a poll every payment.outbox.poll-interval-ms for retries and other nodes' rows.
+ */
+@Service
+public class OutboxDispatcher {
+
+    private final OutboxRepository outboxRepository;
+    private final PaymentRepository paymentRepository;
+    private final RefundRepository refundRepository;
+    private final PaymentService paymentService;
+    private final RefundService refundService;
+    private final PaymentGateway paymentGateway;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService dispatcher;
+    private final ExecutorService workers;
+    private final RateLimiter limiter;
+    // a drain is queued and has not started yet; further wake-ups are covered by it
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+    @Value("${payment.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${payment.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${payment.outbox.base-backoff-ms:1000}")
+    private long baseBackoffMillis;
+
+    @Value("${payment.outbox.max-backoff-ms:60000}")
+    private long maxBackoffMillis;
+
+    @Value("${payment.outbox.lease-ms:60000}")
+    private long leaseMillis;
+
+    public OutboxDispatcher(OutboxRepository outboxRepository,
+                            PaymentRepository paymentRepository,
+                            RefundRepository refundRepository,
+                            PaymentService paymentService,
+                            RefundService refundService,
+                            PaymentGateway paymentGateway,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${payment.outbox.threads:8}") int threads,
+                            @Value("${payment.outbox.calls-per-second:50}") double callsPerSecond) {
+        this.outboxRepository = outboxRepository;
+        this.paymentRepository = paymentRepository;
+        this.refundRepository = refundRepository;
+        this.paymentService = paymentService;
+        this.refundService = refundService;
+        this.paymentGateway = paymentGateway;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dispatcher = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "payment-outbox");
+            t.setDaemon(true);
+            return t;
+        });
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "payment-outbox-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        this.limiter = new RateLimiter(callsPerSecond, Math.max(1, threads));
+    }
+
+    /**
+     * New rows were committed; dispatch them now.
+     * fallbackExecution: rows written outside a transaction are dispatched immediately.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEnqueued(OutboxEnqueuedEvent event) {
+        wakeUp();
+    }
+
+    @Scheduled(fixedDelayString = "${payment.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    private void wakeUp() {
+        if (!wakeUpPending.compareAndSet(false, true)) return;
+        dispatcher.execute(() -> {
+            // cleared before running, so rows committed during this drain trigger another one
+            wakeUpPending.set(false);
+            try {
+                drain();
+            } catch (RuntimeException e) {
+                System.out.println("Payment outbox dispatch stopped: " + e.getMessage());
+            }
+        });
+    }
+
+    private void drain() {
+        List<OutboxEvent> batch;
+        do {
+            batch = claim();
+            if (batch.isEmpty()) return;
+            CompletableFuture.allOf(batch.stream()
+                    .map(e -> CompletableFuture.runAsync(() -> process(e), workers))
+                    .toArray(CompletableFuture<?>[]::new)).join();
+        } while (batch.size() == batchSize);
+    }
+
+    private List<OutboxEvent> claim() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> due = outboxRepository.findDueForUpdate(OutboxStatus.PENDING, now, Limit.of(batchSize));
+            for (OutboxEvent e : due) {
+                e.setStatus(OutboxStatus.IN_PROGRESS);
+                e.setClaimedAt(now);
+                e.setAttempts(e.getAttempts() + 1);
+            }
+            return outboxRepository.saveAll(due);
+        });
+    }
+
+    private void process(OutboxEvent e) {
+        try {
+            limiter.acquire();
+            switch (e.getType()) {
+                case CREATE_ORDER -> createOrder(e);
+                case REFUND -> refund(e);
+            }
+        } catch (PaymentGatewayException ex) {
+            failed(e, ex.getMessage(), ex.isRetryable());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            failed(e, "Dispatcher interrupted", true);
+        } catch (RuntimeException ex) {
+            // e.g. the write-back failed: the outcome is unknown, so try again
+            failed(e, ex.getMessage(), true);
+        }
+    }
+
+    private void createOrder(OutboxEvent e) {
+        Payment p = paymentRepository.findWithBookingById(e.getAggregateId()).orElse(null);
+        if (p == null || p.getProviderOrderId() != null) {
+            complete(e, null); // payment gone, or the order was created on an earlier attempt
+            return;
+        }
+        String receipt = p.getBooking().getBookingRef();
+        // an earlier attempt (this row's, or a failed earlier row's) may have created the order
+        // before timing out or dying; createOrder is not idempotent, so look for it first
+        PaymentGateway.Result order = e.getAttempts() > 1
+                || outboxRepository.existsByTypeAndAggregateIdAndIdLessThan(OutboxType.CREATE_ORDER, p.getId(), e.getId())
+                ? paymentGateway.findOrder(receipt)
+                : null;
+        if (order == null) {
+            order = paymentGateway.createOrder(p.getAmount().minor(), p.getCurrency(), receipt);
+        }
+        PaymentGateway.Result created = order;
+        complete(e, () -> paymentService.orderCreated(p.getId(), created));
+    }
+
+    private void refund(OutboxEvent e) {
+        RefundTransaction rt = refundRepository.findWithBookingById(e.getAggregateId()).orElse(null);
+        if (rt == null || rt.getStatus() != RefundStatus.INITIATED) {
+            complete(e, null);
+            return;
+        }
+        String bookingRef = rt.getBooking().getBookingRef();
+        // an earlier attempt of this row may have reached the gateway before timing out or dying;
+        // refund is not idempotent, so look for it first, by this refund's id (never another
+        // refund of the booking: a failed one would swallow this one)
+        PaymentGateway.Result refund = e.getAttempts() > 1
+                ? paymentGateway.findRefund(rt.getProviderPaymentId(), rt.getId(), rt.getAmount().minor())
+                : null;
+        if (refund == null) {
+            refund = paymentGateway.refund(rt.getProviderPaymentId(), rt.getAmount().minor(), bookingRef, rt.getId());
+        }
+        PaymentGateway.Result accepted = refund;
+        complete(e, () -> refundService.refundAccepted(rt.getId(), accepted));
+    }
+
+    // stores the result and closes the row in one transaction
+    private void complete(OutboxEvent e, Runnable writeBack) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (writeBack != null) writeBack.run();
+            OutboxEvent row = outboxRepository.findById(e.getId()).orElse(null);
+            if (row == null) return;
+            row.setStatus(OutboxStatus.DONE);
+            row.setProcessedAt(LocalDateTime.now());
+            outboxRepository.save(row);
+        });
+    }
+
+    private void failed(OutboxEvent e, String error, boolean retryable) {
+        boolean retry = retryable && e.getAttempts() < maxAttempts;
+        String reason = truncate(String.valueOf(error));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                OutboxEvent row = outboxRepository.findById(e.getId()).orElse(null);
+                if (row == null) return;
+                row.setLastError(reason);
+                row.setClaimedAt(null);
+                if (retry) {
+                    row.setStatus(OutboxStatus.PENDING);
+                    row.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(backoffMillis(e.getAttempts()))));
+                } else {
+                    row.setStatus(OutboxStatus.FAILED);
+                    row.setProcessedAt(LocalDateTime.now());
+                    switch (row.getType()) {
+                        case CREATE_ORDER -> paymentService.orderFailed(row.getAggregateId(), reason);
+                        case REFUND -> refundService.refundFailed(row.getAggregateId(), reason);
+                    }
+                }
+                outboxRepository.save(row);
+            });
+        } catch (RuntimeException ex) {
+            // stays IN_PROGRESS; releaseExpiredClaims retries it after the lease
+            System.out.println("Payment outbox: could not record failure of row " + e.getId() + ": " + ex.getMessage());
+            return;
+        }
+        System.out.println("Payment outbox: " + e.getType() + " " + e.getAggregateId() + " attempt " + e.getAttempts() +
+                (retry ? " failed, will retry: " : " failed permanently: ") + reason);
+    }
+
+    // exponential, with equal jitter: at least half the step, so retries keep spreading out
+    private long backoffMillis(int attempt) {
+        long step = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        return step / 2 + ThreadLocalRandom.current().nextLong(step / 2 + 1);
+    }
+
+    private static String truncate(String s) {
+        return s.length() <= 1000 ? s : s.substring(0, 1000);
+    }
+
+    /**
+     * Rows claimed by a dispatcher that never finished them (node crashed or was stopped mid-call)
+     * go back to PENDING once their lease has run out.
+     */
+    @Scheduled(fixedDelayString = "${payment.outbox.lease-check-interval-ms:30000}")
+    public void releaseExpiredClaims() {
+        Integer released = transactionTemplate.execute(status -> {
+            List<OutboxEvent> expired = outboxRepository.findByStatusAndClaimedAtBefore(OutboxStatus.IN_PROGRESS,
+                    LocalDateTime.now().minus(Duration.ofMillis(leaseMillis)));
+            for (OutboxEvent e : expired) {
+                e.setStatus(OutboxStatus.PENDING);
+                e.setClaimedAt(null);
+                e.setNextAttemptAt(LocalDateTime.now());
+            }
+            outboxRepository.saveAll(expired);
+            return expired.size();
+        });
+        if (released != null && released > 0) {
+            System.out.println("Payment outbox: " + released + " expired claims released");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,8 @@
+package com.project.flightbooking.service;
+
+/**
+ * Published when a transaction writes payment_outbox rows, so OutboxDispatcher picks them up
+ * right after commit instead of on its next poll.
+ */
+public class OutboxEnqueuedEvent {
+}
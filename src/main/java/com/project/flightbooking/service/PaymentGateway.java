@@ -0,0 +1,52 @@
+package com.project.flightbooking.service;
+
+/**
+ * PaymentGateway
+ * --------------
+ * What the booking flow needs from a payment provider. Exactly one implementation is active,
+ * selected per deployment with the property:
+ *
+ *   payment.gateway = razorpay | fake
+ *
+ * Implementations are singletons that route every call through PaymentGatewayGuard (deadline,
+ * bulkhead, circuit breaker, retries for reads), and throw PaymentGatewayException on failure.
+ * Amounts are in minor units (paise).
+ */
+public interface PaymentGateway {
+
+    /** Provider id and status of the created/fetched object, plus the raw response kept for auditing. */
+    record Result(String id, String status, String rawResponse) {
+    }
+
+    /** Key the checkout page needs to open the provider's payment modal. */
+    String publicKey();
+
+    /** Create an order; not retried (a retry could create a second order), so check findOrder before calling again. */
+    Result createOrder(long amountMinor, String currency, String receipt);
+
+    /**
+     * Refund part or all of a captured payment; not retried (a retry could refund twice), so check
+     * findRefund before calling again. refundId (our RefundTransaction id) is stored with the refund.
+     */
+    Result refund(String providerPaymentId, long amountMinor, String bookingRef, Long refundId);
+
+    /**
+     * The order created with this receipt, or null if there is none; idempotent, retried with
+     * backoff. Lets an order creation whose outcome was lost (timeout, crash) be retried without
+     * creating a second order.
+     */
+    Result findOrder(String receipt);
+
+    /** Read an order; idempotent, retried with backoff. */
+    Result fetchOrder(String orderId);
+
+    /** Read a refund; idempotent, retried with backoff. */
+    Result fetchRefund(String refundId);
+
+    /**
+     * The refund made for refundId on a payment, or null if there is none; idempotent, retried
+     * with backoff. Lets a refund whose outcome was lost (timeout, crash) be retried without
+     * refunding twice. Refunds the provider marked failed, or of another amount, do not count.
+     */
+    Result findRefund(String providerPaymentId, Long refundId, long amountMinor);
+}
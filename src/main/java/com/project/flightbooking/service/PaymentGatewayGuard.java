@@ -0,0 +1,214 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.exception.PaymentGatewayException;
+import com.project.flightbooking.util.CircuitBreaker;
+import com.project.flightbooking.util.LatencyHistogram;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PaymentGatewayGuard
+ * -------------------
+ * Runs payment gateway calls so a slow or failing gateway cannot take request threads down with it:
+ *
+ *  - Deadline: a call (all attempts together) gets payment.gateway.timeout-ms; the caller stops
+ *    waiting after that and gets a retryable PaymentGatewayException.
+ *  - Bulkhead: at most payment.gateway.max-concurrent calls are in progress. A slot is held until
+ *    the HTTP call really returns, not just until its caller gave up, so hung calls count against
+ *    the limit; callers wait up to payment.gateway.acquire-timeout-ms for a slot.
+ *  - Circuit breaker: see CircuitBreaker (payment.gateway.breaker.*). Requests the gateway rejected
+ *    (4xx) count as successes - the gateway is healthy, the request was not.
+ *  - Retries: idempotent calls only, up to payment.gateway.retry.max-attempts with exponential
+ *    backoff and full jitter, never past the deadline.
+ *
+ * Counters are exposed at GET /api/admin/metrics/payment-gateway.
+ */
+@Component
+public class PaymentGatewayGuard {
+
+    private final long timeoutNanos;
+    private final long acquireTimeoutMillis;
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final int maxConcurrent;
+    private final Semaphore bulkhead;
+    private final ExecutorService callers;
+    private final CircuitBreaker breaker;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder bulkheadRejections = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    public PaymentGatewayGuard(@Value("${payment.gateway.timeout-ms:5000}") long timeoutMillis,
+                               @Value("${payment.gateway.max-concurrent:32}") int maxConcurrent,
+                               @Value("${payment.gateway.acquire-timeout-ms:200}") long acquireTimeoutMillis,
+                               @Value("${payment.gateway.retry.max-attempts:3}") int maxAttempts,
+                               @Value("${payment.gateway.retry.base-delay-ms:100}") long baseDelayMillis,
+                               @Value("${payment.gateway.retry.max-delay-ms:1000}") long maxDelayMillis,
+                               @Value("${payment.gateway.breaker.window:50}") int breakerWindow,
+                               @Value("${payment.gateway.breaker.minimum-calls:20}") int breakerMinimumCalls,
+                               @Value("${payment.gateway.breaker.failure-rate:0.5}") double breakerFailureRate,
+                               @Value("${payment.gateway.breaker.open-ms:30000}") long breakerOpenMillis,
+                               @Value("${payment.gateway.breaker.half-open-calls:5}") int breakerHalfOpenCalls) {
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMillis = Math.max(1, baseDelayMillis);
+        this.maxDelayMillis = Math.max(this.baseDelayMillis, maxDelayMillis);
+        this.maxConcurrent = maxConcurrent;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        // thread count is bounded by the bulkhead
+        this.callers = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "payment-gateway");
+            t.setDaemon(true);
+            return t;
+        });
+        this.breaker = new CircuitBreaker(breakerWindow, breakerMinimumCalls, breakerFailureRate,
+                breakerOpenMillis, breakerHalfOpenCalls);
+    }
+
+    /**
+     * Run one gateway operation. Only idempotent operations (reads) are retried.
+     * A PaymentGatewayException thrown by the call with retryable = false marks a request the
+     * gateway rejected: passed through as is, not retried, not held against the gateway.
+     */
+    public <T> T call(String operation, boolean idempotent, Callable<T> call) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        int attempts = idempotent ? maxAttempts : 1;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return attempt(operation, call, deadline);
+            } catch (PaymentGatewayException e) {
+                // an open breaker would only reject the retry too
+                if (!e.isRetryable() || attempt >= attempts || breaker.state() == CircuitBreaker.State.OPEN) throw e;
+                long cap = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+                long backoff = ThreadLocalRandom.current().nextLong(cap + 1); // full jitter
+                if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff) >= deadline) throw e;
+                retries.increment();
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private <T> T attempt(String operation, Callable<T> call, long deadline) {
+        if (!breaker.tryAcquire()) {
+            throw new PaymentGatewayException("Payment gateway unavailable (circuit open), " + operation + " not attempted", true);
+        }
+        boolean permit;
+        try {
+            permit = bulkhead.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            permit = false;
+        }
+        if (!permit) {
+            breaker.onIgnored();
+            bulkheadRejections.increment();
+            throw new PaymentGatewayException("Payment gateway busy, " + operation + " not attempted", true);
+        }
+
+        long start = System.nanoTime();
+        // whoever flips this owns the bulkhead slot: the task when it starts, or abandon() if it never did
+        AtomicBoolean started = new AtomicBoolean();
+        Future<T> future;
+        try {
+            future = callers.submit(() -> {
+                if (!started.compareAndSet(false, true)) return null;
+                try {
+                    return call.call();
+                } finally {
+                    bulkhead.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            bulkhead.release();
+            breaker.onIgnored();
+            throw new PaymentGatewayException("Payment gateway client is shut down", false, e);
+        }
+        calls.increment();
+
+        try {
+            T result = future.get(Math.max(0, deadline - start), TimeUnit.NANOSECONDS);
+            breaker.onSuccess();
+            latency.record(System.nanoTime() - start);
+            return result;
+        } catch (TimeoutException e) {
+            abandon(future, started);
+            breaker.onFailure();
+            timeouts.increment();
+            throw new PaymentGatewayException(operation + " timed out", true, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            latency.record(System.nanoTime() - start);
+            if (cause instanceof PaymentGatewayException rejected && !rejected.isRetryable()) {
+                breaker.onSuccess();
+                throw rejected;
+            }
+            breaker.onFailure();
+            failures.increment();
+            throw new PaymentGatewayException(operation + " failed: " + cause.getMessage(), true, cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandon(future, started);
+            breaker.onIgnored();
+            throw new PaymentGatewayException(operation + " interrupted", true, e);
+        }
+    }
+
+    // stop waiting for a call: interrupt it if running, or free its slot if it never started
+    private void abandon(Future<?> future, AtomicBoolean started) {
+        if (started.compareAndSet(false, true)) {
+            bulkhead.release();
+        } else {
+            future.cancel(true);
+        }
+    }
+
+    public CircuitBreaker.State breakerState() {
+        return breaker.state();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("calls", calls.sum());
+        m.put("failures", failures.sum());
+        m.put("timeouts", timeouts.sum());
+        m.put("retries", retries.sum());
+        m.put("bulkheadRejections", bulkheadRejections.sum());
+        m.put("inFlight", maxConcurrent - bulkhead.availablePermits());
+        m.put("p50Micros", latency.percentileNanos(0.50) / 1_000);
+        m.put("p99Micros", latency.percentileNanos(0.99) / 1_000);
+        m.put("breaker", breaker.snapshot());
+        return m;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        callers.shutdownNow();
+    }
+}
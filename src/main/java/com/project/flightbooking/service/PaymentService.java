@@ -1,6 +1,8 @@
 package com.project.flightbooking.service;
 
+import com.project.flightbooking.enums.OutboxType;
 import com.project.flightbooking.model.Booking;
+import com.project.flightbooking.model.OutboxEvent;
 import com.project.flightbooking.model.Payment;
 import com.project.flightbooking.model.Flight;
 import com.project.flightbooking.enums.PaymentStatus;
@@ -8,21 +10,19 @@ import com.project.flightbooking.enums.BookingStatus;
 import com.project.flightbooking.repository.BookingRepository;
 import com.project.flightbooking.repository.PaymentRepository;
 import com.project.flightbooking.repository.FlightRepository;
-import com.razorpay.Order;
-import com.razorpay.RazorpayClient;
+import com.project.flightbooking.repository.OutboxRepository;
+import com.project.flightbooking.util.Money;
 import jakarta.transaction.Transactional;
 import org.json.JSONObject;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-
 /**
  * PaymentService handles all interactions related to payment creation,
  * success/failure updates, and syncing with Razorpay orders.
  *
  * Responsibilities:
- *  - Create Razorpay order for booking.
+ *  - Queue the Razorpay order for a booking (created by OutboxDispatcher) and report its status.
  *  - Update payment & booking records upon success/failure.
  *  - Safely release seats if payment fails.
  */
@@ -31,78 +31,152 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final BookingRepository bookingRepository;
-    private final FlightRepository flightRepository; // Added to persist seat restoration on payment failure
-
-    // These @Value annotations pull your secret keys from application.properties
-    @Value("${razorpay.key_id}")
-    private String razorpayKeyId;
-
-    @Value("${razorpay.key_secret}")
-    private String razorpayKeySecret;
+    private final FlightRepository flightRepository;
+    private final SeatReleaseService seatReleaseService; // Seats are restored through the active reservation strategy
+    private final HoldExpiryService holdExpiryService;
+    private final RefundService refundService;
+    private final PaymentGateway paymentGateway;
+    private final OutboxRepository outboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public PaymentService(PaymentRepository paymentRepository,
                           BookingRepository bookingRepository,
-                          FlightRepository flightRepository) {
+                          FlightRepository flightRepository,
+                          SeatReleaseService seatReleaseService,
+                          HoldExpiryService holdExpiryService,
+                          RefundService refundService,
+                          PaymentGateway paymentGateway,
+                          OutboxRepository outboxRepository,
+                          ApplicationEventPublisher eventPublisher) {
         this.paymentRepository = paymentRepository;
         this.bookingRepository = bookingRepository;
         this.flightRepository = flightRepository;
+        this.seatReleaseService = seatReleaseService;
+        this.holdExpiryService = holdExpiryService;
+        this.refundService = refundService;
+        this.paymentGateway = paymentGateway;
+        this.outboxRepository = outboxRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
      * Method 1: Creates the order on Razorpay's side.
      * Called when user confirms booking and proceeds to payment.
+     *
+     * No gateway call happens here: the Payment row and a CREATE_ORDER outbox row are written in one
+     * short transaction and OutboxDispatcher creates the order right after commit. The response
+     * carries status PENDING until then; clients poll getPaymentStatus (GET /api/payments/status)
+     * for the order id. Calling again for the same booking returns the same payment, and retries
+     * an order whose creation failed.
      */
     @Transactional
-    public JSONObject createRazorpayOrder(String bookingRef) throws Exception {
-        // 1. Find the booking in your local database
-        Booking booking = bookingRepository.findByBookingRef(bookingRef)
+    public JSONObject createRazorpayOrder(String bookingRef) {
+        // 1. Find the booking in your local database, locked so concurrent calls see one payment
+        Booking booking = bookingRepository.findByBookingRefForUpdate(bookingRef)
                 .orElseThrow(() -> new IllegalArgumentException("Booking not found: " + bookingRef));
+        if (booking.getStatus() != BookingStatus.PENDING) {
+            // expired, cancelled or already paid: its seats can no longer be paid for
+            throw new IllegalStateException("Booking is not awaiting payment. Current status: " + booking.getStatus());
+        }
 
-        // 2. Create the official Razorpay client object with your keys
-        RazorpayClient client = new RazorpayClient(razorpayKeyId, razorpayKeySecret);
-
-        // 3. Prepare the order details
-        BigDecimal amount = booking.getTotalFare();
-        // Razorpay (and most gateways) requires the amount in the smallest currency unit
-        // Example: 100.50 Rupees becomes 10050 paise.
-        int amountInPaise = amount.multiply(BigDecimal.valueOf(100)).intValueExact();
-
-        // 4. Build the JSON "order request" object
-        JSONObject orderRequest = new JSONObject();
-        orderRequest.put("amount", amountInPaise);
-        orderRequest.put("currency", "INR");
-        orderRequest.put("receipt", bookingRef); // Your internal booking ref as the receipt ID
-        orderRequest.put("payment_capture", 1); // Auto-capture the payment
-
-        // 5. Actually create the order by calling Razorpay's API
-        Order order = client.Orders.create(orderRequest);
-
-        // 6. CRITICAL: Save a record of this payment attempt in YOUR database
-        Payment p = new Payment();
-        p.setBooking(booking);
-        p.setProviderOrderId(order.get("id")); // Save Razorpay's Order ID
-        p.setAmount(amount);
+        // 2. One payment per booking: reuse it unless its order could not be created
+        Payment p = paymentRepository.findByBookingId(booking.getId()).orElse(null);
+        boolean orderFailed = p != null && p.getProviderOrderId() == null && p.getStatus() == PaymentStatus.FAILED;
+        if (p != null && !orderFailed) {
+            return paymentStatus(booking, p);
+        }
+
+        // 3. CRITICAL: Save a record of this payment attempt in YOUR database, together with the
+        //    outbox row that gets the order created on the gateway
+        Money amount = booking.getTotalFare();
+        if (p == null) {
+            p = new Payment();
+            p.setBooking(booking);
+            p.setAmount(amount); // Razorpay wants minor units (paise), which is exactly what Money holds
+            p.setCurrency(amount.currency().getCurrencyCode());
+        }
         p.setStatus(PaymentStatus.INITIATED); // Mark as INITIATED
-        p.setCurrency("INR");
-        p.setProviderResponse(order.toString()); // Save the full response for debugging
+        p.setProviderResponse(null);
         paymentRepository.save(p);
+        outboxRepository.save(OutboxEvent.pending(OutboxType.CREATE_ORDER, p.getId()));
+        eventPublisher.publishEvent(new OutboxEnqueuedEvent());
 
-        System.out.println("Created Razorpay Order: " + order.get("id") + " for Booking: " + bookingRef);
+        System.out.println("Queued Razorpay order for Booking: " + bookingRef + " (payment " + p.getId() + ")");
+        return paymentStatus(booking, p);
+    }
 
-        // 7. Build the JSON response to send back to YOUR frontend (or Postman)
-        JSONObject response = new JSONObject();
-        response.put("razorpayOrderId", (Object) order.get("id")); // The ID for the checkout
-        response.put("amount", amountInPaise);
-        response.put("currency", "INR");
-        response.put("key", razorpayKeyId); // The frontend needs this key to open the modal
-        response.put("bookingRef", bookingRef);
+    /**
+     * Where the booking's payment stands. status is the order's state:
+     *  - PENDING: the order is being created, poll again
+     *  - CREATED: razorpayOrderId, amount, currency and key are set; open the checkout
+     *  - FAILED: the order could not be created (error says why); createRazorpayOrder retries it
+     * paymentStatus is the payment's own status (INITIATED until the webhook says SUCCESS/FAILED).
+     */
+    @Transactional
+    public JSONObject getPaymentStatus(String bookingRef) {
+        Booking booking = bookingRepository.findByBookingRef(bookingRef)
+                .orElseThrow(() -> new IllegalArgumentException("Booking not found: " + bookingRef));
+        Payment p = paymentRepository.findByBookingId(booking.getId())
+                .orElseThrow(() -> new IllegalArgumentException("No payment started for booking: " + bookingRef));
+        return paymentStatus(booking, p);
+    }
 
+    private JSONObject paymentStatus(Booking booking, Payment p) {
+        JSONObject response = new JSONObject();
+        response.put("bookingRef", booking.getBookingRef());
+        response.put("paymentStatus", p.getStatus().name());
+        response.put("amount", p.getAmount().minor());
+        response.put("currency", p.getCurrency());
+        if (p.getProviderOrderId() != null) {
+            response.put("status", "CREATED");
+            response.put("razorpayOrderId", p.getProviderOrderId()); // The ID for the checkout
+            response.put("key", paymentGateway.publicKey()); // The frontend needs this key to open the modal
+        } else if (p.getStatus() == PaymentStatus.FAILED) {
+            response.put("status", "FAILED");
+            response.put("error", p.getProviderResponse());
+        } else {
+            response.put("status", "PENDING");
+        }
         return response;
     }
 
+    /**
+     * OutboxDispatcher: the gateway created the order for this payment.
+     */
+    @Transactional
+    public void orderCreated(Long paymentId, PaymentGateway.Result order) {
+        Payment p = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new IllegalStateException("Payment not found: " + paymentId));
+        p.setProviderOrderId(order.id()); // Save Razorpay's Order ID
+        p.setProviderResponse(order.rawResponse()); // Save the full response for debugging
+        paymentRepository.save(p);
+
+        System.out.println("Created Razorpay Order: " + order.id() + " for payment " + paymentId);
+    }
+
+    /**
+     * OutboxDispatcher: the order could not be created (rejected, or out of attempts).
+     * The booking keeps its hold; createRazorpayOrder can try again until the hold expires.
+     */
+    @Transactional
+    public void orderFailed(Long paymentId, String reason) {
+        Payment p = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new IllegalStateException("Payment not found: " + paymentId));
+        if (p.getProviderOrderId() != null) return;
+        p.setStatus(PaymentStatus.FAILED);
+        p.setProviderResponse(reason);
+        paymentRepository.save(p);
+
+        System.out.println("Razorpay order creation failed for payment " + paymentId + ": " + reason);
+    }
+
     /**
      * Method 2: Marks payment as SUCCESS after Razorpay webhook notifies success.
      * Updates booking status -> CONFIRMED.
+     *
+     * The booking is locked first. A hold that expired or was cancelled while the customer paid
+     * no longer has its seats (they may have been sold again), so it stays CANCELLED and the
+     * captured amount is refunded in full instead. The same goes for a hold on a cancelled flight.
      */
     @Transactional
     public void markPaymentSuccess(String orderId, String paymentId) {
@@ -111,14 +185,32 @@ public class PaymentService {
         // 1. Retrieve payment record
         Payment payment = paymentRepository.findByProviderOrderId(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
+        if (payment.getStatus() == PaymentStatus.SUCCESS) {
+            System.out.println("Payment for order " + orderId + " already marked SUCCESS");
+            return; // webhook retry
+        }
+        Booking booking = bookingRepository.findByIdForUpdate(payment.getBooking().getId())
+                .orElseThrow(() -> new IllegalStateException("Booking not found for order: " + orderId));
 
         // 2. Update payment details
         payment.setProviderPaymentId(paymentId);
         payment.setStatus(PaymentStatus.SUCCESS);
         paymentRepository.save(payment);
+        holdExpiryService.untrack(booking.getId()); // paid: the hold must not expire
+
+        if (booking.getStatus() == BookingStatus.PENDING && "CANCELLED".equals(booking.getFlight().getStatus())) {
+            // the airline cancelled the flight before FlightDisruptionService reached this hold:
+            // cancel it here, as the disruption run would, and refund below
+            booking.setStatus(BookingStatus.CANCELLED);
+            bookingRepository.save(booking);
+            seatReleaseService.release(booking);
+        }
+        if (booking.getStatus() != BookingStatus.PENDING) {
+            refundLateCapture(booking);
+            return;
+        }
 
         // 3. Update corresponding booking
-        Booking booking = payment.getBooking();
         booking.setStatus(BookingStatus.CONFIRMED);
         booking.setPaymentStatus(PaymentStatus.SUCCESS);
         bookingRepository.save(booking);
@@ -126,9 +218,23 @@ public class PaymentService {
         System.out.println("Booking " + booking.getBookingRef() + " confirmed successfully.");
     }
 
+    // Paid for a booking that no longer holds seats: keep it cancelled and give the money back.
+    // paymentStatus REFUNDED (not SUCCESS) keeps it out of the "cancelled but still holding seats"
+    // bookings, so neither seat reconciliation nor the refund webhook counts seats for it.
+    private void refundLateCapture(Booking booking) {
+        System.out.println("Payment captured for booking " + booking.getBookingRef() + " in status " +
+                booking.getStatus() + "; refunding instead of confirming");
+        booking.setPaymentStatus(PaymentStatus.REFUNDED);
+        bookingRepository.save(booking);
+        refundService.initiateFullRefund(booking.getBookingRef());
+    }
+
     /**
      * Method 3: Marks payment as FAILED after webhook or user failure.
      * Rolls back booking and restores seats to flight inventory.
+     *
+     * The booking is locked first, like in markPaymentSuccess, so a hold that is expiring or being
+     * cancelled at the same time releases its seats only once.
      */
     @Transactional
     public void markPaymentFailed(String orderId, String paymentId, String reason) {
@@ -137,6 +243,12 @@ public class PaymentService {
         // 1. Fetch payment record by orderId
         Payment payment = paymentRepository.findByProviderOrderId(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
+        if (payment.getStatus() == PaymentStatus.SUCCESS) {
+            System.out.println("Payment for order " + orderId + " already marked SUCCESS; ignoring failure");
+            return; // a failed attempt reported after a later attempt on the same order succeeded
+        }
+        Booking booking = bookingRepository.findByIdForUpdate(payment.getBooking().getId())
+                .orElseThrow(() -> new IllegalStateException("Booking not found for order: " + orderId));
 
         // 2. Update payment failure details
         payment.setProviderPaymentId(paymentId);
@@ -145,22 +257,24 @@ public class PaymentService {
         paymentRepository.save(payment);
 
         // 3. Update booking status -> CANCELLED
-        Booking booking = payment.getBooking();
+        // the hold may already have expired (or been cancelled by the user) and its seats released
+        boolean holdingSeats = booking.getStatus() == BookingStatus.PENDING;
         booking.setPaymentStatus(PaymentStatus.FAILED);
         booking.setStatus(BookingStatus.CANCELLED);
         bookingRepository.save(booking);
+        holdExpiryService.untrack(booking.getId());
 
         // 4. Restore flight seats if payment fails
         Flight flight = booking.getFlight();
-        if (flight != null) {
+        if (!holdingSeats) {
+            System.out.println("Booking " + booking.getBookingRef() + " was not holding seats; nothing to restore");
+        } else if (flight != null) {
             Integer seatsToRestore = booking.getSeatCount();
-            if (flight.getRemainingSeats() == null) flight.setRemainingSeats(0);
-            flight.setRemainingSeats(flight.getRemainingSeats() + seatsToRestore);
-            flightRepository.save(flight); // Persist seat restoration
+            // joins this transaction, so seats only come back if the cancellation commits
+            seatReleaseService.release(booking);
 
             System.out.println("Seats restored: " + seatsToRestore +
-                    " back to Flight ID: " + flight.getId() +
-                    ". Total Available: " + flight.getRemainingSeats());
+                    " back to Flight ID: " + flight.getId());
         } else {
             System.out.println("Warning: No flight found for failed booking!");
         }
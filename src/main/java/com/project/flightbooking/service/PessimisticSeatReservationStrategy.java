@@ -0,0 +1,54 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.model.Flight;
+import com.project.flightbooking.repository.FlightRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Locks the flight row with SELECT ... FOR UPDATE (findByIdForUpdate) and updates it in place.
+ * Simple and never aborts, but every buyer of a flight queues on the same row lock.
+ */
+@Service
+@ConditionalOnProperty(name = "booking.reservation-strategy", havingValue = "pessimistic")
+public class PessimisticSeatReservationStrategy implements SeatReservationStrategy {
+
+    private final FlightRepository flightRepository;
+
+    public PessimisticSeatReservationStrategy(FlightRepository flightRepository) {
+        this.flightRepository = flightRepository;
+    }
+
+    @Override
+    public String name() {
+        return "pessimistic";
+    }
+
+    @Override
+    public Flight load(Long flightId) {
+        // lock held until the reservation transaction ends
+        return flightRepository.findByIdForUpdate(flightId)
+                .orElseThrow(() -> new IllegalArgumentException("Flight not found: " + flightId));
+    }
+
+    @Override
+    public boolean tryTake(Flight flight, int seats) {
+        if (flight.getRemainingSeats() == null) flight.setRemainingSeats(flight.getTotalSeats());
+        if (flight.getRemainingSeats() < seats) {
+            return false;
+        }
+        // dirty checking writes the row at commit, still under our lock
+        flight.setRemainingSeats(flight.getRemainingSeats() - seats);
+        return true;
+    }
+
+    @Override
+    public void release(Long flightId, int seats) {
+        flightRepository.incrementRemainingSeats(flightId, seats);
+    }
+
+    @Override
+    public int remaining(Flight flight) {
+        return flight.getRemainingSeats();
+    }
+}
@@ -0,0 +1,159 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.dto.FlightSearchRow;
+import com.project.flightbooking.model.Flight;
+import com.project.flightbooking.service.FlightSearchIndex.IndexedFlight;
+import com.project.flightbooking.util.Money;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+
+/**
+ * PricingEngine
+ * -------------
+ * Dynamic fares: base fare x load-factor step x days-to-departure step.
+ *
+ *  - Load factor: the fare steps up as the share of seats sold crosses pricing.load.sold-thresholds
+ *    (multipliers in pricing.load.multipliers, one more than thresholds).
+ *  - Days to departure: pricing.days.thresholds (days, ascending) with pricing.days.multipliers,
+ *    the first for departures closer than the first threshold.
+ *
+ * Each flight's fares are compiled once into a FareLadder: the seat counts where the load steps
+ * change plus a long[] of every (days step, load step) fare in paise. A quote walks two tiny int/long
+ * arrays and reads one slot: no BigDecimal, no allocation. The price therefore only moves when
+ * inventory (or time) crosses a step boundary. Ladders live on the FlightSearchIndex entry and are
+ * compiled lazily; flights outside the index get a throwaway ladder.
+ */
+@Service
+public class PricingEngine {
+
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    /** Precompiled fare table of one flight. */
+    public static final class FareLadder {
+        final long basePaise;
+        final int totalSeats;
+        final int[] soldSteps;   // seats sold at which load step i+1 starts
+        final long[] daySteps;   // millis before departure at which days step i+1 starts
+        final long[] fares;      // [daysStep * loadSteps + loadStep], paise
+        final int loadSteps;
+
+        FareLadder(long basePaise, int totalSeats, int[] soldSteps, long[] daySteps, long[] fares) {
+            this.basePaise = basePaise;
+            this.totalSeats = totalSeats;
+            this.soldSteps = soldSteps;
+            this.daySteps = daySteps;
+            this.fares = fares;
+            this.loadSteps = soldSteps.length + 1;
+        }
+
+        long price(int remainingSeats, long millisToDeparture) {
+            int sold = totalSeats - remainingSeats;
+            int l = 0;
+            while (l < soldSteps.length && sold >= soldSteps[l]) l++;
+            int d = 0;
+            while (d < daySteps.length && millisToDeparture >= daySteps[d]) d++;
+            return fares[d * loadSteps + l];
+        }
+    }
+
+    private final FlightSearchIndex searchIndex;
+
+    @Value("${pricing.load.sold-thresholds:0.5,0.7,0.85,0.95}")
+    private String soldThresholdsProperty;
+
+    @Value("${pricing.load.multipliers:1.0,1.15,1.35,1.6,2.0}")
+    private String loadMultipliersProperty;
+
+    @Value("${pricing.days.thresholds:3,7,14,30}")
+    private String daysThresholdsProperty;
+
+    @Value("${pricing.days.multipliers:1.5,1.3,1.15,1.05,1.0}")
+    private String daysMultipliersProperty;
+
+    private double[] soldThresholds;
+    private double[] loadMultipliers;
+    private long[] daySteps;
+    private double[] daysMultipliers;
+
+    public PricingEngine(FlightSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @PostConstruct
+    public void init() {
+        soldThresholds = parse(soldThresholdsProperty);
+        loadMultipliers = parse(loadMultipliersProperty);
+        double[] days = parse(daysThresholdsProperty);
+        daysMultipliers = parse(daysMultipliersProperty);
+        if (loadMultipliers.length != soldThresholds.length + 1 || daysMultipliers.length != days.length + 1) {
+            throw new IllegalStateException("pricing: need exactly one more multiplier than thresholds");
+        }
+        daySteps = new long[days.length];
+        for (int i = 0; i < days.length; i++) {
+            daySteps[i] = Math.round(days[i] * DAY_MILLIS);
+            if (i > 0 && daySteps[i] <= daySteps[i - 1]) throw new IllegalStateException("pricing.days.thresholds must be ascending");
+        }
+        for (int i = 1; i < soldThresholds.length; i++) {
+            if (soldThresholds[i] <= soldThresholds[i - 1]) throw new IllegalStateException("pricing.load.sold-thresholds must be ascending");
+        }
+    }
+
+    /** Current fare per seat in paise. Allocation-free once the flight's ladder is compiled. */
+    public long quotePaise(IndexedFlight f, long nowMillis) {
+        FareLadder ladder = f.fareLadder;
+        if (ladder == null) {
+            ladder = compile(f.farePaise, f.totalSeats);
+            f.fareLadder = ladder; // benign race: every thread compiles the same table
+        }
+        return ladder.price(f.remainingSeats(), f.departureMillis - nowMillis);
+    }
+
+    public Money quote(IndexedFlight f) {
+        return Money.ofMinor(quotePaise(f, System.currentTimeMillis()));
+    }
+
+    /** Fare per seat for a booking; uses the indexed (last committed) seat count when available. */
+    public Money quote(Flight f) {
+        return quote(f.getId(), f.getBaseFare().minor(), f.getTotalSeats(), f.getRemainingSeats(), f.getDepartureTime());
+    }
+
+    public Money quote(FlightSearchRow r) {
+        return quote(r.getId(), Money.of(r.getBaseFare()).minor(), r.getTotalSeats(), r.getRemainingSeats(), r.getDepartureTime());
+    }
+
+    private Money quote(Long id, long basePaise, int totalSeats, int remainingSeats, ZonedDateTime departure) {
+        IndexedFlight indexed = id != null ? searchIndex.get(id) : null;
+        if (indexed != null) {
+            return quote(indexed);
+        }
+        long millisToDeparture = departure.toInstant().toEpochMilli() - System.currentTimeMillis();
+        return Money.ofMinor(compile(basePaise, totalSeats).price(remainingSeats, millisToDeparture));
+    }
+
+    FareLadder compile(long basePaise, int totalSeats) {
+        int[] soldSteps = new int[soldThresholds.length];
+        for (int i = 0; i < soldSteps.length; i++) {
+            soldSteps[i] = (int) Math.ceil(totalSeats * soldThresholds[i]);
+        }
+        int loadSteps = loadMultipliers.length;
+        long[] fares = new long[daysMultipliers.length * loadSteps];
+        for (int d = 0; d < daysMultipliers.length; d++) {
+            for (int l = 0; l < loadSteps; l++) {
+                fares[d * loadSteps + l] = Math.round(basePaise * daysMultipliers[d] * loadMultipliers[l]);
+            }
+        }
+        return new FareLadder(basePaise, totalSeats, soldSteps, daySteps, fares);
+    }
+
+    private static double[] parse(String csv) {
+        try {
+            return Arrays.stream(csv.split(",")).map(String::trim).mapToDouble(Double::parseDouble).toArray();
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("pricing: invalid number list '" + csv + "'", e);
+        }
+    }
+}
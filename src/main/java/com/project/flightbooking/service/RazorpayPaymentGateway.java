@@ -0,0 +1,132 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.exception.PaymentGatewayException;
+import com.razorpay.Entity;
+import com.razorpay.Order;
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+import com.razorpay.Refund;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Default gateway: Razorpay through one shared RazorpayClient.
+ * The SDK keeps a single static OkHttp client (with its connection pool) and rebuilds it in every
+ * RazorpayClient constructor, so the client is created once here instead of per call; requests
+ * then reuse pooled keep-alive connections. The SDK's own socket timeouts are not configurable;
+ * PaymentGatewayGuard enforces our deadline on top of them.
+ */
+@Service
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "razorpay", matchIfMissing = true)
+public class RazorpayPaymentGateway implements PaymentGateway {
+
+    private final PaymentGatewayGuard guard;
+    private final String keyId;
+    private final RazorpayClient client;
+
+    public RazorpayPaymentGateway(PaymentGatewayGuard guard,
+                                  @Value("${razorpay.key_id}") String keyId,
+                                  @Value("${razorpay.key_secret}") String keySecret) throws RazorpayException {
+        this.guard = guard;
+        this.keyId = keyId;
+        this.client = new RazorpayClient(keyId, keySecret);
+    }
+
+    @Override
+    public String publicKey() {
+        return keyId;
+    }
+
+    @Override
+    public Result createOrder(long amountMinor, String currency, String receipt) {
+        JSONObject req = new JSONObject();
+        req.put("amount", amountMinor);
+        req.put("currency", currency);
+        req.put("receipt", receipt);
+        req.put("payment_capture", 1); // auto-capture the payment
+        return guard.call("createOrder", false, () -> send(() -> client.Orders.create(req)));
+    }
+
+    @Override
+    public Result refund(String providerPaymentId, long amountMinor, String bookingRef, Long refundId) {
+        JSONObject req = new JSONObject();
+        req.put("amount", amountMinor);
+        req.put("speed", "normal");
+        req.put("notes", new JSONObject().put("bookingRef", bookingRef).put("refundId", String.valueOf(refundId)));
+        return guard.call("refund", false, () -> send(() -> client.Payments.refund(providerPaymentId, req)));
+    }
+
+    @Override
+    public Result findOrder(String receipt) {
+        return guard.call("findOrder", true, () -> {
+            List<Order> orders;
+            try {
+                orders = client.Orders.fetchAll(new JSONObject().put("receipt", receipt));
+            } catch (RazorpayException e) {
+                throw translate(e);
+            }
+            return orders.isEmpty() ? null : result(orders.get(0));
+        });
+    }
+
+    @Override
+    public Result fetchOrder(String orderId) {
+        return guard.call("fetchOrder", true, () -> send(() -> client.Orders.fetch(orderId)));
+    }
+
+    @Override
+    public Result fetchRefund(String refundId) {
+        return guard.call("fetchRefund", true, () -> send(() -> client.Refunds.fetch(refundId)));
+    }
+
+    @Override
+    public Result findRefund(String providerPaymentId, Long refundId, long amountMinor) {
+        return guard.call("findRefund", true, () -> {
+            List<Refund> refunds;
+            try {
+                refunds = client.Payments.fetchAllRefunds(providerPaymentId, new JSONObject().put("count", 100));
+            } catch (RazorpayException e) {
+                throw translate(e);
+            }
+            for (Refund refund : refunds) {
+                JSONObject json = refund.toJson();
+                JSONObject notes = json.optJSONObject("notes"); // [] when a refund has no notes
+                if (notes != null && String.valueOf(refundId).equals(notes.optString("refundId"))
+                        && json.optLong("amount") == amountMinor && !"failed".equals(json.optString("status"))) {
+                    return result(refund);
+                }
+            }
+            return null;
+        });
+    }
+
+    private interface Request {
+        Entity send() throws RazorpayException;
+    }
+
+    // The SDK reports the API's error code as the message prefix; BAD_REQUEST_ERROR is a 4xx
+    // (our request was refused), everything else (server/gateway errors, I/O) may succeed on retry.
+    private static Result send(Request request) {
+        try {
+            return result(request.send());
+        } catch (RazorpayException e) {
+            throw translate(e);
+        }
+    }
+
+    private static PaymentGatewayException translate(RazorpayException e) {
+        String message = String.valueOf(e.getMessage());
+        if (message.startsWith("BAD_REQUEST_ERROR")) {
+            return new PaymentGatewayException("Razorpay rejected the request: " + message, false, e);
+        }
+        return new PaymentGatewayException("Razorpay error: " + message, true, e);
+    }
+
+    private static Result result(Entity entity) {
+        return new Result(entity.get("id"), entity.has("status") ? entity.<String>get("status") : null, entity.toString());
+    }
+}
@@ -1,22 +1,21 @@
 package com.project.flightbooking.service;
 
 import com.project.flightbooking.enums.BookingStatus;
+import com.project.flightbooking.dto.RefundStatusResponse;
+import com.project.flightbooking.enums.OutboxType;
+import com.project.flightbooking.enums.PaymentStatus;
 import com.project.flightbooking.enums.RefundStatus;
 import com.project.flightbooking.model.*;
 import com.project.flightbooking.repository.BookingRepository;
 import com.project.flightbooking.repository.FlightRepository;
+import com.project.flightbooking.repository.OutboxRepository;
 import com.project.flightbooking.repository.PaymentRepository;
 import com.project.flightbooking.repository.RefundRepository;
-import com.razorpay.Refund;
-import com.razorpay.RazorpayClient;
-import com.razorpay.RazorpayException;
+import com.project.flightbooking.util.Money;
 import jakarta.transaction.Transactional;
-import org.json.JSONObject;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.Arrays;
@@ -29,45 +28,54 @@ import java.util.Optional;
  * Responsibilities:
  *  - Compute refund percentage by cancellation policy (time-based)
  *  - Create RefundTransaction records (idempotent)
- *  - Call Razorpay Refund API and persist providerRefundId and status
+ *  - Queue the Razorpay Refund API call (made by OutboxDispatcher) and persist providerRefundId and status
  *  - Handle Razorpay refund webhooks (idempotent)
  *  - Restore seats when refund completes successfully
  */
 @Service
 public class RefundService {
 
+    private static final long BASIS_POINTS = 10_000;
+
+    /** A refund of a booking; created is false when an existing one was returned (idempotent call). */
+    public record Initiated(RefundTransaction refund, boolean created) {
+    }
+
     private final BookingRepository bookingRepository;
     private final PaymentRepository paymentRepository;
     private final RefundRepository refundRepository;
     private final FlightRepository flightRepository;
-
-    @Value("${razorpay.key_id}")
-    private String razorpayKeyId;
-
-    @Value("${razorpay.key_secret}")
-    private String razorpayKeySecret;
+    private final SeatReleaseService seatReleaseService;
+    private final OutboxRepository outboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public RefundService(BookingRepository bookingRepository,
                          PaymentRepository paymentRepository,
                          RefundRepository refundRepository,
-                         FlightRepository flightRepository) {
+                         FlightRepository flightRepository,
+                         SeatReleaseService seatReleaseService,
+                         OutboxRepository outboxRepository,
+                         ApplicationEventPublisher eventPublisher) {
         this.bookingRepository = bookingRepository;
         this.paymentRepository = paymentRepository;
         this.refundRepository = refundRepository;
         this.flightRepository = flightRepository;
+        this.seatReleaseService = seatReleaseService;
+        this.outboxRepository = outboxRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
      * Default refund policy (hardcoded tiers).
-     * Returns refund fraction (0.0 - 1.0).
+     * Returns refund fraction in basis points (0 - 10000).
      */
-    private BigDecimal computeRefundPercent(ZonedDateTime departure, ZonedDateTime now) {
+    private long computeRefundBasisPoints(ZonedDateTime departure, ZonedDateTime now) {
         long hours = Duration.between(now, departure).toHours();
-        if (hours >= 72) return BigDecimal.valueOf(0.90);
-        if (hours >= 24) return BigDecimal.valueOf(0.70);
-        if (hours >= 6)  return BigDecimal.valueOf(0.40);
-        if (hours >= 0)  return BigDecimal.valueOf(0.10);
-        return BigDecimal.ZERO; // flight departed
+        if (hours >= 72) return 9_000;
+        if (hours >= 24) return 7_000;
+        if (hours >= 6)  return 4_000;
+        if (hours >= 0)  return 1_000;
+        return 0; // flight departed
     }
 
     /**
@@ -76,8 +84,23 @@ public class RefundService {
      *  - If a RefundTransaction already exists for the booking in INITIATED/PROCESSING/SUCCESS, it returns that record or throws on impossible states.
      */
     @Transactional
-    public RefundTransaction initiateRefund(String bookingRef) throws Exception {
-        Booking booking = bookingRepository.findByBookingRef(bookingRef)
+    public RefundTransaction initiateRefund(String bookingRef) {
+        return refund(bookingRef, false).refund();
+    }
+
+    /**
+     * Refund the whole fare, whatever the time to departure: the airline cancelled the flight
+     * (see FlightDisruptionService). Idempotent like initiateRefund; the result says whether a new
+     * refund was queued or one already existed.
+     */
+    @Transactional
+    public Initiated initiateFullRefund(String bookingRef) {
+        return refund(bookingRef, true);
+    }
+
+    private Initiated refund(String bookingRef, boolean fullRefund) {
+        // locked, so concurrent requests for the booking queue one refund
+        Booking booking = bookingRepository.findByBookingRefForUpdate(bookingRef)
                 .orElseThrow(() -> new IllegalArgumentException("Booking not found: " + bookingRef));
 
         // Check booking eligibility
@@ -91,7 +114,7 @@ public class RefundService {
         Optional<RefundTransaction> existing = refundRepository.findFirstByBookingIdAndStatusIn(booking.getId(), inProgress);
         if (existing.isPresent()) {
             System.out.println("Refund already exists for booking " + bookingRef + " with status " + existing.get().getStatus());
-            return existing.get();
+            return new Initiated(existing.get(), false);
         }
 
         // Get provider Payment record for this booking
@@ -105,13 +128,13 @@ public class RefundService {
         // Compute refund amount using policy
         ZonedDateTime departure = booking.getFlight().getDepartureTime();
         ZonedDateTime now = ZonedDateTime.now(departure.getZone());
-        BigDecimal percent = computeRefundPercent(departure, now);
+        long basisPoints = fullRefund ? BASIS_POINTS : computeRefundBasisPoints(departure, now);
 
-        if (percent.compareTo(BigDecimal.ZERO) <= 0) {
+        if (basisPoints <= 0) {
             throw new IllegalStateException("No refund allowed as per policy (flight departed or no eligible window).");
         }
 
-        BigDecimal refundAmount = booking.getTotalFare().multiply(percent).setScale(2, RoundingMode.HALF_UP);
+        Money refundAmount = booking.getTotalFare().fraction(basisPoints, BASIS_POINTS); // rounded half-up to the paisa
 
         // Create local RefundTransaction in INITIATED state (idempotent insert)
         RefundTransaction rt = new RefundTransaction();
@@ -121,37 +144,67 @@ public class RefundService {
         rt.setStatus(RefundStatus.INITIATED);
         refundRepository.save(rt);
 
-        // Call Razorpay refund API
-        RazorpayClient client = new RazorpayClient(razorpayKeyId, razorpayKeySecret);
+        // The gateway call is made by OutboxDispatcher after this commits (see refundAccepted/refundFailed)
+        outboxRepository.save(OutboxEvent.pending(OutboxType.REFUND, rt.getId()));
+        eventPublisher.publishEvent(new OutboxEnqueuedEvent());
 
-        JSONObject req = new JSONObject();
-        req.put("amount", refundAmount.multiply(BigDecimal.valueOf(100)).intValueExact()); // Razorpay expects paise
-        req.put("speed", "normal");
-        req.put("notes", new JSONObject().put("bookingRef", bookingRef));
-
-        try {
-            Refund refund = client.Payments.refund(payment.getProviderPaymentId(), req);
+        System.out.println("Refund queued: refund=" + rt.getId() + ", amount=" + refundAmount + ", booking=" + bookingRef);
+        return new Initiated(rt, true);
+    }
 
-            // Update RefundTransaction from provider response
-            rt.setProviderRefundId(refund.get("id"));
-            rt.setStatus(RefundStatus.PROCESSING); // provider accepted request; final success via webhook
-            rt.setProviderResponse(refund.toString());
-            refundRepository.save(rt);
+    /**
+     * OutboxDispatcher: the provider accepted the refund request; final success arrives via webhook.
+     */
+    @Transactional
+    public void refundAccepted(Long refundId, PaymentGateway.Result refund) {
+        RefundTransaction rt = refundRepository.findById(refundId)
+                .orElseThrow(() -> new IllegalStateException("Refund not found: " + refundId));
+        if (rt.getStatus() != RefundStatus.INITIATED) return;
+
+        // Update RefundTransaction from provider response
+        rt.setProviderRefundId(refund.id());
+        rt.setStatus(RefundStatus.PROCESSING);
+        rt.setProviderResponse(refund.rawResponse());
+        refundRepository.save(rt);
 
-            // Optionally mark booking CANCELLED (if not already)
+        // Optionally mark booking CANCELLED (if not already)
+        Booking booking = rt.getBooking();
+        if (booking.getStatus() == BookingStatus.CONFIRMED) {
             booking.setStatus(BookingStatus.CANCELLED);
             bookingRepository.save(booking);
+        }
 
-            System.out.println("Refund initiated: providerRefundId=" + refund.get("id") + ", booking=" + bookingRef);
-            return rt;
-        } catch (RazorpayException e) {
-            rt.setStatus(RefundStatus.FAILED);
-            rt.setProviderResponse(e.getMessage());
-            refundRepository.save(rt);
+        System.out.println("Refund initiated: providerRefundId=" + refund.id() + ", booking=" + booking.getBookingRef());
+    }
 
-            System.out.println("Razorpay refund API failed: " + e.getMessage());
-            throw new RuntimeException("Razorpay refund failed: " + e.getMessage(), e);
-        }
+    /**
+     * OutboxDispatcher: the provider refused the refund, or it ran out of attempts.
+     * A new initiateRefund call for the booking starts over.
+     */
+    @Transactional
+    public void refundFailed(Long refundId, String reason) {
+        RefundTransaction rt = refundRepository.findById(refundId)
+                .orElseThrow(() -> new IllegalStateException("Refund not found: " + refundId));
+        if (rt.getStatus() != RefundStatus.INITIATED) return;
+        rt.setStatus(RefundStatus.FAILED);
+        rt.setProviderResponse(reason);
+        refundRepository.save(rt);
+
+        System.out.println("Razorpay refund API failed for refund " + refundId + ": " + reason);
+    }
+
+    /**
+     * Latest refund of a booking, for clients polling after initiateRefund:
+     * INITIATED (queued) -> PROCESSING (provider accepted) -> SUCCESS, or FAILED.
+     */
+    @Transactional
+    public RefundStatusResponse getRefundStatus(String bookingRef) {
+        Booking booking = bookingRepository.findByBookingRef(bookingRef)
+                .orElseThrow(() -> new IllegalArgumentException("Booking not found: " + bookingRef));
+        RefundTransaction rt = refundRepository.findFirstByBookingIdOrderByIdDesc(booking.getId())
+                .orElseThrow(() -> new IllegalArgumentException("No refund for booking: " + bookingRef));
+        return new RefundStatusResponse(bookingRef, rt.getId(), rt.getStatus(), rt.getAmount(),
+                rt.getProviderRefundId(), rt.getUpdatedAt());
     }
 
     /**
@@ -190,24 +243,26 @@ public class RefundService {
 
             Booking booking = rt.getBooking();
 
-            // Restore seats only if booking wasn't already refunded
+            // Restore seats only if the booking still holds them: not refunded yet, and paid
+            // (a capture refunded after its hold expired has paymentStatus REFUNDED and no seats)
+            boolean holdingSeats = booking.getStatus() != BookingStatus.REFUNDED
+                    && booking.getPaymentStatus() == PaymentStatus.SUCCESS;
             if (booking.getStatus() != BookingStatus.REFUNDED) {
                 booking.setStatus(BookingStatus.REFUNDED);
                 bookingRepository.save(booking);
-
+            }
+            if (holdingSeats) {
                 Flight flight = booking.getFlight();
                 if (flight != null) {
                     int restoreSeats = booking.getSeatCount() != null ? booking.getSeatCount() : 0;
-                    flight.setRemainingSeats(flight.getRemainingSeats() + restoreSeats);
-                    flightRepository.save(flight);
+                    seatReleaseService.release(booking);
 
-                    System.out.println("Seats restored: " + restoreSeats +
-                            " -> Flight ID: " + flight.getId() + ", new remaining: " + flight.getRemainingSeats());
+                    System.out.println("Seats restored: " + restoreSeats + " -> Flight ID: " + flight.getId());
                 } else {
                     System.out.println("Booking has no linked flight for refund seat restore: " + booking.getBookingRef());
                 }
             } else {
-                System.out.println("Booking already REFUNDED, skipping seat restore for: " + booking.getBookingRef());
+                System.out.println("Booking holds no seats (already refunded), skipping seat restore for: " + booking.getBookingRef());
             }
 
             System.out.println("Refund success processed for providerRefundId: " + providerRefundId);
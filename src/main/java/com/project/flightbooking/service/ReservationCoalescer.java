@@ -0,0 +1,227 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.dto.BookingRequest;
+import com.project.flightbooking.exception.OutcomeUnknownException;
+import com.project.flightbooking.model.Booking;
+import com.project.flightbooking.model.User;
+import com.project.flightbooking.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ReservationCoalescer
+ * --------------------
+ * Group commit for single-flight reservations.
+ *
+ * Requests for the same flight are queued; one drainer per flight waits a short window
+ * (booking.coalescing.window-micros, or until max-batch requests are queued) and then hands
+ * the whole batch to BookingService.reserveBatch: one flight load/lock, one transaction,
+ * one commit. Each caller's future completes with its booking, or with "not enough seats"
+ * if the batch ran out before reaching it (requests are served in arrival order).
+ * A caller that gives up waiting withdraws its request if no drainer has taken it yet (nothing
+ * reserved); once taken, its batch may still commit, so the caller gets OutcomeUnknownException.
+ * If a batch fails for a reason that is not about the flight itself (e.g. one request's row is
+ * rejected by the database), its requests are retried one at a time so only the bad one fails.
+ * A drainer runs at most booking.coalescing.batches-per-turn batches and then requeues itself,
+ * so busy flights take turns on the drainer threads instead of holding them.
+ * A flight's queue is dropped once its drainer finds it empty, so only flights with requests in
+ * flight are kept.
+ *
+ * With booking.coalescing.enabled=false every request goes straight to BookingService.
+ */
+@Service
+public class ReservationCoalescer {
+
+    private static final class Pending {
+        final User user;
+        final BookingRequest req;
+        final CompletableFuture<Booking> future = new CompletableFuture<>();
+        // set once by whoever gets there first: the drainer taking it into a batch, or the caller withdrawing it
+        final AtomicBoolean claimed = new AtomicBoolean();
+
+        Pending(User user, BookingRequest req) {
+            this.user = user;
+            this.req = req;
+        }
+    }
+
+    private static final class FlightQueue {
+        final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+        final AtomicInteger size = new AtomicInteger();
+        final AtomicBoolean draining = new AtomicBoolean();
+    }
+
+    private final BookingService bookingService;
+    private final UserRepository userRepository;
+    private final ReservationMetrics metrics;
+    private final Map<Long, FlightQueue> queues = new ConcurrentHashMap<>();
+    private final ExecutorService drainers;
+
+    @Value("${booking.coalescing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.coalescing.window-micros:2000}")
+    private long windowMicros;
+
+    @Value("${booking.coalescing.max-batch:64}")
+    private int maxBatch;
+
+    @Value("${booking.coalescing.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    @Value("${booking.coalescing.batches-per-turn:4}")
+    private int batchesPerTurn;
+
+    public ReservationCoalescer(BookingService bookingService,
+                                UserRepository userRepository,
+                                ReservationMetrics metrics,
+                                @Value("${booking.coalescing.threads:8}") int threads) {
+        this.bookingService = bookingService;
+        this.userRepository = userRepository;
+        this.metrics = metrics;
+        this.drainers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "reservation-coalescer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Reserve seats for one flight, possibly batched with concurrent requests for the same flight.
+     * Blocks the calling request thread until the batch commits.
+     */
+    public Booking reserve(String username, BookingRequest req) {
+        if (!enabled) {
+            return bookingService.reserveSeats(username, req);
+        }
+        bookingService.validate(req);
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
+
+        Pending p = new Pending(user, req);
+        // enqueue inside compute, so it cannot interleave with the drainer dropping an empty queue
+        FlightQueue q = queues.compute(req.getFlightId(), (id, current) -> {
+            FlightQueue fq = current != null ? current : new FlightQueue();
+            fq.queue.add(p);
+            fq.size.incrementAndGet();
+            return fq;
+        });
+        if (q.draining.compareAndSet(false, true)) {
+            drainers.execute(() -> drain(req.getFlightId(), q));
+        }
+
+        try {
+            return p.future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new OutcomeUnknownException("Reservation failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw giveUp(p, "Reservation timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw giveUp(p, "Interrupted while waiting for reservation");
+        }
+    }
+
+    // withdraw a request that no drainer has taken yet; a taken one may still commit
+    private static RuntimeException giveUp(Pending p, String reason) {
+        if (p.claimed.compareAndSet(false, true)) {
+            return new IllegalStateException(reason + " before it was processed, nothing was reserved");
+        }
+        return new OutcomeUnknownException(reason + ", please check your bookings before retrying");
+    }
+
+    private void drain(Long flightId, FlightQueue q) {
+        for (int turn = 1; ; turn++) {
+            // collect: wait for the window to pass or the batch to fill, whichever comes first
+            long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(windowMicros);
+            while (q.size.get() < maxBatch && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(50_000);
+            }
+
+            List<Pending> batch = new ArrayList<>(Math.min(q.size.get(), maxBatch));
+            Pending p;
+            while (batch.size() < maxBatch && (p = q.queue.poll()) != null) {
+                q.size.decrementAndGet();
+                if (p.claimed.compareAndSet(false, true)) {
+                    batch.add(p);
+                }
+            }
+            if (!batch.isEmpty()) {
+                process(flightId, batch);
+            }
+
+            if (q.queue.isEmpty()) {
+                q.draining.set(false);
+                // a request may have slipped in after the isEmpty check; reclaim the drainer role if so
+                if (q.queue.isEmpty() || !q.draining.compareAndSet(false, true)) {
+                    // drop the idle queue; a request enqueued meanwhile keeps it (and drains it)
+                    queues.computeIfPresent(flightId, (id, current) ->
+                            current == q && q.queue.isEmpty() && !q.draining.get() ? null : current);
+                    return;
+                }
+            }
+            if (turn >= batchesPerTurn) {
+                // still busy: keep the drainer role but go to the back of the line
+                drainers.execute(() -> drain(flightId, q));
+                return;
+            }
+        }
+    }
+
+    private void process(Long flightId, List<Pending> batch) {
+        List<User> users = new ArrayList<>(batch.size());
+        List<BookingRequest> reqs = new ArrayList<>(batch.size());
+        for (Pending p : batch) {
+            users.add(p.user);
+            reqs.add(p.req);
+        }
+        try {
+            List<Booking> outcome = bookingService.reserveBatch(flightId, users, reqs);
+            metrics.recordCoalescedBatch(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                Booking b = outcome.get(i);
+                if (b != null) {
+                    batch.get(i).future.complete(b);
+                } else {
+                    batch.get(i).future.completeExceptionally(new IllegalStateException("Not enough seats available"));
+                }
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // the flight itself was refused (not found, not bookable, busy): every caller gets the same error
+            batch.forEach(p -> p.future.completeExceptionally(e));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            // the transaction rolled back (e.g. a constraint violation from one request's rows):
+            // retry one at a time so the others still get their seats
+            for (Pending p : batch) {
+                process(flightId, List.of(p));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        drainers.shutdown();
+    }
+}
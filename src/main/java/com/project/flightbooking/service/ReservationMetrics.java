@@ -0,0 +1,72 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.util.LatencyHistogram;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for seat reservations, tagged with the active strategy so runs with different
+ * booking.reservation-strategy values can be compared (p99 latency, abort rate).
+ * Exposed at GET /api/admin/metrics/reservations.
+ */
+@Component
+public class ReservationMetrics {
+
+    private final String strategy;
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder rejected = new LongAdder();  // not enough seats / flight not bookable
+    private final LongAdder aborted = new LongAdder();   // gave up after retries or unexpected failure
+    private final LongAdder retries = new LongAdder();   // extra attempts after a retryable conflict
+    private final LongAdder coalescedBatches = new LongAdder();
+    private final LongAdder coalescedRequests = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    public ReservationMetrics(SeatReservationStrategy strategy) {
+        this.strategy = strategy.name();
+    }
+
+    public void recordSuccess(long nanos) {
+        succeeded.increment();
+        latency.record(nanos);
+    }
+
+    public void recordRejected(long nanos) {
+        rejected.increment();
+        latency.record(nanos);
+    }
+
+    public void recordAborted(long nanos) {
+        aborted.increment();
+        latency.record(nanos);
+    }
+
+    public void recordRetry() {
+        retries.increment();
+    }
+
+    public void recordCoalescedBatch(int size) {
+        coalescedBatches.increment();
+        coalescedRequests.add(size);
+    }
+
+    public Map<String, Object> snapshot() {
+        long ok = succeeded.sum();
+        long ab = aborted.sum();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("strategy", strategy);
+        m.put("succeeded", ok);
+        m.put("rejected", rejected.sum());
+        m.put("aborted", ab);
+        m.put("retries", retries.sum());
+        m.put("abortRate", ok + ab == 0 ? 0.0 : (double) ab / (ok + ab));
+        m.put("p50Micros", latency.percentileNanos(0.50) / 1_000);
+        m.put("p99Micros", latency.percentileNanos(0.99) / 1_000);
+        long batches = coalescedBatches.sum();
+        m.put("coalescedBatches", batches);
+        m.put("avgCoalescedBatchSize", batches == 0 ? 0.0 : (double) coalescedRequests.sum() / batches);
+        return m;
+    }
+}
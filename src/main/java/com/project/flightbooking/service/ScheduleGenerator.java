@@ -0,0 +1,218 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.dto.ScheduleGenerationResult;
+import com.project.flightbooking.model.Flight;
+import com.project.flightbooking.model.ScheduleTemplate;
+import com.project.flightbooking.repository.BatchInsertRepository;
+import com.project.flightbooking.repository.FlightJdbcRepository;
+import com.project.flightbooking.repository.ScheduleTemplateRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ScheduleGenerator
+ * -----------------
+ * Expands schedule templates into dated flights.
+ *
+ *  - The date range is split in halves on a dedicated ForkJoinPool until a partition covers at most
+ *    flights.schedule.partition-days days; each partition expands every template over its days.
+ *  - Idempotent on (flightNumber, serviceDate): a partition first reads which of its keys already
+ *    exist and only inserts the rest, so a rerun generates nothing new. The unique key on flights
+ *    backs this up if two runs race; the losing rows count as already existing.
+ *  - Inserts are JDBC batches (BatchInsertRepository) in transactions of
+ *    flights.schedule.batch-size flights. Partitions cover disjoint days, so they never contend.
+ *  - The pool does blocking JDBC work: keep flights.schedule.parallelism below the connection pool size.
+ *  - A nightly run (flights.schedule.generate-cron) keeps flights.schedule.horizon-days of flights ahead.
+ */
+@Service
+public class ScheduleGenerator {
+
+    private final ScheduleTemplateRepository templateRepository;
+    private final FlightJdbcRepository flightJdbcRepository;
+    private final BatchInsertRepository batchInsertRepository;
+    private final FlightService flightService;
+    private final TransactionTemplate transactionTemplate;
+    private final ForkJoinPool pool;
+
+    @Value("${flights.schedule.partition-days:7}")
+    private int partitionDays;
+
+    @Value("${flights.schedule.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${flights.schedule.horizon-days:365}")
+    private int horizonDays;
+
+    public ScheduleGenerator(ScheduleTemplateRepository templateRepository,
+                             FlightJdbcRepository flightJdbcRepository,
+                             BatchInsertRepository batchInsertRepository,
+                             FlightService flightService,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${flights.schedule.parallelism:4}") int parallelism) {
+        this.templateRepository = templateRepository;
+        this.flightJdbcRepository = flightJdbcRepository;
+        this.batchInsertRepository = batchInsertRepository;
+        this.flightService = flightService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pool = new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName("schedule-generator-" + t.getPoolIndex());
+            t.setDaemon(true);
+            return t;
+        }, null, false);
+    }
+
+    /**
+     * Generate the flights of one template (or all active ones when templateId is null) departing
+     * between from and to (default: today .. today + horizon), clipped to the templates' validity.
+     */
+    public ScheduleGenerationResult generate(Long templateId, LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        List<ScheduleTemplate> templates = templateId == null
+                ? templateRepository.findByActiveTrueOrderById()
+                : List.of(templateRepository.findById(templateId)
+                        .orElseThrow(() -> new IllegalArgumentException("Schedule template not found: " + templateId)));
+
+        LocalDate first = from != null ? from : LocalDate.now();
+        LocalDate last = to != null ? to : LocalDate.now().plusDays(horizonDays);
+        LocalDate validFrom = templates.stream().map(ScheduleTemplate::getValidFrom).min(LocalDate::compareTo).orElse(first);
+        LocalDate validTo = templates.stream().map(ScheduleTemplate::getValidTo).max(LocalDate::compareTo).orElse(first);
+        if (validFrom.isAfter(first)) first = validFrom;
+        if (validTo.isBefore(last)) last = validTo;
+
+        ScheduleGenerationResult result = new ScheduleGenerationResult();
+        result.setTemplates(templates.size());
+        result.setFrom(first);
+        result.setTo(last);
+        if (!templates.isEmpty() && !last.isBefore(first)) {
+            long[] counts = pool.invoke(new Partition(templates, first, last));
+            result.setGenerated(counts[0]);
+            result.setAlreadyExisting(counts[1]);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        result.setElapsedMillis(elapsedNanos / 1_000_000);
+        result.setFlightsPerSecond(result.getGenerated() * 1_000_000_000L / Math.max(elapsedNanos, 1));
+        System.out.println("Schedule generation: " + result.getGenerated() + " flights generated, "
+                + result.getAlreadyExisting() + " already existing, " + first + ".." + last + " in "
+                + result.getElapsedMillis() + " ms (" + result.getFlightsPerSecond() + " flights/s)");
+        return result;
+    }
+
+    @Scheduled(cron = "${flights.schedule.generate-cron:0 30 2 * * *}")
+    public void generateHorizon() {
+        generate(null, null, null);
+    }
+
+    private final class Partition extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<ScheduleTemplate> templates;
+        private final LocalDate from;
+        private final LocalDate to;
+
+        Partition(List<ScheduleTemplate> templates, LocalDate from, LocalDate to) {
+            this.templates = templates;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            long days = ChronoUnit.DAYS.between(from, to) + 1;
+            if (days <= partitionDays) {
+                return materialize(templates, from, to);
+            }
+            LocalDate mid = from.plusDays(days / 2 - 1);
+            Partition left = new Partition(templates, from, mid);
+            left.fork();
+            long[] right = new Partition(templates, mid.plusDays(1), to).compute();
+            long[] l = left.join();
+            return new long[]{l[0] + right[0], l[1] + right[1]};
+        }
+    }
+
+    // returns {inserted, alreadyExisting} for the days from..to
+    private long[] materialize(List<ScheduleTemplate> templates, LocalDate from, LocalDate to) {
+        List<Flight> flights = new ArrayList<>();
+        Set<String> numbers = new HashSet<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            for (ScheduleTemplate t : templates) {
+                if (t.operatesOn(day)) {
+                    flights.add(toFlight(t, day));
+                    numbers.add(t.getFlightNumber());
+                }
+            }
+        }
+        if (flights.isEmpty()) return new long[]{0, 0};
+
+        Set<String> existing = flightJdbcRepository.findExistingKeys(numbers, from, to);
+        List<Flight> missing = new ArrayList<>(flights.size());
+        for (Flight f : flights) {
+            if (!existing.contains(FlightJdbcRepository.key(f.getFlightNumber(), f.getServiceDate()))) missing.add(f);
+        }
+
+        List<Flight> inserted = new ArrayList<>(missing.size());
+        for (int i = 0; i < missing.size(); i += batchSize) {
+            List<Flight> batch = missing.subList(i, Math.min(i + batchSize, missing.size()));
+            try {
+                transactionTemplate.executeWithoutResult(s -> batchInsertRepository.persistAll(batch));
+                inserted.addAll(batch);
+            } catch (DataIntegrityViolationException e) {
+                // a concurrent run got there first: insert one by one, skipping what now exists
+                for (Flight f : batch) {
+                    f.setId(null);
+                    try {
+                        transactionTemplate.executeWithoutResult(s -> batchInsertRepository.persistAll(List.of(f)));
+                        inserted.add(f);
+                    } catch (DataIntegrityViolationException duplicate) {
+                        // already there
+                    }
+                }
+            }
+        }
+        if (!inserted.isEmpty()) {
+            flightService.flightsCreated(inserted);
+        }
+        return new long[]{inserted.size(), flights.size() - inserted.size()};
+    }
+
+    private static Flight toFlight(ScheduleTemplate t, LocalDate day) {
+        ZonedDateTime departure = ZonedDateTime.of(day, t.getDepartureTime(), ZoneId.of(t.getTimeZone()));
+        Flight f = new Flight();
+        f.setFlightNumber(t.getFlightNumber());
+        f.setAirline(t.getAirline());
+        f.setOrigin(t.getOrigin());
+        f.setDestination(t.getDestination());
+        f.setDepartureTime(departure);
+        f.setArrivalTime(departure.plusMinutes(t.getDurationMinutes()));
+        f.setServiceDate(departure.toLocalDate());
+        f.setTotalSeats(t.getTotalSeats());
+        f.setRemainingSeats(t.getTotalSeats());
+        f.setSeatsPerRow(t.getSeatsPerRow());
+        f.setBaseFare(t.getBaseFare());
+        f.setStatus("SCHEDULED");
+        return f;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
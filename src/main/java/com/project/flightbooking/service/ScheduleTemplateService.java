@@ -0,0 +1,103 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.dto.ScheduleTemplateRequest;
+import com.project.flightbooking.model.ScheduleTemplate;
+import com.project.flightbooking.repository.ScheduleTemplateRepository;
+import com.project.flightbooking.util.Money;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Create, list and retire schedule templates. Dated flights are produced by ScheduleGenerator.
+ */
+@Service
+public class ScheduleTemplateService {
+
+    private final ScheduleTemplateRepository templateRepository;
+
+    public ScheduleTemplateService(ScheduleTemplateRepository templateRepository) {
+        this.templateRepository = templateRepository;
+    }
+
+    public ScheduleTemplate create(ScheduleTemplateRequest req) {
+        ScheduleTemplate t = new ScheduleTemplate();
+        t.setFlightNumber(required(req.getFlightNumber(), "flightNumber"));
+        t.setAirline(required(req.getAirline(), "airline"));
+        t.setOrigin(required(req.getOrigin(), "origin"));
+        t.setDestination(required(req.getDestination(), "destination"));
+        if (t.getOrigin().equalsIgnoreCase(t.getDestination())) {
+            throw new IllegalArgumentException("origin and destination must differ");
+        }
+        try {
+            t.setDepartureTime(LocalTime.parse(required(req.getDepartureTime(), "departureTime")));
+            t.setTimeZone(ZoneId.of(required(req.getTimeZone(), "timeZone")).getId());
+            t.setValidFrom(LocalDate.parse(required(req.getValidFrom(), "validFrom")));
+            t.setValidTo(LocalDate.parse(required(req.getValidTo(), "validTo")));
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid time, time zone or date: " + e.getMessage());
+        }
+        if (t.getValidTo().isBefore(t.getValidFrom())) {
+            throw new IllegalArgumentException("validTo must not be before validFrom");
+        }
+        if (req.getDurationMinutes() == null || req.getDurationMinutes() <= 0 || req.getDurationMinutes() > 24 * 60) {
+            throw new IllegalArgumentException("durationMinutes must be 1..1440");
+        }
+        if (req.getTotalSeats() == null || req.getTotalSeats() <= 0) {
+            throw new IllegalArgumentException("totalSeats must be > 0");
+        }
+        if (req.getSeatsPerRow() != null && (req.getSeatsPerRow() < 1 || req.getSeatsPerRow() > 26)) {
+            throw new IllegalArgumentException("seatsPerRow must be 1..26");
+        }
+        if (req.getBaseFare() != null && req.getBaseFare().signum() < 0) {
+            throw new IllegalArgumentException("baseFare must not be negative");
+        }
+        t.setDurationMinutes(req.getDurationMinutes());
+        t.setDaysOfWeek(parseDays(req.getDaysOfWeek()));
+        t.setTotalSeats(req.getTotalSeats());
+        t.setSeatsPerRow(req.getSeatsPerRow());
+        t.setBaseFare(req.getBaseFare() == null ? Money.zero() : Money.of(req.getBaseFare()));
+        t.setActive(true);
+        return templateRepository.save(t);
+    }
+
+    public List<ScheduleTemplate> findActive() {
+        return templateRepository.findByActiveTrueOrderById();
+    }
+
+    /** Stop generating new flights from a template; flights already generated stay. */
+    @Transactional
+    public ScheduleTemplate deactivate(Long id) {
+        ScheduleTemplate t = templateRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Schedule template not found: " + id));
+        t.setActive(false);
+        return t;
+    }
+
+    // "1234567" (ISO digits, Monday = 1) or "daily" -> bit mask, Monday = bit 0
+    private static int parseDays(String days) {
+        if (days == null || days.isBlank() || days.trim().equalsIgnoreCase("daily")) {
+            return 0x7f;
+        }
+        int mask = 0;
+        for (char c : days.trim().toCharArray()) {
+            if (c < '1' || c > '7') {
+                throw new IllegalArgumentException("daysOfWeek must be ISO day digits (Monday = 1), e.g. 135");
+            }
+            mask |= 1 << (c - '1');
+        }
+        return mask;
+    }
+
+    private static String required(String value, String field) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        return value.trim();
+    }
+}
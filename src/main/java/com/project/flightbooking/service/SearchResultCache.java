@@ -0,0 +1,215 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.dto.FlightSearchRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * SearchResultCache
+ * -----------------
+ * Bounded cache of the database rows behind FlightService.searchPage (GET /api/flights/route):
+ * route + seek position + departure window + page size. Rows are immutable FlightSearchRow
+ * values held in unmodifiable lists, so one cached page can be shared by every caller.
+ *
+ *  - Entries are grouped per route and remember the departure days (UTC) their window covers.
+ *  - Whenever a flight's seats, fare or status change (or a flight is added), only the entries of
+ *    that flight's route whose window covers its departure day are dropped. Invalidation runs
+ *    after the change commits, so a search can never re-cache the pre-commit state.
+ *  - Each route has a version, bumped on invalidation. A search only stores its result if the
+ *    version did not move while it was querying MySQL.
+ *  - Size bound (search.cache.max-entries, oldest first) and TTL (search.cache.ttl-ms).
+ *
+ * Hit / miss / eviction / invalidation counters are exposed through snapshot().
+ */
+@Service
+public class SearchResultCache {
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private static final class Entry {
+        final String route;
+        final String queryKey;
+        final long fromDay;
+        final long toDay;
+        final long expiresAt;
+        final List<FlightSearchRow> rows;
+
+        Entry(String route, String queryKey, long fromDay, long toDay, long expiresAt, List<FlightSearchRow> rows) {
+            this.route = route;
+            this.queryKey = queryKey;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.expiresAt = expiresAt;
+            this.rows = rows;
+        }
+    }
+
+    private static final class RouteEntries {
+        final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        final AtomicLong version = new AtomicLong();
+    }
+
+    private final FlightSearchIndex searchIndex;
+    private final Map<String, RouteEntries> routes = new ConcurrentHashMap<>();
+    // insertion order for size eviction; may hold entries that were already invalidated
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Value("${search.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${search.cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${search.cache.ttl-ms:30000}")
+    private long ttlMillis;
+
+    public SearchResultCache(FlightSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * Cached result for the query, or run loader and cache what it returns.
+     */
+    public List<FlightSearchRow> get(String origin, String destination, ZonedDateTime from, ZonedDateTime to,
+                                     String queryKey, Supplier<List<FlightSearchRow>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        String route = FlightSearchIndex.routeKey(origin, destination);
+        RouteEntries re = routes.computeIfAbsent(route, k -> new RouteEntries());
+        long now = System.currentTimeMillis();
+        Entry e = re.entries.get(queryKey);
+        if (e != null) {
+            if (e.expiresAt > now) {
+                hits.incrementAndGet();
+                return e.rows;
+            }
+            if (re.entries.remove(queryKey, e)) {
+                size.decrementAndGet();
+                evictions.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+
+        long version = re.version.get();
+        List<FlightSearchRow> rows = List.copyOf(loader.get());
+        Entry fresh = new Entry(route, queryKey, epochDay(from), epochDay(to), now + ttlMillis, rows);
+        if (re.version.get() == version && re.entries.put(queryKey, fresh) == null) {
+            size.incrementAndGet();
+            insertionOrder.add(fresh);
+            queued.incrementAndGet();
+            evictOverflow();
+            // an invalidation that raced the put must not leave the entry behind
+            if (re.version.get() != version && re.entries.remove(queryKey, fresh)) {
+                size.decrementAndGet();
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * The flight's seats, fare or status changed: drop cached searches that could include it,
+     * once the current transaction commits (immediately if there is none).
+     */
+    public void invalidateFlight(Long flightId) {
+        FlightSearchIndex.IndexedFlight f = searchIndex.get(flightId);
+        if (f == null) {
+            afterCommit(this::invalidateAll); // not indexed: route unknown
+        } else {
+            invalidate(f.origin, f.destination, f.departureTime);
+        }
+    }
+
+    public void invalidate(String origin, String destination, ZonedDateTime departure) {
+        String route = FlightSearchIndex.routeKey(origin, destination);
+        long day = epochDay(departure);
+        afterCommit(() -> {
+            RouteEntries re = routes.get(route);
+            if (re == null) return;
+            re.version.incrementAndGet();
+            re.entries.entrySet().removeIf(en -> {
+                boolean covers = en.getValue().fromDay <= day && day <= en.getValue().toDay;
+                if (covers) {
+                    size.decrementAndGet();
+                    invalidations.incrementAndGet();
+                }
+                return covers;
+            });
+        });
+    }
+
+    public void invalidateAll() {
+        for (RouteEntries re : routes.values()) {
+            re.version.incrementAndGet();
+            int n = re.entries.size();
+            re.entries.clear();
+            size.addAndGet(-n);
+            invalidations.addAndGet(n);
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        long h = hits.get(), m = misses.get();
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("enabled", enabled);
+        out.put("entries", Math.max(size.get(), 0));
+        out.put("hits", h);
+        out.put("misses", m);
+        out.put("hitRate", h + m == 0 ? 0.0 : (double) h / (h + m));
+        out.put("evictions", evictions.get());
+        out.put("invalidations", invalidations.get());
+        return out;
+    }
+
+    // oldest first; also keeps the queue from filling up with invalidated entries
+    private void evictOverflow() {
+        while (size.get() > maxEntries || queued.get() > 2 * maxEntries) {
+            Entry oldest = insertionOrder.poll();
+            if (oldest == null) return;
+            queued.decrementAndGet();
+            RouteEntries re = routes.get(oldest.route);
+            // stale queue items (entry already invalidated/replaced) just fall through
+            if (re != null && re.entries.remove(oldest.queryKey, oldest)) {
+                size.decrementAndGet();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static long epochDay(ZonedDateTime t) {
+        return Math.floorDiv(t.toInstant().toEpochMilli(), MILLIS_PER_DAY);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
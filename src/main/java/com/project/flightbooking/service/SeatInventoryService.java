@@ -0,0 +1,235 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.enums.BookingStatus;
+import com.project.flightbooking.enums.PaymentStatus;
+import com.project.flightbooking.model.Flight;
+import com.project.flightbooking.repository.BookingRepository;
+import com.project.flightbooking.repository.FlightRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SeatInventoryService
+ * --------------------
+ * In-process seat inventory: one lock-free counter of remaining seats per flight.
+ *
+ * Flow:
+ *  - Counters are rebuilt from bookings (not from flights.remainingSeats) on startup,
+ *    so a crash between a reservation and the next flush never loses or invents seats.
+ *  - reserve()/release() are plain CAS loops on an AtomicInteger -> no DB row lock per booking.
+ *  - Every change marks the flight dirty; flush() writes the latest counter values
+ *    back to the flights table in JDBC batches (write-behind).
+ *
+ * Bookings stay the source of truth: a flight holds seats for every PENDING/CONFIRMED booking
+ * and for CANCELLED bookings that were paid for and are still waiting on their refund.
+ *
+ * Only active with the in-memory reservation strategy; with the database strategies the
+ * flusher would overwrite their updates.
+ *
+ * Single instance only: two processes would each sell the full inventory from their own counters
+ * and their flushers would overwrite each other's remaining_seats. Startup fails unless
+ * deployment.single-node=true confirms that only one instance runs against the database.
+ */
+@Service
+@ConditionalOnProperty(name = "booking.reservation-strategy", havingValue = "in-memory")
+public class SeatInventoryService {
+
+    private final FlightRepository flightRepository;
+    private final BookingRepository bookingRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    // flightId -> remaining seats
+    private final Map<Long, AtomicInteger> counters = new ConcurrentHashMap<>();
+    // flights whose counter changed since the last flush
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    @Value("${inventory.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    public SeatInventoryService(FlightRepository flightRepository,
+                                BookingRepository bookingRepository,
+                                JdbcTemplate jdbcTemplate,
+                                @Value("${deployment.single-node:false}") boolean singleNode) {
+        if (!singleNode) {
+            throw new IllegalStateException("The in-memory reservation strategy keeps seat counts in this process only. "
+                    + "Set deployment.single-node=true if exactly one instance runs, or use a database strategy "
+                    + "(booking.reservation-strategy=conditional-update)");
+        }
+        this.flightRepository = flightRepository;
+        this.bookingRepository = bookingRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Recovery path: rebuild every counter as totalSeats - seats held by bookings.
+     * Flights touched by requests before this runs were already loaded lazily (same formula),
+     * so putIfAbsent keeps their live value.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0) // before FlightSearchIndex.load reads the counters
+    public void rebuildFromBookings() {
+        Map<Long, Integer> held = new HashMap<>();
+        for (Object[] row : bookingRepository.sumHeldSeatsByFlight(heldStatuses(), BookingStatus.CANCELLED, PaymentStatus.SUCCESS)) {
+            held.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+
+        int loaded = 0;
+        for (Object[] row : flightRepository.findAllSeatCapacities()) {
+            Long flightId = (Long) row[0];
+            int remaining = Math.max(0, (Integer) row[1] - held.getOrDefault(flightId, 0));
+            if (counters.putIfAbsent(flightId, new AtomicInteger(remaining)) == null) {
+                dirty.add(flightId); // persist the recovered value on next flush
+                loaded++;
+            }
+        }
+        System.out.println("Seat inventory rebuilt from bookings for " + loaded + " flights");
+    }
+
+    /**
+     * Register a newly created flight so the first reservation doesn't need a recovery query.
+     */
+    public void register(Flight flight) {
+        counters.put(flight.getId(), new AtomicInteger(flight.getRemainingSeats()));
+    }
+
+    /**
+     * Try to take seats from the flight. Lock-free; returns false if not enough seats remain.
+     */
+    public boolean tryReserve(Long flightId, int seats) {
+        AtomicInteger counter = counterFor(flightId);
+        while (true) {
+            int current = counter.get();
+            if (current < seats) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - seats)) {
+                dirty.add(flightId);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Give seats back to the flight (payment failure, refund, rollback).
+     * Callers must only release what a booking actually reserved.
+     */
+    public void release(Long flightId, int seats) {
+        counterFor(flightId).addAndGet(seats);
+        dirty.add(flightId);
+    }
+
+    /**
+     * Reserve seats as part of the current transaction: if the transaction rolls back
+     * (e.g. booking insert fails) the seats go straight back into the counter.
+     */
+    public boolean tryReserveInTransaction(Long flightId, int seats) {
+        if (!tryReserve(flightId, seats)) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release(flightId, seats);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Release seats once the current transaction commits, so a rolled back
+     * cancellation/refund never hands out seats that are still booked.
+     */
+    public void releaseAfterCommit(Long flightId, int seats) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release(flightId, seats);
+                }
+            });
+        } else {
+            release(flightId, seats);
+        }
+    }
+
+    public int remaining(Long flightId) {
+        return counterFor(flightId).get();
+    }
+
+    /**
+     * Write-behind flusher: copies current counter values to flights.remaining_seats in JDBC batches.
+     * The id is removed from the dirty set before its value is read, so a concurrent
+     * reservation simply marks it dirty again for the next round.
+     */
+    @Scheduled(fixedDelayString = "${inventory.flush-interval-ms:200}")
+    public void flush() {
+        while (!dirty.isEmpty()) {
+            List<Object[]> batch = new ArrayList<>(Math.min(dirty.size(), flushBatchSize));
+            Iterator<Long> it = dirty.iterator();
+            while (it.hasNext() && batch.size() < flushBatchSize) {
+                Long flightId = it.next();
+                it.remove();
+                AtomicInteger counter = counters.get(flightId);
+                if (counter != null) {
+                    batch.add(new Object[]{counter.get(), flightId});
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                // no version bump: only the counters write remaining_seats, and bumping @Version would
+                // fail concurrent entity saves of the flight (e.g. an admin cancel) for nothing
+                jdbcTemplate.batchUpdate("update flights set remaining_seats = ? where id = ?", batch);
+            } catch (RuntimeException e) {
+                // keep them dirty and retry on the next tick
+                for (Object[] row : batch) dirty.add((Long) row[1]);
+                System.out.println("Seat inventory flush failed, will retry: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private AtomicInteger counterFor(Long flightId) {
+        // Lazy recovery for flights not loaded yet (startup race or flight created on another node)
+        return counters.computeIfAbsent(flightId, this::recoverCounter);
+    }
+
+    private AtomicInteger recoverCounter(Long flightId) {
+        Flight flight = flightRepository.findById(flightId)
+                .orElseThrow(() -> new IllegalArgumentException("Flight not found: " + flightId));
+        long held = bookingRepository.sumHeldSeatsForFlight(flightId, heldStatuses(), BookingStatus.CANCELLED, PaymentStatus.SUCCESS);
+        return new AtomicInteger((int) Math.max(0, flight.getTotalSeats() - held));
+    }
+
+    private static List<BookingStatus> heldStatuses() {
+        return List.of(BookingStatus.PENDING, BookingStatus.CONFIRMED);
+    }
+}
@@ -0,0 +1,176 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.enums.BookingStatus;
+import com.project.flightbooking.enums.PaymentStatus;
+import com.project.flightbooking.repository.BookingRepository;
+import com.project.flightbooking.util.SeatBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SeatMapService
+ * --------------
+ * Per-flight seat maps (which exact seats are taken), packed as SeatBitmaps.
+ *
+ *  - flights.seat_map is the seat map. Holds and releases run in the caller's transaction:
+ *    the flights row is locked, the bitmap is read from the column, bits are flipped and the
+ *    bitmap is written back, so every instance sees the same seats and a rolled back booking
+ *    frees its seats with it. Locking the flights row first matches releases and sharding.
+ *  - A flight without a stored map (or whose capacity changed) gets one built from the seat
+ *    numbers of bookings that still hold seats.
+ *  - Reads (the seat map endpoint) are served from a per-node cache that is at most
+ *    seatmap.cache-ttl-ms old; idle entries, e.g. of departed flights, are evicted.
+ *  - Seat counts are still enforced by the reservation strategy; the seat map only decides
+ *    WHICH seats a booking gets. Bookings made without seat selection have no seat numbers.
+ */
+@Service
+public class SeatMapService {
+
+    public static final int DEFAULT_SEATS_PER_ROW = 6;
+
+    private record Cached(SeatBitmap map, long loadedAt) {
+    }
+
+    private final BookingRepository bookingRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, Cached> cache = new ConcurrentHashMap<>();
+
+    @Value("${seatmap.cache-ttl-ms:1000}")
+    private long cacheTtlMs;
+
+    public SeatMapService(BookingRepository bookingRepository,
+                          JdbcTemplate jdbcTemplate) {
+        this.bookingRepository = bookingRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Current seat map for display. May be up to seatmap.cache-ttl-ms old.
+     */
+    public SeatBitmap mapFor(Long flightId) {
+        long now = System.currentTimeMillis();
+        Cached c = cache.get(flightId);
+        if (c == null || now - c.loadedAt() > cacheTtlMs) {
+            c = new Cached(read(flightId, false), now);
+            cache.put(flightId, c);
+        }
+        return c.map();
+    }
+
+    /**
+     * Hold the exact seats requested ("12A", "12B"). All-or-nothing.
+     * Returns the normalised seat numbers, e.g. "12A,12B". Runs in the caller's transaction.
+     */
+    public String holdSeats(Long flightId, List<String> labels) {
+        SeatBitmap map = read(flightId, true);
+        int[] seats = new int[labels.size()];
+        for (int i = 0; i < seats.length; i++) {
+            seats[i] = map.indexOf(labels.get(i));
+        }
+        if (Arrays.stream(seats).distinct().count() != seats.length) {
+            throw new IllegalArgumentException("The same seat was selected more than once: " + labels);
+        }
+        if (!map.holdAll(seats)) {
+            throw new IllegalStateException("One or more selected seats are no longer available: " + labels);
+        }
+        write(flightId, map);
+        return format(map, seats);
+    }
+
+    /**
+     * Hold n seats, adjacent in one row when possible. Returns the seat numbers.
+     * Runs in the caller's transaction.
+     */
+    public String holdBest(Long flightId, int n) {
+        SeatBitmap map = read(flightId, true);
+        int[] seats = map.holdBest(n);
+        if (seats == null) {
+            throw new IllegalStateException("Not enough free seats on the seat map. free=" + map.freeSeats());
+        }
+        write(flightId, map);
+        return format(map, seats);
+    }
+
+    /**
+     * Free seats as part of the caller's transaction (cancellation, payment failure, refund).
+     * seatNumbers is a comma-separated list such as "12A,12B".
+     */
+    public void release(Long flightId, String seatNumbers) {
+        if (seatNumbers == null || seatNumbers.isBlank()) return;
+        SeatBitmap map = read(flightId, true);
+        map.releaseAll(parse(map, seatNumbers));
+        write(flightId, map);
+    }
+
+    @Scheduled(fixedDelayString = "${seatmap.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - cacheTtlMs;
+        cache.values().removeIf(c -> c.loadedAt() < cutoff);
+    }
+
+    // forUpdate: lock the flights row until the caller's transaction ends
+    private SeatBitmap read(Long flightId, boolean forUpdate) {
+        List<SeatBitmap> rows = jdbcTemplate.query(
+                "select total_seats, seats_per_row, seat_map from flights where id = ?" + (forUpdate ? " for update" : ""),
+                (rs, i) -> {
+                    int capacity = rs.getInt("total_seats");
+                    int perRow = rs.getObject("seats_per_row") != null ? rs.getInt("seats_per_row") : DEFAULT_SEATS_PER_ROW;
+                    SeatBitmap map = SeatBitmap.fromBytes(capacity, perRow, rs.getBytes("seat_map"));
+                    return map != null ? map : rebuild(flightId, capacity, perRow);
+                }, flightId);
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Flight not found: " + flightId);
+        }
+        return rows.get(0);
+    }
+
+    private SeatBitmap rebuild(Long flightId, int capacity, int perRow) {
+        SeatBitmap map = new SeatBitmap(capacity, perRow);
+        List<String> taken = bookingRepository.findHeldSeatNumbers(flightId,
+                List.of(BookingStatus.PENDING, BookingStatus.CONFIRMED), BookingStatus.CANCELLED, PaymentStatus.SUCCESS);
+        for (String seatNumbers : taken) {
+            map.holdAll(parse(map, seatNumbers));
+        }
+        return map;
+    }
+
+    private void write(Long flightId, SeatBitmap map) {
+        jdbcTemplate.update("update flights set seat_map = ? where id = ?", map.toBytes(), flightId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.put(flightId, new Cached(map, System.currentTimeMillis()));
+                }
+            });
+        }
+    }
+
+    private static String format(SeatBitmap map, int[] seats) {
+        StringBuilder sb = new StringBuilder(seats.length * 4);
+        for (int s : seats) {
+            if (sb.length() > 0) sb.append(',');
+            sb.append(map.label(s));
+        }
+        return sb.toString();
+    }
+
+    private static int[] parse(SeatBitmap map, String seatNumbers) {
+        String[] labels = seatNumbers.split(",");
+        int[] seats = new int[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            seats[i] = map.indexOf(labels[i]);
+        }
+        return seats;
+    }
+}
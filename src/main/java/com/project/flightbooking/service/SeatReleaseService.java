@@ -0,0 +1,69 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.model.Booking;
+import com.project.flightbooking.model.Flight;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SeatReleaseService
+ * ------------------
+ * Single place where seats held by a booking go back to the flight
+ * (payment failure, refund, hold expiry, user cancellation).
+ * Runs as part of the caller's transaction, through the active reservation strategy;
+ * selected seats are freed on the seat map in the same transaction.
+ * Seats are offered to the flight's waitlist first (WaitlistService.handOver, same transaction);
+ * only what the waiters cannot use goes back on sale.
+ */
+@Service
+public class SeatReleaseService {
+
+    private final SeatReservationExecutor reservationExecutor;
+    private final SeatMapService seatMapService;
+    // looked up lazily: WaitlistService depends on HoldExpiryService, which releases seats through here
+    private final ObjectProvider<WaitlistService> waitlistService;
+
+    public SeatReleaseService(SeatReservationExecutor reservationExecutor,
+                              SeatMapService seatMapService,
+                              ObjectProvider<WaitlistService> waitlistService) {
+        this.reservationExecutor = reservationExecutor;
+        this.seatMapService = seatMapService;
+        this.waitlistService = waitlistService;
+    }
+
+    public void release(Booking booking) {
+        releaseAll(List.of(booking));
+    }
+
+    /**
+     * Release many bookings at once: seat counts are summed per flight and applied in
+     * ascending flight id order (one update per flight, consistent lock order).
+     */
+    public void releaseAll(List<Booking> bookings) {
+        Map<Long, Integer> seatsByFlight = new TreeMap<>();
+        Map<Long, String> seatNumbersByFlight = new TreeMap<>();
+        Map<Long, Flight> flights = new HashMap<>();
+        for (Booking b : bookings) {
+            Long flightId = b.getFlight().getId();
+            int seats = b.getSeatCount() != null ? b.getSeatCount() : 0;
+            seatsByFlight.merge(flightId, seats, Integer::sum);
+            flights.put(flightId, b.getFlight());
+            if (b.getSeatNumbers() != null && !b.getSeatNumbers().isBlank()) {
+                seatNumbersByFlight.merge(flightId, b.getSeatNumbers(), (a, c) -> a + "," + c);
+            }
+        }
+        seatNumbersByFlight.forEach(seatMapService::release);
+        seatsByFlight.forEach((flightId, seats) -> {
+            // seats handed to waiters stay taken: they move from the released booking to the new holds
+            int onSale = seats - waitlistService.getObject().handOver(flights.get(flightId), seats);
+            if (onSale > 0) {
+                reservationExecutor.release(flightId, onSale);
+            }
+        });
+    }
+}
@@ -0,0 +1,197 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.model.Flight;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * SeatReservationExecutor
+ * -----------------------
+ * Runs a reservation against the active SeatReservationStrategy:
+ *  - opens the transaction (each retry gets a fresh one, so it sees fresh data),
+ *  - checks each flight is bookable and takes the seats, visiting flights in ascending id
+ *    order so two multi-flight reservations can never lock rows in opposite orders (no deadlocks),
+ *  - runs the caller's work (e.g. inserting the booking) in the same transaction,
+ *  - reports committed seat changes to FlightSearchIndex, SearchResultCache and FareCalendarService,
+ *  - routes flights with sharded inventory to ShardedSeatCounterService instead of the strategy,
+ *  - retries retryable failures (and deadlock victims) with bounded, jittered exponential backoff,
+ *  - records outcome and latency in ReservationMetrics.
+ */
+@Service
+public class SeatReservationExecutor {
+
+    private final SeatReservationStrategy strategy;
+    private final ShardedSeatCounterService shardedCounter;
+    private final FlightSearchIndex searchIndex;
+    private final SearchResultCache searchCache;
+    private final FareCalendarService fareCalendar;
+    private final ReservationMetrics metrics;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${booking.reservation.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${booking.reservation.backoff-base-ms:2}")
+    private long backoffBaseMs;
+
+    @Value("${booking.reservation.backoff-max-ms:50}")
+    private long backoffMaxMs;
+
+    public SeatReservationExecutor(SeatReservationStrategy strategy,
+                                   ShardedSeatCounterService shardedCounter,
+                                   FlightSearchIndex searchIndex,
+                                   SearchResultCache searchCache,
+                                   FareCalendarService fareCalendar,
+                                   ReservationMetrics metrics,
+                                   PlatformTransactionManager transactionManager) {
+        this.strategy = strategy;
+        this.shardedCounter = shardedCounter;
+        this.searchIndex = searchIndex;
+        this.searchCache = searchCache;
+        this.fareCalendar = fareCalendar;
+        this.metrics = metrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Take seats on one flight and run onReserved with the loaded flight, all in one transaction.
+     */
+    public <T> T reserve(Long flightId, int seats, Function<Flight, T> onReserved) {
+        TreeMap<Long, Integer> single = new TreeMap<>();
+        single.put(flightId, seats);
+        return reserveAll(single, flights -> onReserved.apply(flights.get(flightId)));
+    }
+
+    /**
+     * Take seats on several flights atomically: all flights are taken (in ascending id order)
+     * and onReserved runs in the same transaction, or nothing is reserved.
+     * onReserved receives the loaded flights keyed by id, in ascending id order.
+     */
+    public <T> T reserveAll(SortedMap<Long, Integer> seatsByFlight, Function<Map<Long, Flight>, T> onReserved) {
+        return runWithRetry(() -> {
+            Map<Long, Flight> flights = new LinkedHashMap<>();
+            for (Map.Entry<Long, Integer> e : seatsByFlight.entrySet()) {
+                Flight flight = loadBookable(e.getKey());
+                if (!tryTake(flight, e.getValue())) {
+                    throw new IllegalStateException("Not enough seats available on flight " + flight.getFlightNumber()
+                            + ". remaining=" + remaining(flight));
+                }
+                flights.put(flight.getId(), flight);
+            }
+            return onReserved.apply(flights);
+        });
+    }
+
+    /**
+     * Group commit for one flight: the flight is loaded (and locked, depending on the strategy)
+     * once, and work takes seats for many requests with tryTake() inside the same transaction.
+     * Requests that don't fit are simply skipped by work; the whole batch commits once.
+     */
+    public <T> T reserveBatch(Long flightId, Function<Flight, T> work) {
+        return runWithRetry(() -> work.apply(loadBookable(flightId)));
+    }
+
+    /**
+     * Take seats on a flight handed to reserveBatch's work. Only valid inside that transaction.
+     */
+    public boolean tryTake(Flight flight, int seats) {
+        boolean taken = ShardedSeatCounterService.isSharded(flight)
+                ? shardedCounter.tryTake(flight, seats)
+                : strategy.tryTake(flight, seats);
+        if (taken) seatsChanged(flight.getId(), -seats);
+        return taken;
+    }
+
+    public int remaining(Flight flight) {
+        return ShardedSeatCounterService.isSharded(flight)
+                ? shardedCounter.remaining(flight.getId())
+                : strategy.remaining(flight);
+    }
+
+    private Flight loadBookable(Long flightId) {
+        Flight flight = load(flightId);
+        if (!"SCHEDULED".equalsIgnoreCase(flight.getStatus())) {
+            throw new IllegalStateException("Flight " + flight.getFlightNumber() + " is not available for booking: " + flight.getStatus());
+        }
+        return flight;
+    }
+
+    // sharded flights are read without locking the flight row; routing after load goes by the
+    // loaded row, so a flight whose sharding was just switched off falls back to the strategy
+    private Flight load(Long flightId) {
+        if (shardedCounter.isSharded(flightId)) {
+            Flight flight = shardedCounter.load(flightId);
+            if (ShardedSeatCounterService.isSharded(flight)) {
+                return flight;
+            }
+        }
+        return strategy.load(flightId);
+    }
+
+    private <T> T runWithRetry(Supplier<T> inTransaction) {
+        long start = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = transactionTemplate.execute(status -> inTransaction.get());
+                metrics.recordSuccess(System.nanoTime() - start);
+                return result;
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                metrics.recordRejected(System.nanoTime() - start);
+                throw e;
+            } catch (RuntimeException e) {
+                boolean retryable = strategy.isRetryable(e) || e instanceof PessimisticLockingFailureException;
+                if (!retryable || attempt >= maxAttempts) {
+                    metrics.recordAborted(System.nanoTime() - start);
+                    if (retryable) {
+                        throw new IllegalStateException("Flight is busy, please retry the booking", e);
+                    }
+                    throw e;
+                }
+                metrics.recordRetry();
+                backoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Release seats as part of the caller's transaction.
+     */
+    public void release(Long flightId, int seats) {
+        if (!shardedCounter.releaseIfSharded(flightId, seats)) {
+            strategy.release(flightId, seats);
+        }
+        seatsChanged(flightId, seats);
+    }
+
+    private void seatsChanged(Long flightId, int delta) {
+        searchIndex.seatsChanged(flightId, delta);
+        searchCache.invalidateFlight(flightId);
+        fareCalendar.flightChanged(flightId);
+    }
+
+    public void onFlightCreated(Flight flight) {
+        strategy.onFlightCreated(flight);
+    }
+
+    // "full jitter": sleep a random time up to base * 2^(attempt-1), capped
+    private void backoff(int attempt) {
+        long cap = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying reservation");
+        }
+    }
+}
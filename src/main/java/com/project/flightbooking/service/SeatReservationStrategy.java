@@ -0,0 +1,52 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.model.Flight;
+
+/**
+ * SeatReservationStrategy
+ * -----------------------
+ * How seats are taken from / returned to a flight. Exactly one implementation is active,
+ * selected per deployment with the property:
+ *
+ *   booking.reservation-strategy = conditional-update (default) | pessimistic | optimistic | in-memory
+ *
+ * The database strategies are safe with several instances. in-memory keeps the counters in one
+ * process and refuses to start unless deployment.single-node=true.
+ *
+ * All methods run inside the transaction opened by SeatReservationExecutor (or the caller's
+ * transaction for release), so whatever a strategy writes commits or rolls back with the booking.
+ */
+public interface SeatReservationStrategy {
+
+    /** Name reported in reservation metrics. */
+    String name();
+
+    /** Load the flight for a reservation. Strategies that lock do it here. */
+    Flight load(Long flightId);
+
+    /** Take seats from a flight returned by load(). Returns false if not enough seats are left. */
+    boolean tryTake(Flight flight, int seats);
+
+    /** Give seats back (payment failure, refund, cancellation). */
+    void release(Long flightId, int seats);
+
+    /** Best-effort remaining seats, used in error messages. */
+    int remaining(Flight flight);
+
+    /** Whether a failed attempt may be retried in a fresh transaction (e.g. version conflict). */
+    default boolean isRetryable(RuntimeException e) {
+        return false;
+    }
+
+    /**
+     * Whether hot flights may move their seats to ShardedSeatCounterService's shard rows.
+     * Only strategies that keep the seat count in the database can hand it over.
+     */
+    default boolean supportsSharding() {
+        return true;
+    }
+
+    /** Hook for strategies that keep their own state per flight. */
+    default void onFlightCreated(Flight flight) {
+    }
+}
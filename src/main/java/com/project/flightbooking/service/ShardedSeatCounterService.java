@@ -0,0 +1,289 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.model.Flight;
+import com.project.flightbooking.model.FlightSeatShard;
+import com.project.flightbooking.repository.FlightRepository;
+import com.project.flightbooking.repository.FlightSeatShardRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ShardedSeatCounterService
+ * -------------------------
+ * Opt-in inventory for hot flights. Instead of every reservation updating the single
+ * flights.remainingSeats row (and queueing on its row lock), the flight's remaining seats are
+ * split across N rows of flight_seat_shards:
+ *
+ *  - tryTake() does a conditional decrement on a random shard that has enough seats; if it ran
+ *    dry meanwhile it tries the next shards up. Only when no single shard can cover the request
+ *    are the remaining shards locked and the seats taken across several of them. Within a
+ *    transaction shards are always locked in ascending shardNo, like rebalance().
+ *  - releaseIfSharded() gives seats back to a random shard. It routes on the flight row read
+ *    under lock in the caller's transaction, never on the cached shard counts, so a release
+ *    cannot land on storage that enable()/disable() is switching away from.
+ *  - rebalance() periodically evens the shards out, so one shard running dry does not push
+ *    every request into the slow multi-shard path.
+ *
+ * While a flight is sharded, the shards are authoritative and flights.remainingSeats is left
+ * as it was when sharding was enabled; disabling sharding folds the shards back into it.
+ * Only available with strategies that support it (SeatReservationStrategy.supportsSharding()).
+ */
+@Service
+public class ShardedSeatCounterService {
+
+    private final FlightRepository flightRepository;
+    private final FlightSeatShardRepository shardRepository;
+    private final SeatReservationStrategy strategy;
+    private final TransactionTemplate transactionTemplate;
+
+    // flightId -> shard count; refreshed from the database on every rebalance so all nodes converge
+    private final Map<Long, Integer> shardCounts = new ConcurrentHashMap<>();
+
+    @Value("${inventory.shards.max:64}")
+    private int maxShards;
+
+    public ShardedSeatCounterService(FlightRepository flightRepository,
+                                     FlightSeatShardRepository shardRepository,
+                                     SeatReservationStrategy strategy,
+                                     PlatformTransactionManager transactionManager) {
+        this.flightRepository = flightRepository;
+        this.shardRepository = shardRepository;
+        this.strategy = strategy;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void loadShardedFlights() {
+        refreshShardedFlights();
+        if (!shardCounts.isEmpty()) {
+            System.out.println("Sharded seat inventory active for " + shardCounts.size() + " flights");
+        }
+    }
+
+    public boolean isSharded(Long flightId) {
+        return shardCounts.containsKey(flightId);
+    }
+
+    public static boolean isSharded(Flight flight) {
+        return flight.getSeatShards() != null && flight.getSeatShards() > 0;
+    }
+
+    /** Load a sharded flight without locking its row; the shards carry the contention instead. */
+    public Flight load(Long flightId) {
+        return flightRepository.findById(flightId)
+                .orElseThrow(() -> new IllegalArgumentException("Flight not found: " + flightId));
+    }
+
+    /**
+     * Take seats from the flight's shards. Must run inside the reservation transaction.
+     * Shards are only ever locked in ascending shardNo within a transaction (a failed
+     * conditional decrement locks its row too), the order takeAcrossShards() and rebalance()
+     * use, so reservations, coalesced batches and the rebalancer cannot deadlock.
+     */
+    public boolean tryTake(Flight flight, int seats) {
+        Long flightId = flight.getId();
+        TreeSet<Integer> locked = lockedShards(flightId);
+        // shards this transaction already holds (earlier requests of a batch) cost no new lock
+        for (int shardNo : locked) {
+            if (shardRepository.decrementIfAvailable(flightId, shardNo, seats) == 1) {
+                return true;
+            }
+        }
+        // a shard above the held ones that looked big enough: a random one first, so concurrent
+        // reservations spread out, then the next ones up in order
+        int floor = locked.isEmpty() ? -1 : locked.last();
+        List<Integer> candidates = new ArrayList<>();
+        for (Object[] row : shardRepository.findRemainingByShard(flightId)) {
+            int shardNo = ((Number) row[0]).intValue();
+            if (shardNo > floor && ((Number) row[1]).intValue() >= seats) candidates.add(shardNo);
+        }
+        int first = locked.isEmpty() && !candidates.isEmpty() ? ThreadLocalRandom.current().nextInt(candidates.size()) : 0;
+        for (int i = first; i < candidates.size(); i++) {
+            int shardNo = candidates.get(i);
+            locked.add(shardNo);
+            if (shardRepository.decrementIfAvailable(flightId, shardNo, seats) == 1) {
+                return true;
+            }
+        }
+        return takeAcrossShards(flightId, seats, locked);
+    }
+
+    // no single shard can cover the request: lock every shard above the held ones, in order, and
+    // take from several. Near sell-out, seats left in shards below a random first pick are out of
+    // reach for the rest of this transaction; rebalance() moves them up again.
+    private boolean takeAcrossShards(Long flightId, int seats, TreeSet<Integer> locked) {
+        int floor = locked.isEmpty() ? -1 : locked.last();
+        List<Object[]> shards = shardRepository.lockShardsAfter(flightId, locked.isEmpty() ? List.of(-1) : locked, floor);
+        int total = 0;
+        for (Object[] row : shards) {
+            locked.add(((Number) row[0]).intValue());
+            total += ((Number) row[1]).intValue();
+        }
+        if (total < seats) {
+            return false;
+        }
+        int needed = seats;
+        for (Object[] row : shards) {
+            int take = Math.min(needed, ((Number) row[1]).intValue());
+            if (take > 0) {
+                shardRepository.decrementIfAvailable(flightId, ((Number) row[0]).intValue(), take);
+            }
+            needed -= take;
+            if (needed == 0) break;
+        }
+        return true;
+    }
+
+    // Shards of the flight locked by the current transaction, forgotten when it ends
+    private static TreeSet<Integer> lockedShards(Long flightId) {
+        ShardLocks key = new ShardLocks(flightId);
+        @SuppressWarnings("unchecked")
+        TreeSet<Integer> locked = (TreeSet<Integer>) TransactionSynchronizationManager.getResource(key);
+        if (locked == null) {
+            locked = new TreeSet<>();
+            TransactionSynchronizationManager.bindResource(key, locked);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(key);
+                }
+            });
+        }
+        return locked;
+    }
+
+    private record ShardLocks(Long flightId) {
+    }
+
+    /**
+     * Give seats back to a random shard if the flight is sharded, as part of the caller's
+     * transaction; false (nothing done) if it is not. The flight row stays locked until that
+     * transaction ends.
+     */
+    public boolean releaseIfSharded(Long flightId, int seats) {
+        if (!strategy.supportsSharding()) return false;
+        Integer n = flightRepository.findSeatShardsForUpdate(flightId);
+        if (n == null || n <= 0) return false;
+        shardRepository.increment(flightId, ThreadLocalRandom.current().nextInt(n), seats);
+        return true;
+    }
+
+    public int remaining(Long flightId) {
+        return (int) shardRepository.sumRemainingSeats(flightId);
+    }
+
+    /**
+     * Split the flight's remaining seats across the given number of shards.
+     */
+    public void enable(Long flightId, int shards) {
+        if (!strategy.supportsSharding()) {
+            throw new IllegalStateException("Sharded inventory needs a database reservation strategy; active strategy is " + strategy.name());
+        }
+        if (shards < 2 || shards > maxShards) {
+            throw new IllegalArgumentException("shards must be between 2 and " + maxShards);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Flight flight = flightRepository.findByIdForUpdate(flightId)
+                    .orElseThrow(() -> new IllegalArgumentException("Flight not found: " + flightId));
+            if (flight.getSeatShards() != null && flight.getSeatShards() > 0) {
+                throw new IllegalStateException("Flight " + flight.getFlightNumber() + " is already sharded");
+            }
+            int remaining = flight.getRemainingSeats();
+            for (int k = 0; k < shards; k++) {
+                // spread the remainder over the first shards
+                int seats = remaining / shards + (k < remaining % shards ? 1 : 0);
+                shardRepository.save(new FlightSeatShard(null, flight, k, seats));
+            }
+            flight.setSeatShards(shards);
+            flightRepository.save(flight);
+            afterCommit(() -> shardCounts.put(flightId, shards));
+        });
+        System.out.println("Seat inventory of flight " + flightId + " split into " + shards + " shards");
+    }
+
+    /**
+     * Fold the shards back into flights.remainingSeats and drop them.
+     */
+    public void disable(Long flightId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Flight flight = flightRepository.findByIdForUpdate(flightId)
+                    .orElseThrow(() -> new IllegalArgumentException("Flight not found: " + flightId));
+            if (flight.getSeatShards() == null || flight.getSeatShards() <= 0) {
+                throw new IllegalStateException("Flight " + flight.getFlightNumber() + " is not sharded");
+            }
+            int total = shardRepository.findAllForUpdate(flightId).stream()
+                    .mapToInt(FlightSeatShard::getRemainingSeats).sum();
+            shardRepository.deleteByFlightId(flightId);
+            flight.setRemainingSeats(total);
+            flight.setSeatShards(null);
+            flightRepository.save(flight);
+            afterCommit(() -> shardCounts.remove(flightId));
+        });
+        System.out.println("Seat inventory of flight " + flightId + " merged back into one counter");
+    }
+
+    /**
+     * Even out every sharded flight's shards. Each flight is rebalanced in its own short
+     * transaction, locking shards in shardNo order like takeAcrossShards().
+     */
+    @Scheduled(fixedDelayString = "${inventory.shards.rebalance-interval-ms:5000}")
+    public void rebalance() {
+        refreshShardedFlights();
+        for (Long flightId : shardCounts.keySet()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> rebalanceFlight(flightId));
+            } catch (RuntimeException e) {
+                // a busy flight is simply rebalanced on the next run
+                System.out.println("Shard rebalance skipped for flight " + flightId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void rebalanceFlight(Long flightId) {
+        List<FlightSeatShard> shards = shardRepository.findAllForUpdate(flightId);
+        if (shards.isEmpty()) return;
+        int total = 0, min = Integer.MAX_VALUE, max = 0;
+        for (FlightSeatShard s : shards) {
+            total += s.getRemainingSeats();
+            min = Math.min(min, s.getRemainingSeats());
+            max = Math.max(max, s.getRemainingSeats());
+        }
+        if (max - min <= 1) return; // already even
+        int n = shards.size();
+        for (int k = 0; k < n; k++) {
+            shards.get(k).setRemainingSeats(total / n + (k < total % n ? 1 : 0));
+        }
+        shardRepository.saveAll(shards);
+    }
+
+    private void refreshShardedFlights() {
+        Map<Long, Integer> current = new ConcurrentHashMap<>();
+        for (Object[] row : flightRepository.findShardedFlights()) {
+            current.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        shardCounts.keySet().retainAll(current.keySet());
+        shardCounts.putAll(current);
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
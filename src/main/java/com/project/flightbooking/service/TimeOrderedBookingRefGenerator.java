@@ -0,0 +1,78 @@
+package com.project.flightbooking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TimeOrderedBookingRefGenerator
+ * ------------------------------
+ * Snowflake-style references: a 60-bit number
+ *
+ *   [ 40 bits: 10 ms ticks since 2024-01-01 | 8 bits: node id | 12 bits: sequence ]
+ *
+ * written as 12 Crockford base32 characters (0-9, A-Z without I, L, O, U), e.g. "BK-0J5Z8Q3M1C2A".
+ *
+ *  - Unique without coordination as long as every node has its own booking.ref.node-id (0-255).
+ *    Without one the generator refuses to start, unless deployment.single-node=true (node id 0).
+ *  - Monotonic per node: one CAS on an AtomicLong; 4096 references per tick per node, and if
+ *    a tick's sequence runs out (or the clock steps back) the generator borrows the next tick
+ *    instead of sleeping.
+ *  - Fixed width and an ASCII-ordered alphabet, so references sort by creation time and new
+ *    rows land at the right edge of idx_booking_ref instead of random pages.
+ *  - One char[] and one String per reference; no SecureRandom.
+ */
+@Service
+@ConditionalOnProperty(name = "booking.ref-generator", havingValue = "time-ordered", matchIfMissing = true)
+public class TimeOrderedBookingRefGenerator implements BookingRefGenerator {
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final long TICK_MILLIS = 10;
+    private static final int NODE_BITS = 8;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int CHARS = 12; // 60 bits / 5
+
+    private final long nodeBits;
+    // (tick << SEQUENCE_BITS) | sequence of the last reference handed out
+    private final AtomicLong last = new AtomicLong();
+
+    public TimeOrderedBookingRefGenerator(@Value("${booking.ref.node-id:-1}") int nodeId,
+                                          @Value("${deployment.single-node:false}") boolean singleNode) {
+        if (nodeId < 0) {
+            // a derived id (e.g. a hash of host and pid) could collide with another node's
+            if (!singleNode) {
+                throw new IllegalStateException("booking.ref.node-id is not set. Give every instance its own id (0.."
+                        + ((1 << NODE_BITS) - 1) + "), set deployment.single-node=true if exactly one instance runs, "
+                        + "or use booking.ref-generator=uuid");
+            }
+            nodeId = 0;
+        }
+        if (nodeId >= 1 << NODE_BITS) {
+            throw new IllegalArgumentException("booking.ref.node-id must be 0.." + ((1 << NODE_BITS) - 1));
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    @Override
+    public String next(String prefix) {
+        long nowTick = (System.currentTimeMillis() - EPOCH_MILLIS) / TICK_MILLIS;
+        // sequence overflow simply carries into the tick
+        long state = last.updateAndGet(prev -> Math.max(prev + 1, nowTick << SEQUENCE_BITS));
+        long tick = state >>> SEQUENCE_BITS;
+        long sequence = state & ((1L << SEQUENCE_BITS) - 1);
+        long id = (tick << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | sequence;
+
+        int p = prefix.length();
+        char[] out = new char[p + 1 + CHARS];
+        prefix.getChars(0, p, out, 0);
+        out[p] = '-';
+        for (int i = out.length - 1; i > p; i--) {
+            out[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(out);
+    }
+}
@@ -0,0 +1,20 @@
+package com.project.flightbooking.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * The original scheme: first 8 hex chars of a random UUID, e.g. "BK-3F9A1C2E".
+ * Kept for deployments that depend on the old format; collisions become likely at high volume.
+ */
+@Service
+@ConditionalOnProperty(name = "booking.ref-generator", havingValue = "uuid")
+public class UuidBookingRefGenerator implements BookingRefGenerator {
+
+    @Override
+    public String next(String prefix) {
+        return prefix + "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+}
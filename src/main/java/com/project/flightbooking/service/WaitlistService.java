@@ -0,0 +1,297 @@
+package com.project.flightbooking.service;
+
+import com.project.flightbooking.dto.WaitlistRequest;
+import com.project.flightbooking.enums.WaitlistStatus;
+import com.project.flightbooking.model.Booking;
+import com.project.flightbooking.model.Flight;
+import com.project.flightbooking.model.User;
+import com.project.flightbooking.model.WaitlistEntry;
+import com.project.flightbooking.repository.BatchInsertRepository;
+import com.project.flightbooking.repository.FlightRepository;
+import com.project.flightbooking.repository.UserRepository;
+import com.project.flightbooking.repository.WaitlistRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * WaitlistService
+ * ---------------
+ * Per-flight waitlist for sold-out flights.
+ *
+ *  - Waiters live in waitlist_entries; the queue of a flight is its WAITING entries in id order.
+ *    Every node reads the same table, so a release on one node serves waiters who joined on another.
+ *  - Seats released by a booking (payment failure, refund, hold expiry, cancellation) are handed
+ *    to the head of the queue inside the release transaction (handOver, called by
+ *    SeatReleaseService): the waiters get PENDING holds that commit with the release, and only the
+ *    seats nobody on the waitlist could use go back on sale. Regular buyers never see the seats first.
+ *  - Waiters are served first come, first served; a waiter who needs more seats than are left
+ *    is skipped (keeps their place) so the seats go to the next waiter who fits.
+ *  - Seats that are already free (a user joins while seats are left, seats a skipped waiter could
+ *    not use, seats released while this node was down) are offered by a background promotion run:
+ *    the first booking.waitlist.promote-batch waiters get holds in ONE reservation transaction.
+ *  - Queue heads are locked with SKIP LOCKED, so a waiter is never promoted twice and releases
+ *    never wait on each other's waiters. One WAITING entry per user and flight is enforced by a
+ *    unique key.
+ */
+@Service
+public class WaitlistService {
+
+    private final WaitlistRepository waitlistRepository;
+    private final FlightRepository flightRepository;
+    private final UserRepository userRepository;
+    private final BatchInsertRepository batchInsertRepository;
+    private final SeatReservationExecutor reservationExecutor;
+    private final HoldExpiryService holdExpiryService;
+    private final BookingRefGenerator refGenerator;
+    private final PricingEngine pricingEngine;
+    private final TransactionTemplate transactionTemplate;
+
+    // flights with a promotion run queued but not started; collapses bursts of requests
+    private final Set<Long> scheduled = ConcurrentHashMap.newKeySet();
+    private final ExecutorService promoter;
+
+    @Value("${booking.waitlist.promote-batch:200}")
+    private int promoteBatch;
+
+    public WaitlistService(WaitlistRepository waitlistRepository,
+                           FlightRepository flightRepository,
+                           UserRepository userRepository,
+                           BatchInsertRepository batchInsertRepository,
+                           SeatReservationExecutor reservationExecutor,
+                           HoldExpiryService holdExpiryService,
+                           BookingRefGenerator refGenerator,
+                           PricingEngine pricingEngine,
+                           PlatformTransactionManager transactionManager) {
+        this.waitlistRepository = waitlistRepository;
+        this.flightRepository = flightRepository;
+        this.userRepository = userRepository;
+        this.batchInsertRepository = batchInsertRepository;
+        this.reservationExecutor = reservationExecutor;
+        this.holdExpiryService = holdExpiryService;
+        this.refGenerator = refGenerator;
+        this.pricingEngine = pricingEngine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.promoter = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "waitlist-promoter");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUp() {
+        // seats may have been left free while no node was running
+        List<Long> flights = waitlistRepository.findFlightIdsWithStatus(WaitlistStatus.WAITING);
+        System.out.println("Waitlist: waiters on " + flights.size() + " flights");
+        flights.forEach(this::schedulePromotion);
+    }
+
+    /**
+     * Put the user on the flight's waitlist. If seats happen to be free already,
+     * the user is promoted right away.
+     */
+    public WaitlistEntry join(String username, WaitlistRequest req) {
+        if (req.getFlightId() == null) {
+            throw new IllegalArgumentException("flightId is required");
+        }
+        if (req.getSeatCount() == null || req.getSeatCount() <= 0) {
+            throw new IllegalArgumentException("seatCount must be > 0");
+        }
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
+        Flight flight = flightRepository.findById(req.getFlightId())
+                .orElseThrow(() -> new IllegalArgumentException("Flight not found: " + req.getFlightId()));
+        if (!"SCHEDULED".equalsIgnoreCase(flight.getStatus())) {
+            throw new IllegalStateException("Flight " + flight.getFlightNumber() + " is not available for booking: " + flight.getStatus());
+        }
+        if (req.getSeatCount() > flight.getTotalSeats()) {
+            throw new IllegalArgumentException("seatCount exceeds the capacity of flight " + flight.getFlightNumber());
+        }
+        if (waitlistRepository.existsByUserIdAndFlightIdAndStatus(user.getId(), flight.getId(), WaitlistStatus.WAITING)) {
+            throw new IllegalStateException("Already on the waitlist for flight " + flight.getFlightNumber());
+        }
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setUser(user);
+        entry.setFlight(flight);
+        entry.setSeatCount(req.getSeatCount());
+        entry.setStatus(WaitlistStatus.WAITING);
+        try {
+            entry = waitlistRepository.saveAndFlush(entry);
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent join for the same user and flight won (uk_waitlist_user_flight_waiting)
+            throw new IllegalStateException("Already on the waitlist for flight " + flight.getFlightNumber());
+        }
+
+        schedulePromotion(flight.getId());
+        return entry;
+    }
+
+    /**
+     * Leave the waitlist. Only the waiting user can do this, and only while still waiting.
+     */
+    public WaitlistEntry leave(String username, Long entryId) {
+        return transactionTemplate.execute(status -> {
+            WaitlistEntry w = waitlistRepository.findByIdForUpdate(entryId)
+                    .orElseThrow(() -> new IllegalArgumentException("Waitlist entry not found: " + entryId));
+            if (!w.getUser().getUsername().equals(username)) {
+                throw new IllegalArgumentException("Waitlist entry not found: " + entryId);
+            }
+            if (w.getStatus() != WaitlistStatus.WAITING) {
+                throw new IllegalStateException("Waitlist entry is no longer waiting. Current status: " + w.getStatus());
+            }
+            w.setStatus(WaitlistStatus.CANCELLED);
+            return waitlistRepository.save(w);
+        });
+    }
+
+    /**
+     * The flight was cancelled: every waiter is cancelled, so seats released while its bookings
+     * are refunded are not offered to anyone. Returns the number of waiters removed.
+     */
+    public int closeFlight(Long flightId) {
+        Integer closed = transactionTemplate.execute(status ->
+                waitlistRepository.updateStatusForFlight(flightId, WaitlistStatus.WAITING, WaitlistStatus.CANCELLED));
+        return closed != null ? closed : 0;
+    }
+
+    /** 1-based place in the flight's queue, or null if the entry is no longer waiting. */
+    public Integer position(WaitlistEntry entry) {
+        if (entry.getStatus() != WaitlistStatus.WAITING) return null;
+        return (int) waitlistRepository.countByFlightIdAndStatusAndIdLessThan(
+                entry.getFlight().getId(), WaitlistStatus.WAITING, entry.getId()) + 1;
+    }
+
+    /**
+     * Give seats a booking is releasing straight to the flight's waiters, in the caller's (release)
+     * transaction. Returns how many of the seats were handed over; the caller puts the rest back on sale.
+     * The new holds commit or roll back with the release.
+     */
+    public int handOver(Flight flight, int seats) {
+        if (seats <= 0 || !"SCHEDULED".equalsIgnoreCase(flight.getStatus())) return 0;
+        List<WaitlistEntry> waiters = waitlistRepository.findNextForUpdate(
+                flight.getId(), WaitlistStatus.WAITING, Limit.of(promoteBatch));
+        if (waiters.isEmpty()) return 0;
+
+        int left = seats;
+        List<Booking> created = new ArrayList<>();
+        List<WaitlistEntry> promoted = new ArrayList<>();
+        for (WaitlistEntry w : waiters) {
+            if (left == 0) break;
+            if (w.getSeatCount() > left) continue; // keeps their place
+            left -= w.getSeatCount();
+            created.add(Booking.create(refGenerator.next("BK"), w.getUser(), flight, w.getSeatCount(), pricingEngine.quote(flight)));
+            promoted.add(w);
+        }
+        if (!created.isEmpty()) {
+            markPromoted(created, promoted);
+        }
+
+        boolean waitersLeft = promoted.size() < waiters.size();
+        int leftOver = left;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                created.forEach(b -> holdExpiryService.track(b.getId()));
+                if (!created.isEmpty()) {
+                    System.out.println("Waitlist: handed " + (seats - leftOver) + " released seats to "
+                            + created.size() + " waiters on flight " + flight.getId());
+                }
+                // seats that went back on sale may add up with free ones for a waiter who was skipped
+                if (waitersLeft && leftOver > 0) {
+                    schedulePromotion(flight.getId());
+                }
+            }
+        });
+        return seats - left;
+    }
+
+    private void schedulePromotion(Long flightId) {
+        if (!scheduled.add(flightId)) {
+            return;
+        }
+        promoter.execute(() -> {
+            // cleared before running, so requests that arrive during this run schedule another one
+            scheduled.remove(flightId);
+            try {
+                promote(flightId);
+            } catch (RuntimeException e) {
+                System.out.println("Waitlist promotion failed for flight " + flightId + ": " + e.getMessage());
+            }
+        });
+    }
+
+    // Free seats taken + bookings created for the first waiters of a flight, in one transaction
+    private void promote(Long flightId) {
+        int[] served = new int[2]; // [waiters locked, waiters promoted]
+        List<Booking> bookings = reservationExecutor.reserveBatch(flightId, flight -> {
+            List<WaitlistEntry> waiters = waitlistRepository.findNextForUpdate(
+                    flightId, WaitlistStatus.WAITING, Limit.of(promoteBatch));
+            List<Booking> created = new ArrayList<>();
+            List<WaitlistEntry> promoted = new ArrayList<>();
+            int smallestRejected = Integer.MAX_VALUE;
+            for (WaitlistEntry w : waiters) {
+                int seats = w.getSeatCount();
+                if (seats >= smallestRejected) continue; // a request this size already didn't fit
+                if (!reservationExecutor.tryTake(flight, seats)) {
+                    smallestRejected = seats;
+                    if (seats == 1) break; // flight is full again
+                    continue;
+                }
+                // promoted waiters pay the fare quoted right now, like any new booking
+                created.add(Booking.create(refGenerator.next("BK"), w.getUser(), flight, seats, pricingEngine.quote(flight)));
+                promoted.add(w);
+            }
+            if (!created.isEmpty()) {
+                markPromoted(created, promoted);
+            }
+            served[0] = waiters.size(); // the executor may retry with a fresh transaction
+            served[1] = promoted.size();
+            return created;
+        });
+
+        bookings.forEach(b -> holdExpiryService.track(b.getId()));
+        if (!bookings.isEmpty()) {
+            System.out.println("Waitlist: promoted " + bookings.size() + " waiters on flight " + flightId);
+        }
+        // a full batch was served: there may be seats left for the next waiters
+        if (served[0] == promoteBatch && served[1] == served[0]) {
+            schedulePromotion(flightId);
+        }
+    }
+
+    // bookings.get(i) was created for waiters.get(i)
+    private void markPromoted(List<Booking> bookings, List<WaitlistEntry> waiters) {
+        batchInsertRepository.persistAll(bookings);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < waiters.size(); i++) {
+            WaitlistEntry w = waiters.get(i);
+            w.setStatus(WaitlistStatus.PROMOTED);
+            w.setBookingRef(bookings.get(i).getBookingRef());
+            w.setPromotedAt(now);
+        }
+        waitlistRepository.saveAll(waiters);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        promoter.shutdown();
+    }
+}
@@ -0,0 +1,136 @@
+package com.project.flightbooking.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * CircuitBreaker
+ * --------------
+ * Count-based breaker over the outcomes of the last windowSize calls.
+ *
+ *  - CLOSED: calls go through; once at least minimumCalls are in the window and the failure rate
+ *    reaches failureRateThreshold, the breaker opens.
+ *  - OPEN: calls are rejected without being attempted for openMillis.
+ *  - HALF_OPEN: up to halfOpenCalls trial calls go through; all succeeding closes the breaker,
+ *    any failure opens it again.
+ *
+ * Callers ask tryAcquire() before a call and report exactly one of onSuccess / onFailure / onIgnored
+ * for every acquired call. Thread-safe; every method is short and synchronized.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    // ring buffer of outcomes, true = failure
+    private final boolean[] window;
+    private int windowPos;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int halfOpenStarted;
+    private int halfOpenSucceeded;
+    private long timesOpened;
+    private long rejected;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, long openMillis, int halfOpenCalls) {
+        if (windowSize <= 0) throw new IllegalArgumentException("windowSize must be > 0");
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1) throw new IllegalArgumentException("failureRateThreshold must be in (0, 1]");
+        if (halfOpenCalls <= 0) throw new IllegalArgumentException("halfOpenCalls must be > 0");
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openMillis * 1_000_000L;
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    /** Whether a call may be attempted now. */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openNanos) {
+                rejected++;
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenStarted = 0;
+            halfOpenSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenStarted >= halfOpenCalls) {
+                rejected++;
+                return false;
+            }
+            halfOpenStarted++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSucceeded >= halfOpenCalls) transition(State.CLOSED);
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transition(State.OPEN);
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && windowCount >= minimumCalls
+                && (double) windowFailures / windowCount >= failureRateThreshold) {
+            transition(State.OPEN);
+        }
+    }
+
+    /** The acquired call said nothing about the remote side (e.g. never started); frees its trial slot. */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && halfOpenStarted > 0) halfOpenStarted--;
+    }
+
+    public synchronized State state() {
+        // report an elapsed open period as half-open even before the next call arrives
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openNanos) return State.HALF_OPEN;
+        return state;
+    }
+
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("state", state().name());
+        m.put("windowCalls", windowCount);
+        m.put("windowFailureRate", windowCount == 0 ? 0.0 : (double) windowFailures / windowCount);
+        m.put("timesOpened", timesOpened);
+        m.put("rejectedCalls", rejected);
+        return m;
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowPos]) windowFailures--;
+        } else {
+            windowCount++;
+        }
+        window[windowPos] = failure;
+        if (failure) windowFailures++;
+        windowPos = (windowPos + 1) % window.length;
+    }
+
+    private void transition(State to) {
+        state = to;
+        if (to == State.OPEN) {
+            openedAtNanos = System.nanoTime();
+            timesOpened++;
+        }
+        windowPos = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+}
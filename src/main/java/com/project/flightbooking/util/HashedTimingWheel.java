@@ -0,0 +1,158 @@
+package com.project.flightbooking.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HashedTimingWheel
+ * -----------------
+ * Hashed timing wheel (Varghese & Lauck) for a very large number of timers with coarse precision.
+ *
+ *  - schedule() is O(1) and thread-safe: new timers go to a lock-free queue.
+ *  - advance() is called from ONE thread (a scheduler tick). It moves queued timers into their
+ *    bucket and walks only the buckets for the ticks that elapsed, returning expired items.
+ *  - Timers further away than one revolution carry a "rounds" count instead of a bigger wheel.
+ *  - cancel() just flags the timer; it is unlinked the next time its bucket is visited.
+ *
+ * Memory per timer is one small node, so millions of outstanding timers are fine.
+ */
+public class HashedTimingWheel<T> {
+
+    public static final class Timeout<T> {
+        private final T item;
+        private final long deadlineMillis;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+        private Timeout<T> next;
+        private Timeout<T> prev;
+        private Bucket<T> bucket;
+
+        private Timeout(T item, long deadlineMillis) {
+            this.item = item;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        public T item() {
+            return item;
+        }
+
+        public long deadlineMillis() {
+            return deadlineMillis;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    // intrusive doubly-linked list, only touched by the advancing thread
+    private static final class Bucket<T> {
+        private Timeout<T> head;
+        private Timeout<T> tail;
+
+        void add(Timeout<T> t) {
+            t.bucket = this;
+            if (head == null) {
+                head = tail = t;
+            } else {
+                tail.next = t;
+                t.prev = tail;
+                tail = t;
+            }
+        }
+
+        Timeout<T> remove(Timeout<T> t) {
+            Timeout<T> next = t.next;
+            if (t.prev != null) t.prev.next = next;
+            if (t.next != null) t.next.prev = t.prev;
+            if (t == head) head = next;
+            if (t == tail) tail = t.prev;
+            t.prev = t.next = null;
+            t.bucket = null;
+            return next;
+        }
+    }
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final Bucket<T>[] wheel;
+    private final int mask;
+    private final Queue<Timeout<T>> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private long tick; // next tick to process
+
+    public HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0) throw new IllegalArgumentException("tickMillis must be > 0");
+        int n = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1; // round up to power of two
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        @SuppressWarnings("unchecked")
+        Bucket<T>[] buckets = (Bucket<T>[]) new Bucket<?>[n];
+        for (int i = 0; i < n; i++) buckets[i] = new Bucket<>();
+        this.wheel = buckets;
+        this.mask = n - 1;
+    }
+
+    public Timeout<T> schedule(T item, long deadlineMillis) {
+        Timeout<T> t = new Timeout<>(item, deadlineMillis);
+        pending.add(t);
+        size.incrementAndGet();
+        return t;
+    }
+
+    /** Outstanding (not yet expired) timers, including cancelled ones not yet unlinked. */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Process every tick up to nowMillis and return the items whose deadline passed.
+     * Must only be called from a single thread.
+     */
+    public List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = (nowMillis - startMillis) / tickMillis;
+        while (tick <= targetTick) {
+            transferPending();
+            Bucket<T> bucket = wheel[(int) (tick & mask)];
+            Timeout<T> t = bucket.head;
+            while (t != null) {
+                if (t.cancelled) {
+                    t = bucket.remove(t);
+                    size.decrementAndGet();
+                } else if (t.remainingRounds <= 0) {
+                    expired.add(t.item);
+                    t = bucket.remove(t);
+                    size.decrementAndGet();
+                } else {
+                    t.remainingRounds--;
+                    t = t.next;
+                }
+            }
+            tick++;
+        }
+        return expired;
+    }
+
+    private void transferPending() {
+        Timeout<T> t;
+        while ((t = pending.poll()) != null) {
+            if (t.cancelled) {
+                size.decrementAndGet();
+                continue;
+            }
+            long deadlineTick = Math.max(0, (t.deadlineMillis - startMillis + tickMillis - 1) / tickMillis);
+            // overdue timers land in the current tick's bucket
+            long ticks = Math.max(deadlineTick, tick);
+            t.remainingRounds = (ticks - tick) / wheel.length;
+            wheel[(int) (ticks & mask)].add(t);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.project.flightbooking.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with half-power-of-two buckets (~41% resolution).
+ * Good enough to compare p50/p99 between configurations without pulling in a metrics library.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 80; // covers up to 2^40 ns (~18 minutes)
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+
+    public void record(long nanos) {
+        counts.incrementAndGet(bucketOf(Math.max(1, nanos)));
+        total.increment();
+    }
+
+    public long count() {
+        return total.sum();
+    }
+
+    /**
+     * Upper bound (in nanoseconds) of the bucket holding the given percentile, e.g. 0.99.
+     */
+    public long percentileNanos(double percentile) {
+        long n = total.sum();
+        if (n == 0) return 0;
+        long rank = (long) Math.ceil(percentile * n);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    // bucket i covers (2^(i/2), 2^((i+1)/2)]
+    private static int bucketOf(long nanos) {
+        int log2 = 63 - Long.numberOfLeadingZeros(nanos);
+        // second half of the power-of-two range if the bit below the top one is set
+        int half = log2 > 0 && (nanos & (1L << (log2 - 1))) != 0 ? 1 : 0;
+        return Math.min(BUCKETS - 1, log2 * 2 + half);
+    }
+
+    private static long upperBound(int bucket) {
+        int log2 = bucket / 2;
+        long base = 1L << log2;
+        return bucket % 2 == 0 ? base + (base >> 1) : base << 1;
+    }
+}
@@ -0,0 +1,127 @@
+package com.project.flightbooking.util;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * Money
+ * -----
+ * Immutable amount in minor units (paise for INR) plus its currency.
+ *
+ *  - Arithmetic is exact long math (overflow throws ArithmeticException); fractions such as refund
+ *    percentages round half-up to the minor unit once, at the end.
+ *  - Gateways want minor units anyway (Razorpay "amount" is paise), so minor() goes straight
+ *    into request builders with no scaling.
+ *  - BigDecimal only at the edges: DECIMAL columns (MoneyConverter), API DTOs and JSON
+ *    (serialized as the plain major-unit number, as the BigDecimal fields were).
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final Currency INR = Currency.getInstance("INR");
+    private static final Money ZERO_INR = new Money(0, INR);
+
+    private final long minor;
+    private final Currency currency;
+
+    private Money(long minor, Currency currency) {
+        this.minor = minor;
+        this.currency = Objects.requireNonNull(currency, "currency");
+    }
+
+    public static Money ofMinor(long minor) {
+        return minor == 0 ? ZERO_INR : new Money(minor, INR);
+    }
+
+    public static Money ofMinor(long minor, Currency currency) {
+        return new Money(minor, currency);
+    }
+
+    /** From a major-unit amount (e.g. rupees), rounded half-up to the minor unit. */
+    @JsonCreator
+    public static Money of(BigDecimal major) {
+        return of(major, INR);
+    }
+
+    public static Money of(BigDecimal major, Currency currency) {
+        long minor = major.movePointRight(currency.getDefaultFractionDigits())
+                .setScale(0, RoundingMode.HALF_UP).longValueExact();
+        return new Money(minor, currency);
+    }
+
+    public static Money zero() {
+        return ZERO_INR;
+    }
+
+    public long minor() {
+        return minor;
+    }
+
+    public Currency currency() {
+        return currency;
+    }
+
+    public Money plus(Money other) {
+        checkCurrency(other);
+        return new Money(Math.addExact(minor, other.minor), currency);
+    }
+
+    public Money minus(Money other) {
+        checkCurrency(other);
+        return new Money(Math.subtractExact(minor, other.minor), currency);
+    }
+
+    public Money times(long n) {
+        return new Money(Math.multiplyExact(minor, n), currency);
+    }
+
+    /** this * numerator / denominator, rounded half-up (away from zero) to the minor unit. */
+    public Money fraction(long numerator, long denominator) {
+        if (denominator <= 0) throw new IllegalArgumentException("denominator must be > 0");
+        long p = Math.multiplyExact(minor, numerator);
+        long q = p / denominator;
+        long r = Math.abs(p % denominator);
+        if (r * 2 >= denominator) q += Long.signum(p);
+        return new Money(q, currency);
+    }
+
+    public boolean isPositive() {
+        return minor > 0;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minor, currency.getDefaultFractionDigits());
+    }
+
+    @Override
+    public int compareTo(Money o) {
+        checkCurrency(o);
+        return Long.compare(minor, o.minor);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money m && m.minor == minor && m.currency.equals(currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minor) * 31 + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency.getCurrencyCode();
+    }
+
+    private void checkCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+}
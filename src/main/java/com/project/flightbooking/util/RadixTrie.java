@@ -0,0 +1,128 @@
+package com.project.flightbooking.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * RadixTrie
+ * ---------
+ * Immutable compressed prefix trie for type-ahead.
+ *
+ *  - Edges carry whole strings (chains of single-child nodes are merged), children are found
+ *    by binary search on their first character.
+ *  - Every node stores the best topK values of its subtree, ranked once at build time, so a
+ *    lookup is a walk down the prefix plus returning a precomputed array: no scan, no sorting.
+ *  - The same value may be stored under several keys (e.g. every word of a name); it shows up
+ *    at most once per result.
+ *
+ * Built in one go by build(); to change it, build a new one and swap the reference.
+ */
+public final class RadixTrie<V> {
+
+    private static final class Node {
+        String label = "";
+        char[] firsts = new char[0];
+        Node[] children = new Node[0];
+        Object[] top = new Object[0];
+    }
+
+    // mutable node used while building
+    private static final class BuildNode<V> {
+        final TreeMap<Character, BuildNode<V>> children = new TreeMap<>();
+        final List<V> values = new ArrayList<>(1);
+    }
+
+    private final Node root;
+    private final int size;
+
+    private RadixTrie(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @param entries key -> values stored under that key (keys must already be normalized, e.g. lower case)
+     * @param rank    best first
+     * @param topK    suggestions kept per node
+     */
+    public static <V> RadixTrie<V> build(Map<String, List<V>> entries, Comparator<? super V> rank, int topK) {
+        BuildNode<V> broot = new BuildNode<>();
+        int size = 0;
+        for (Map.Entry<String, List<V>> e : entries.entrySet()) {
+            BuildNode<V> n = broot;
+            for (int i = 0; i < e.getKey().length(); i++) {
+                n = n.children.computeIfAbsent(e.getKey().charAt(i), c -> new BuildNode<>());
+            }
+            n.values.addAll(e.getValue());
+            size += e.getValue().size();
+        }
+        // the root keeps an empty label: complete() starts matching at its children
+        return new RadixTrie<>(freeze(broot, "", false, rank, topK), size);
+    }
+
+    // compress single-child chains (except at the root) and compute each node's top list bottom-up
+    private static <V> Node freeze(BuildNode<V> b, String label, boolean compress, Comparator<? super V> rank, int topK) {
+        StringBuilder edge = new StringBuilder(label);
+        while (compress && b.values.isEmpty() && b.children.size() == 1) {
+            Map.Entry<Character, BuildNode<V>> only = b.children.firstEntry();
+            edge.append(only.getKey());
+            b = only.getValue();
+        }
+        Node n = new Node();
+        n.label = edge.toString();
+        n.firsts = new char[b.children.size()];
+        n.children = new Node[b.children.size()];
+        // candidates: own values + children's tops, deduplicated by identity
+        Map<Object, Boolean> seen = new IdentityHashMap<>();
+        List<V> candidates = new ArrayList<>(b.values.size() + topK * b.children.size());
+        for (V v : b.values) {
+            if (seen.put(v, Boolean.TRUE) == null) candidates.add(v);
+        }
+        int i = 0;
+        for (Map.Entry<Character, BuildNode<V>> c : b.children.entrySet()) {
+            Node child = freeze(c.getValue(), String.valueOf(c.getKey()), true, rank, topK);
+            n.firsts[i] = c.getKey();
+            n.children[i++] = child;
+            for (Object v : child.top) {
+                @SuppressWarnings("unchecked") V value = (V) v;
+                if (seen.put(value, Boolean.TRUE) == null) candidates.add(value);
+            }
+        }
+        candidates.sort(rank);
+        n.top = candidates.subList(0, Math.min(topK, candidates.size())).toArray();
+        return n;
+    }
+
+    /** Number of (key, value) pairs stored. */
+    public int size() {
+        return size;
+    }
+
+    /** Best values whose key starts with prefix (already normalized), at most limit of them. */
+    @SuppressWarnings("unchecked")
+    public List<V> complete(String prefix, int limit) {
+        Node n = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int c = Arrays.binarySearch(n.firsts, prefix.charAt(i));
+            if (c < 0) return Collections.emptyList();
+            Node child = n.children[c];
+            String label = child.label;
+            int k = 0;
+            while (k < label.length() && i < prefix.length()) {
+                if (label.charAt(k++) != prefix.charAt(i++)) return Collections.emptyList();
+            }
+            n = child; // prefix may end inside the label: the child's subtree still matches
+        }
+        int count = Math.min(limit, n.top.length);
+        List<V> out = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) out.add((V) n.top[k]);
+        return out;
+    }
+}
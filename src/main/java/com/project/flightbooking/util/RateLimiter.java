@@ -0,0 +1,40 @@
+package com.project.flightbooking.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RateLimiter
+ * -----------
+ * Smooth limiter: permits are handed out every 1/permitsPerSecond seconds, and up to burst permits
+ * saved up while idle can be taken at once. Each caller reserves the next free slot under a short
+ * lock and then sleeps outside it, so waiting threads never block each other.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private long nextFreeNanos;
+
+    public RateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) throw new IllegalArgumentException("permitsPerSecond must be > 0");
+        if (burst <= 0) throw new IllegalArgumentException("burst must be > 0");
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstNanos = (burst - 1) * intervalNanos;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    /** Block until a permit is available. */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            // idle time banks at most burst permits
+            long slot = Math.max(nextFreeNanos, now - burstNanos);
+            nextFreeNanos = slot + intervalNanos;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.project.flightbooking.util;
+
+/**
+ * SeatBitmap
+ * ----------
+ * Seat map of one flight packed into a long[]: bit i = seat i, 1 = taken, 0 = free.
+ * Seat i sits in row (i / seatsPerRow) + 1, column 'A' + (i % seatsPerRow), e.g. "12C".
+ *
+ * A 300-seat aircraft is 5 longs (40 bytes); persisted as ceil(capacity / 8) bytes.
+ * Bits past the last seat are kept set, so searches never return them.
+ *
+ * Thread-safe: every operation is short and synchronized on the map, which also makes
+ * multi-seat holds all-or-nothing.
+ */
+public class SeatBitmap {
+
+    private final int capacity;
+    private final int seatsPerRow;
+    private final long[] words;
+    // startMasks[n][w]: bits of word w where a run of n seats can start without crossing a row
+    private final long[][] startMasks;
+    private int free;
+
+    public SeatBitmap(int capacity, int seatsPerRow) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+        if (seatsPerRow <= 0 || seatsPerRow > 26) throw new IllegalArgumentException("seatsPerRow must be 1..26");
+        this.capacity = capacity;
+        this.seatsPerRow = seatsPerRow;
+        this.words = new long[(capacity + 63) >>> 6];
+        this.free = capacity;
+        // mark padding bits past the last seat as taken
+        int tail = capacity & 63;
+        if (tail != 0) words[words.length - 1] = -1L << tail;
+        this.startMasks = new long[seatsPerRow + 1][];
+        for (int n = 1; n <= seatsPerRow; n++) {
+            long[] mask = new long[words.length];
+            for (int i = 0; i + n <= capacity; i++) {
+                if (i % seatsPerRow + n <= seatsPerRow) mask[i >>> 6] |= 1L << i;
+            }
+            startMasks[n] = mask;
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int seatsPerRow() {
+        return seatsPerRow;
+    }
+
+    public synchronized int freeSeats() {
+        return free;
+    }
+
+    public synchronized boolean isFree(int seat) {
+        checkSeat(seat);
+        return (words[seat >>> 6] & (1L << seat)) == 0;
+    }
+
+    /**
+     * Take all the given seats, or none of them if any is already taken.
+     */
+    public synchronized boolean holdAll(int[] seats) {
+        for (int s : seats) {
+            checkSeat(s);
+            if ((words[s >>> 6] & (1L << s)) != 0) return false;
+        }
+        for (int s : seats) {
+            words[s >>> 6] |= 1L << s;
+        }
+        free -= seats.length;
+        return true;
+    }
+
+    public synchronized void releaseAll(int[] seats) {
+        for (int s : seats) {
+            checkSeat(s);
+            long bit = 1L << s;
+            if ((words[s >>> 6] & bit) != 0) {
+                words[s >>> 6] &= ~bit;
+                free++;
+            }
+        }
+    }
+
+    /**
+     * Find and take n seats next to each other in one row; falls back to the first n free seats
+     * anywhere if no such run exists. Returns the seat indexes, or null if fewer than n seats are free.
+     */
+    public synchronized int[] holdBest(int n) {
+        if (n <= 0 || n > free) return null;
+        int start = findAdjacentFree(n);
+        int[] seats = new int[n];
+        if (start >= 0) {
+            for (int k = 0; k < n; k++) seats[k] = start + k;
+        } else {
+            int found = 0;
+            for (int w = 0; w < words.length && found < n; w++) {
+                long freeBits = ~words[w];
+                while (freeBits != 0 && found < n) {
+                    seats[found++] = (w << 6) + Long.numberOfTrailingZeros(freeBits);
+                    freeBits &= freeBits - 1; // clear lowest set bit
+                }
+            }
+        }
+        holdAll(seats);
+        return seats;
+    }
+
+    /**
+     * First seat of a run of n free seats within one row, or -1.
+     * Word-level scan: bit i of run is set iff seats i..i+n-1 are all free.
+     */
+    public synchronized int findAdjacentFree(int n) {
+        if (n <= 0 || n > seatsPerRow) return -1;
+        long[] starts = startMasks[n];
+        for (int w = 0; w < words.length; w++) {
+            long run = ~words[w] & starts[w];
+            for (int k = 1; k < n && run != 0; k++) {
+                run &= freeShiftedBy(w, k);
+            }
+            if (run != 0) return (w << 6) + Long.numberOfTrailingZeros(run);
+        }
+        return -1;
+    }
+
+    // free bits of word w shifted down by k, pulling in the low bits of the next word
+    private long freeShiftedBy(int w, int k) {
+        long next = w + 1 < words.length ? ~words[w + 1] : 0L;
+        return (~words[w] >>> k) | (next << (64 - k));
+    }
+
+    public synchronized byte[] toBytes() {
+        byte[] out = new byte[(capacity + 7) >>> 3];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (byte) (words[i >>> 3] >>> ((i & 7) << 3));
+        }
+        return out;
+    }
+
+    /**
+     * Rebuild a map from toBytes() output. Returns null if the bytes don't fit the capacity
+     * (e.g. the aircraft was changed), so the caller can rebuild it another way.
+     */
+    public static SeatBitmap fromBytes(int capacity, int seatsPerRow, byte[] bytes) {
+        SeatBitmap map = new SeatBitmap(capacity, seatsPerRow);
+        if (bytes == null || bytes.length != (capacity + 7) >>> 3) return null;
+        long[] words = map.words;
+        for (int i = 0; i < bytes.length; i++) {
+            words[i >>> 3] |= (bytes[i] & 0xFFL) << ((i & 7) << 3);
+        }
+        int taken = 0;
+        for (long w : words) taken += Long.bitCount(w);
+        map.free = words.length * 64 - taken; // padding bits were already set by the constructor
+        return map;
+    }
+
+    public String label(int seat) {
+        checkSeat(seat);
+        return (seat / seatsPerRow + 1) + String.valueOf((char) ('A' + seat % seatsPerRow));
+    }
+
+    /** "12C" -> seat index. */
+    public int indexOf(String label) {
+        if (label == null || label.length() < 2) throw new IllegalArgumentException("Invalid seat: " + label);
+        String l = label.trim().toUpperCase();
+        char col = l.charAt(l.length() - 1);
+        int row;
+        try {
+            row = Integer.parseInt(l.substring(0, l.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid seat: " + label);
+        }
+        int c = col - 'A';
+        int seat = (row - 1) * seatsPerRow + c;
+        if (row < 1 || c < 0 || c >= seatsPerRow || seat >= capacity) {
+            throw new IllegalArgumentException("Invalid seat: " + label);
+        }
+        return seat;
+    }
+
+    /** One string per row, '.' = free, 'X' = taken. */
+    public synchronized String[] rows() {
+        int rowCount = (capacity + seatsPerRow - 1) / seatsPerRow;
+        String[] rows = new String[rowCount];
+        char[] buf = new char[seatsPerRow];
+        for (int r = 0; r < rowCount; r++) {
+            int len = 0;
+            for (int c = 0; c < seatsPerRow; c++) {
+                int s = r * seatsPerRow + c;
+                if (s >= capacity) break;
+                buf[len++] = (words[s >>> 6] & (1L << s)) == 0 ? '.' : 'X';
+            }
+            rows[r] = new String(buf, 0, len);
+        }
+        return rows;
+    }
+
+    private void checkSeat(int seat) {
+        if (seat < 0 || seat >= capacity) throw new IllegalArgumentException("Seat out of range: " + seat);
+    }
+}